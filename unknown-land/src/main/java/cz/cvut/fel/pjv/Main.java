@@ -4,12 +4,18 @@ import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import cz.cvut.fel.pjv.map.LoadMaps;
+import cz.cvut.fel.pjv.utils.AssetLoader;
 import cz.cvut.fel.pjv.view.GameView;
+import cz.cvut.fel.pjv.view.LoadingScreen;
 
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.FPS_SET;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.MAX_UPDATES_PER_FRAME;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.THREADED_SIMULATION;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.UPS_SET;
 
 /**
  * Main class for the game.
@@ -23,57 +29,91 @@ import static cz.cvut.fel.pjv.utils.Constants.GameConstants.FPS_SET;
  */
 public class Main extends Application {
 
+    private static final long TICK_LENGTH = 1_000_000_000L / UPS_SET; // length of one tick in nanoseconds
     private static AnimationTimer gameLoop;
+    private static Thread simulationThread;
+    private static volatile boolean simulationRunning;
     private GameView gameView;
     private static final Logger log = Logger.getLogger(Main.class.getName());
 
     /**
      * Starting the application.
-     * Initialize the game view.
+     * Show the loading screen right away and load the assets in the background,
+     * the game view is initialized once everything is loaded.
      */
     @SuppressWarnings("exports")
     @Override
     public void start(Stage primaryStage) {
-        gameView = new GameView(primaryStage);
-        gameView.init();
         log.setLevel(Level.INFO);
+        LoadingScreen loadingScreen = new LoadingScreen();
+        primaryStage.setScene(loadingScreen.getScene());
+        primaryStage.setTitle("Unknown Land");
+        primaryStage.setResizable(false);
+        primaryStage.show();
+
+        LoadMaps loadMaps = new LoadMaps();
+        new AssetLoader(loadMaps).load(loadingScreen::setProgress, () -> {
+            gameView = new GameView(primaryStage, loadMaps);
+            gameView.init();
+        });
     }
 
     /**
-     * Stopping the game loop and game time thread.
+     * Stopping the game loop.
      */
     @Override
     public void stop() throws Exception {
         super.stop();
-        gameView.getPlayState().getGameTime().stopTime();
         if (gameLoop != null)
-            gameLoop.stop();
+            stopGameLoop();
         log.info("Game loop stopped and stopping game.");
     }
 
     /**
      * Starting the game loop.
-     * Render is called 60 times per second capped by JavaFX's AnimationTimer.
-     * Using AnimationTimer for the game loop thread.
+     * The simulation runs in fixed ticks of 1/UPS_SET seconds, independent of the
+     * frame rate of the AnimationTimer. Time elapsed since the last frame is
+     * accumulated and consumed in whole ticks, at most MAX_UPDATES_PER_FRAME per
+     * frame so a long stall can't snowball into ever longer frames - the leftover
+     * time is dropped instead.
+     * Render is called once per frame with the fraction of the next tick
+     * that has already elapsed, so moving things can be drawn between their last
+     * two tick positions.
+     * If THREADED_SIMULATION is on, ticks run on their own thread instead and the
+     * AnimationTimer only draws the frames the simulation publishes.
      * 
      * @param gameView
      */
     @SuppressWarnings("exports")
     public static void startGameLoop(GameView gameView) {
+        if (gameLoop != null) {
+            stopGameLoop();
+        }
+        if (THREADED_SIMULATION) {
+            startSimulationThread(gameView);
+        }
         gameLoop = new AnimationTimer() {
+            long lastFrame = 0;
+            long accumulator = 0;
             int fps = 0;
-            long lastUpdate = 0;
             long lastFpsPrint = 0;
 
             @Override
             public void handle(long now) { // called every frame
-                if (now - lastUpdate >= 1_000_000_000 / FPS_SET) { // 1 second in nanoseconds
-                    gameView.render();
-                    fps++; // max fps is capped at 60 by JavaFX's AnimationTimer, even though the gameLoop
-                           // runs at 80 fps
-                    lastUpdate = now;
+                if (lastFrame == 0) {
+                    lastFrame = now;
+                    lastFpsPrint = now;
                 }
-                if (now - lastFpsPrint >= 1000000000) {
+                if (THREADED_SIMULATION) {
+                    gameView.present();
+                } else {
+                    accumulator = runTicks(gameView, accumulator + now - lastFrame);
+                    gameView.render((double) accumulator / TICK_LENGTH);
+                }
+                lastFrame = now;
+
+                fps++;
+                if (now - lastFpsPrint >= 1_000_000_000) {
                     // log.info("FPS: " + fps);
                     fps = 0;
                     lastFpsPrint = now;
@@ -84,14 +124,78 @@ public class Main extends Application {
         log.info("Game loop started.");
     }
 
+    /**
+     * Starting the simulation thread.
+     * It ticks the game the same way the AnimationTimer does, then records the
+     * frame and publishes it for the JavaFX thread. Between ticks it sleeps until
+     * the next one is due.
+     * 
+     * @param gameView
+     */
+    private static void startSimulationThread(GameView gameView) {
+        simulationRunning = true;
+        simulationThread = new Thread(() -> {
+            long lastTime = System.nanoTime();
+            long accumulator = 0;
+            while (simulationRunning) {
+                long now = System.nanoTime();
+                long elapsed = accumulator + now - lastTime;
+                lastTime = now;
+                accumulator = runTicks(gameView, elapsed);
+                if (elapsed >= TICK_LENGTH) { // at least one tick happened
+                    gameView.record();
+                }
+                LockSupport.parkNanos(TICK_LENGTH - accumulator);
+            }
+        }, "simulation");
+        simulationThread.setDaemon(true);
+        simulationThread.setUncaughtExceptionHandler((thread, e) -> log.log(Level.SEVERE, "Simulation crashed", e));
+        simulationThread.start();
+        log.info("Simulation thread started.");
+    }
+
+    /**
+     * Running as many ticks as fit in the elapsed time.
+     * At most MAX_UPDATES_PER_FRAME ticks are run, if we are still behind
+     * after that, the rest of the time is dropped.
+     * 
+     * @param gameView
+     * @param accumulator elapsed time in nanoseconds not yet simulated
+     * @return time left over, always less than one tick
+     */
+    private static long runTicks(GameView gameView, long accumulator) {
+        int updates = 0;
+        while (accumulator >= TICK_LENGTH && updates < MAX_UPDATES_PER_FRAME) {
+            gameView.update();
+            accumulator -= TICK_LENGTH;
+            updates++;
+        }
+        if (accumulator >= TICK_LENGTH) { // we are too far behind, don't try to catch up
+            accumulator %= TICK_LENGTH;
+        }
+        return accumulator;
+    }
+
     /**
      * Stopping the game loop.
      * This is used when the player dies or wins or
      * if player goes to the menu.
+     * The simulation thread (if running) finishes its tick first, so nothing
+     * touches the game after this returns.
      */
     public static void stopGameLoop() {
         gameLoop.stop();
+        if (simulationThread != null) {
+            simulationRunning = false;
+            LockSupport.unpark(simulationThread);
+            try {
+                simulationThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            simulationThread = null;
+        }
         log.info("Game loop stopped.");
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package cz.cvut.fel.pjv.entities;
+
+import java.util.Arrays;
+
+/**
+ * Class for the AnimationClip.
+ * One animation of an entity - how many frames it has, how many ticks every
+ * frame is shown, if it plays again from the start when it ends and which
+ * frames are event frames (for example the frame of an attack that hits).
+ * The frame for every tick of the clip is computed once, so finding the
+ * current frame is just an array lookup.
+ * Clips don't change, one clip is shared by all entities that play it.
+ * @see Animator
+ * @see AnimationClips
+ *
+ * @author Son Ngoc Tran
+ */
+public class AnimationClip {
+
+    private final int frames;
+    private final int[] frameAt; // frame shown at every tick of the clip
+    private final boolean loop;
+    private final int eventFrom, eventTo; // eventFrom > eventTo if the clip has no event
+
+    /**
+     * Constructor for a clip without events, every frame takes the same time.
+     *
+     * @param frames        number of frames
+     * @param ticksPerFrame how many ticks every frame is shown
+     * @param loop          true if the clip starts again when it ends
+     */
+    public AnimationClip(int frames, int ticksPerFrame, boolean loop) {
+        this(frames, ticksPerFrame, loop, 0, -1);
+    }
+
+    /**
+     * Constructor for a clip where every frame takes the same time.
+     *
+     * @param frames        number of frames
+     * @param ticksPerFrame how many ticks every frame is shown
+     * @param loop          true if the clip starts again when it ends
+     * @param eventFrom     first event frame
+     * @param eventTo       last event frame
+     */
+    public AnimationClip(int frames, int ticksPerFrame, boolean loop, int eventFrom, int eventTo) {
+        this(sameTicks(frames, ticksPerFrame), loop, eventFrom, eventTo);
+    }
+
+    /**
+     * Constructor for the AnimationClip.
+     *
+     * @param frameTicks how many ticks every frame is shown
+     * @param loop       true if the clip starts again when it ends
+     * @param eventFrom  first event frame
+     * @param eventTo    last event frame
+     */
+    public AnimationClip(int[] frameTicks, boolean loop, int eventFrom, int eventTo) {
+        this.frames = frameTicks.length;
+        this.loop = loop;
+        this.eventFrom = eventFrom;
+        this.eventTo = eventTo;
+        frameAt = new int[Arrays.stream(frameTicks).sum()];
+        int tick = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            Arrays.fill(frameAt, tick, tick + frameTicks[frame], frame);
+            tick += frameTicks[frame];
+        }
+    }
+
+    /**
+     * Frame shown at the tick of the clip.
+     *
+     * @param tick ticks since the clip started, less than the duration
+     * @return frame index
+     */
+    public int frameAt(int tick) {
+        return frameAt[tick];
+    }
+
+    /**
+     * How many ticks the whole clip takes.
+     *
+     * @return duration in ticks
+     */
+    public int getDuration() {
+        return frameAt.length;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public boolean isLoop() {
+        return loop;
+    }
+
+    public boolean isEventFrame(int frame) {
+        return frame >= eventFrom && frame <= eventTo;
+    }
+
+    private static int[] sameTicks(int frames, int ticksPerFrame) {
+        int[] ticks = new int[frames];
+        Arrays.fill(ticks, ticksPerFrame);
+        return ticks;
+    }
+
+}
@@ -0,0 +1,78 @@
+package cz.cvut.fel.pjv.entities;
+
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.*;
+
+/**
+ * Class for the AnimationClips.
+ * Tables of all animation clips of the player and the enemies.
+ * Every clip is made once when the class is loaded and shared by everyone.
+ * Rows of the tables are the actions (rows of the spritesheet).
+ * @see AnimationClip
+ *
+ * @author Son Ngoc Tran
+ */
+public final class AnimationClips {
+
+    private static final int ENEMY_TICKS = 7; // ticks per frame of all enemy animations
+    private static final int PLAYER_MOVING_TICKS = 8;
+    private static final int PLAYER_ATTACK_TICKS = 4; // attacking is faster than moving
+
+    // frames of every action [enemy type][action], actions an enemy doesn't have
+    // keep the counts they had in the old switch
+    private static final int[][] ENEMY_FRAMES = {
+            { 13, 7, 12, 4, 3, 3 }, // SKELETON
+            { 5, 7, 8, 4, 8, 3 }, // ZOMBIE
+            { 5, 4, 4, 4, 8, 1 }, // EYEBALL
+            { 5, 5, 4, 1, 8, 1 }, // NECROMANCER
+    };
+    private static final int[] ENEMY_ATTACK = { SKEL_ATTACK, ZOM_ATTACK, EYE_ATTACK, NECROMANCER_ATTACK };
+
+    // frames of the running and idle actions of the player (PlayerConstants)
+    private static final int[] PLAYER_MOVING_FRAMES = { 1, 1, 1, 1, 3, 2, 6, 6, 10 };
+    // frames of the attack actions of the player (ATTACK_LEFT, ATTACK_UP, ATTACK_RIGHT, ATTACK_DOWN)
+    private static final int[] PLAYER_ATTACK_FRAMES = { 5, 4, 5, 7 };
+
+    /** Enemy clips [enemy type][action], attack clips hit in their middle frames. */
+    public static final AnimationClip[][] ENEMY = createEnemyClips();
+    /** Player running and idle clips [action]. */
+    public static final AnimationClip[] PLAYER_MOVING = createClips(PLAYER_MOVING_FRAMES, PLAYER_MOVING_TICKS);
+    /** Player attack clips [action]. */
+    public static final AnimationClip[] PLAYER_ATTACK = createClips(PLAYER_ATTACK_FRAMES, PLAYER_ATTACK_TICKS);
+    /** Player getting hit, one frame in every direction. */
+    public static final AnimationClip PLAYER_HIT = new AnimationClip(1, PLAYER_MOVING_TICKS, true);
+    /** Necromancer's spell appearing and disappearing, both play once. */
+    public static final AnimationClip SPELL_APPEAR = new AnimationClip(5, ENEMY_TICKS, false);
+    public static final AnimationClip SPELL_DISAPPEAR = new AnimationClip(3, ENEMY_TICKS, false);
+
+    private AnimationClips() {
+    }
+
+    /**
+     * Make the enemy clips.
+     * Attack clips hit the player from the middle frame up to the third last one.
+     */
+    private static AnimationClip[][] createEnemyClips() {
+        AnimationClip[][] clips = new AnimationClip[ENEMY_FRAMES.length][];
+        for (int type = 0; type < ENEMY_FRAMES.length; type++) {
+            clips[type] = new AnimationClip[ENEMY_FRAMES[type].length];
+            for (int action = 0; action < ENEMY_FRAMES[type].length; action++) {
+                int frames = ENEMY_FRAMES[type][action];
+                if (action == ENEMY_ATTACK[type]) {
+                    clips[type][action] = new AnimationClip(frames, ENEMY_TICKS, true, frames / 2 - 1, frames - 3);
+                } else {
+                    clips[type][action] = new AnimationClip(frames, ENEMY_TICKS, true);
+                }
+            }
+        }
+        return clips;
+    }
+
+    private static AnimationClip[] createClips(int[] frames, int ticksPerFrame) {
+        AnimationClip[] clips = new AnimationClip[frames.length];
+        for (int action = 0; action < frames.length; action++) {
+            clips[action] = new AnimationClip(frames[action], ticksPerFrame, true);
+        }
+        return clips;
+    }
+
+}
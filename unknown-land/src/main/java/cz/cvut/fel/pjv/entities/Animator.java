@@ -0,0 +1,129 @@
+package cz.cvut.fel.pjv.entities;
+
+import cz.cvut.fel.pjv.time.TimerWheel;
+
+/**
+ * Class for the Animator.
+ * Plays animation clips of one entity.
+ * It has no tick counter of its own, it remembers the tick of the clock
+ * (TimerWheel) the clip started at and computes the frame from it, so all
+ * entities share one clock. An entity that doesn't update its animator for
+ * a while (off the screen) is not behind, the next update catches up and
+ * still tells if the clip ended in the meantime.
+ * @see AnimationClip
+ *
+ * @author Son Ngoc Tran
+ */
+public class Animator {
+
+    private TimerWheel clock;
+    private AnimationClip clip;
+    private long start; // tick of the clock the clip started at
+    private long cycles; // how many times a looping clip ended
+    private int frame;
+    private boolean wrapped, finished, event;
+
+    /**
+     * Constructor for the Animator.
+     *
+     * @param clock clock shared by the entities
+     * @param clip  clip to start with
+     */
+    public Animator(TimerWheel clock, AnimationClip clip) {
+        this.clock = clock;
+        restart(clip);
+    }
+
+    /**
+     * Play the clip, if it's already playing it just goes on.
+     *
+     * @param clip clip to play
+     */
+    public void play(AnimationClip clip) {
+        if (clip != this.clip) {
+            restart(clip);
+        }
+    }
+
+    /**
+     * Play the clip from the first frame.
+     *
+     * @param clip clip to play
+     */
+    public void restart(AnimationClip clip) {
+        this.clip = clip;
+        start = clock.getTick();
+        cycles = 0;
+        frame = 0;
+        wrapped = false;
+        finished = false;
+        event = false;
+    }
+
+    /**
+     * Play the current clip from the first frame.
+     */
+    public void restart() {
+        restart(clip);
+    }
+
+    /**
+     * Move the animation to the current tick of the clock.
+     * A looping clip starts again from the first frame when it ends,
+     * a clip that doesn't loop stays at its last frame and is finished.
+     *
+     * @return true if the frame changed (or the clip ended) since the last update
+     */
+    public boolean update() {
+        long elapsed = clock.getTick() - start;
+        int duration = clip.getDuration();
+        long newCycles = elapsed / duration;
+        boolean changed;
+        if (!clip.isLoop() && newCycles > 0) {
+            changed = !finished;
+            finished = true;
+            wrapped = false;
+            frame = clip.getFrames() - 1;
+        } else {
+            int newFrame = clip.frameAt((int) (elapsed % duration));
+            wrapped = newCycles != cycles;
+            changed = wrapped || newFrame != frame;
+            frame = newFrame;
+        }
+        cycles = newCycles;
+        event = changed && !wrapped && !finished && clip.isEventFrame(frame);
+        return changed;
+    }
+
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Check if a looping clip ended and started again in the last update.
+     *
+     * @return true if the clip wrapped around
+     */
+    public boolean hasWrapped() {
+        return wrapped;
+    }
+
+    /**
+     * Check if a clip that doesn't loop got to its end.
+     *
+     * @return true if the clip is finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Check if the last update moved to an event frame.
+     *
+     * @return true if the current frame is an event frame it just got to
+     */
+    public boolean isEvent() {
+        return event;
+    }
+
+}
@@ -3,11 +3,18 @@ package cz.cvut.fel.pjv.entities;
 import java.util.Random;
 
 import cz.cvut.fel.pjv.gamestates.PlayState;
-import cz.cvut.fel.pjv.utils.Collision;
+import cz.cvut.fel.pjv.time.Cooldown;
+import cz.cvut.fel.pjv.time.TimerWheel;
+import cz.cvut.fel.pjv.utils.AssetCache;
 import cz.cvut.fel.pjv.utils.Vector2D;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.ParticleEmitter;
+import cz.cvut.fel.pjv.view.ParticleSystem;
+import cz.cvut.fel.pjv.view.RenderQueue;
 import javafx.scene.image.Image;
 import static cz.cvut.fel.pjv.utils.Constants.Enemy.*;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.LAYER_ENTITIES;
 
 /**
  * Abstract class Enemy. Not meant to be instantiated.
@@ -23,23 +30,31 @@ import static cz.cvut.fel.pjv.utils.Constants.Enemy.*;
  */
 public abstract class Enemy extends Entity {
 
-    private int aniTick, aniSpeed, aniIndex, enemyDirection, updateCounter, updateThreshold;
+    private int enemyDirection, updateThreshold;
+    private Animator animator;
     private Random random;
-    private Collision collision;
     private Player player;
     private float diffX, diffY, fastest_path, visibleRadius;
     private HitDetector hitDetector;
-    private int prevHealth, aniAttackCounter;
+    private int prevHealth;
+    private TimerWheel timerWheel;
+    private Cooldown attackCooldown, wanderCooldown;
+    private String spriteSheet; // acquired from the AssetCache, released in dispose()
+    private int spriteSize;
     private boolean hit;
     private Vector2D solidOffset;
 
     // Variables used by the child classes or hitDetector
-    protected int enemy_type, health, attackDelayCounter, getHitCounter;
+    protected int enemy_type, health;
     protected Vector2D dmgBoxOffset, weaponOffset;
     protected int pixSize, aniAttackThreshold, enemyAction;
     protected Image sprites[][];
     protected Vector2D positionOffset;
     protected boolean moving, attack, playerVisible;
+    protected boolean hitsPlayer, pushesPlayer, gotHit; // queued by the HitDetector, applied in resolve()
+    protected boolean nearPlayer; // set by the EnemyManager, only enemies near the player are tested for hits
+    protected ParticleEmitter hitEmitter; // burst when the enemy is hit
+    protected ParticleSystem particles;
     protected float enemySpeed, tempX, tempY;
 
     /**
@@ -52,7 +67,9 @@ public abstract class Enemy extends Entity {
      */
     public Enemy(PlayState playState, float x, float y, EnemyAttributes enemyAttributes) {
         super(x, y, enemyAttributes.getHealth(), enemyAttributes.getDamage());
-        hitDetector = new HitDetector(playState);
+        timerWheel = playState.getTimerWheel();
+        particles = playState.getParticles();
+        hitDetector = new HitDetector(timerWheel);
         collision = playState.getCollision();
         player = playState.getPlayer();
         random = new Random();
@@ -64,42 +81,100 @@ public abstract class Enemy extends Entity {
 
     /**
      * Renders the enemy entity at solid hitbox coordinate to fit into the hitbox
-     * rectangle.
+     * rectangle. Sorted by the bottom of the hitbox (feet).
      * 
-     * @param gc            GraphicsContext object used for rendering
+     * @param queue         where the sprite is submitted
      * @param invertOffsetX Offset used for rendering the enemy in the correct
      *                      position
      *                      due to the sprite not being centered
+     * @param alpha         how far we are between the last tick and the next one
      */
-    public void render(GraphicsContext gc, int invertOffsetX) {
-        if (aniIndex < sprites[enemyAction].length) {
-            gc.drawImage(sprites[enemyAction][aniIndex],
-                    hitbox.getX() - solidOffset.getX() + invertOffsetX, hitbox.getY() - solidOffset.getY(),
-                    pixSize * 1.5, pixSize * 1.5);
+    public void render(RenderQueue queue, int invertOffsetX, double alpha) {
+        int frame = animator.getFrame();
+        if (frame < sprites[enemyAction].length) {
+            double renderY = getRenderY(alpha);
+            queue.submit(sprites[enemyAction][frame],
+                    getRenderX(alpha) - solidOffset.getX() + invertOffsetX, renderY - solidOffset.getY(),
+                    pixSize * 1.5, pixSize * 1.5, LAYER_ENTITIES, renderY + hitbox.getHeight());
         }
 
     }
 
     /**
      * Updates the enemy entity.
+     * Same as think() followed by resolve(), used when the enemy is updated on
+     * its own. Such enemy is always tested for hits.
+     */
+    public void update() {
+        nearPlayer = true;
+        PlayerSnapshot snapshot = new PlayerSnapshot(player);
+        think(snapshot);
+        resolve(player, snapshot);
+    }
+
+    /**
+     * First part of the update - the enemy thinks and moves.
      * Checks if the enemy is hit, sets the direction, updates the position,
      * checks the attack delay, updates the tick, and sets the animation.
      * Also checks for player collision and hit.
      * It manages enemy tick + enemy index - the variables for render.
+     * Only this enemy is changed, the player is just read from the snapshot,
+     * so enemies can think in parallel.
+     * 
+     * @param player player at the start of the enemy update
      */
-    public void update() {
+    void think(PlayerSnapshot player) {
+        savePreviousPosition();
         checkHit();
-        setDirection();
+        setDirection(player);
         updateMovingPosition();
         checkAttackDelay();
-        updateTick();
+        updateTick(player);
         setAni();
 
-        hitDetector.checkPlayerCollision(this);
-        hitDetector.checkGetHit(this);
+        hitDetector.checkPlayerCollision(this, player);
+        hitDetector.checkGetHit(this, player);
 
     }
 
+    /**
+     * Second part of the update - what the enemy did to the player is applied.
+     * Enemies are resolved one by one in the same order every tick.
+     * Particles of the hits are emitted here, the particle pool is shared.
+     * 
+     * @param player   the player
+     * @param snapshot player at the start of the enemy update
+     */
+    void resolve(Player player, PlayerSnapshot snapshot) {
+        if (gotHit) {
+            hitEmitter.emit(particles, dmgHitbox.getX() + dmgHitbox.getWidth() / 2,
+                    dmgHitbox.getY() + dmgHitbox.getHeight() / 2);
+        }
+        if (hitsPlayer) {
+            ParticleEmitter.PLAYER_BLOOD.emit(particles, snapshot.dmgHitbox.getCenterX(),
+                    snapshot.dmgHitbox.getCenterY());
+        }
+        hitDetector.resolve(this, player, snapshot);
+    }
+
+    /**
+     * Push the enemy one step back from where it was going, it still can't
+     * be pushed into a wall.
+     */
+    void pushBack() {
+        moveBy(-positionOffset.getX() * enemySpeed, -positionOffset.getY() * enemySpeed);
+    }
+
+    /**
+     * Replace the random generator of the enemy, so the same enemy
+     * wanders the same way every time.
+     * 
+     * @param random generator used to pick the wander direction
+     */
+    void setRandom(Random random) {
+        this.random = random;
+    }
+
     private void extractAttributes(EnemyAttributes enemyAttributes) {
         solidOffset = enemyAttributes.getSolidBoxOffset();
         dmgBoxOffset = enemyAttributes.getDmgBoxOffset();
@@ -113,53 +188,68 @@ public abstract class Enemy extends Entity {
     private void initVariables() {
         prevHealth = health;
         positionOffset = new Vector2D(0, 0);
-        aniTick = 0;
-        aniIndex = 0;
-        aniSpeed = 7;
-        attackDelayCounter = 0;
-        getHitCounter = 0;
+        hitEmitter = ParticleEmitter.BLOOD;
+        animator = new Animator(timerWheel, AnimationClips.ENEMY[enemy_type][enemyAction]);
         moving = true;
         attack = false;
         hit = false;
         visibleRadius = 300;
-        updateCounter = 0;
         updateThreshold = 100;
         aniAttackThreshold = 30;
-        aniAttackCounter = aniAttackThreshold;
+        attackCooldown = timerWheel.createCooldown(); // can attack right away
+        wanderCooldown = timerWheel.createCooldown();
+        wanderCooldown.start(updateThreshold);
         tempX = x;
         tempY = y;
     }
 
     /**
-     * Updates the enemy's tick - the speed between each animation frame.
-     * If the enemy is attacking, it checks the middle of the attack animation
-     * to check for player hit - it usually is the main attack frame.
+     * Updates the enemy's animation.
+     * If the enemy is attacking, it checks the event frames of the attack
+     * animation for player hit - they are the main attack frames.
      * If enemy is being hit or attacking, it checks for the end of the animation
      * to prevent empty frames in sprite animation.
+     * Enemies off the screen update their animation only every
+     * OFFSCREEN_ANIMATION_INTERVAL ticks, the animator catches up on the clock.
+     * 
+     * @param player player at the start of the enemy update
      */
-    private void updateTick() {
-        aniTick++;
-        attackDelayCounter++;
-        getHitCounter++;
-
-        if (aniTick >= aniSpeed) {
-            aniTick = 0;
-            aniIndex++;
-            checkAttackSprite();
-            checkAnimationSprite();
+    private void updateTick(PlayerSnapshot player) {
+        if (!isOnScreen(player) && timerWheel.getTick() % OFFSCREEN_ANIMATION_INTERVAL != 0) {
+            return;
+        }
+        if (animator.update()) {
+            if (animator.isEvent()) {
+                checkAttackSprite(player);
+            }
+            if (animator.hasWrapped()) {
+                checkAnimationSprite();
+            }
         }
     }
 
     /**
-     * Checking the middle of the attack animation - the main attack frame.
-     * That's the frame that player can be hit.
+     * Check if the enemy can be on the screen, the camera is centered on the player.
+     * 
+     * @param player player at the start of the enemy update
+     * @return true if the enemy may be visible
      */
-    private void checkAttackSprite() {
-        // if the enemy is attacking, check the middle of the sprite frame
-        // stop moving and hitting to prevent multiple animations
-        if (attack && aniIndex + 1 >= GetAniAmount(enemyAction, enemy_type) / 2
-                && aniIndex < GetAniAmount(enemyAction, enemy_type) - 2) {
-            hitDetector.checkHitPlayer(this);
+    private boolean isOnScreen(PlayerSnapshot player) {
+        double margin = pixSize * 1.5;
+        return Math.abs(player.x - x) <= WINDOW_WIDTH / 2 + margin
+                && Math.abs(player.y - y) <= WINDOW_HEIGHT / 2 + margin;
+    }
+
+    /**
+     * Checking the event frames of the attack animation - the main attack frames.
+     * That's when the player can be hit.
+     * 
+     * @param player player at the start of the enemy update
+     */
+    private void checkAttackSprite(PlayerSnapshot player) {
+        // if the enemy is attacking, stop moving and hitting to prevent multiple animations
+        if (attack) {
+            hitDetector.checkHitPlayer(this, player);
             hit = false;
             moving = false;
         }
@@ -171,25 +261,23 @@ public abstract class Enemy extends Entity {
      * if the enemy was attacking. Hit boolean is also set to false.
      */
     private void checkAnimationSprite() {
-        if (aniIndex >= GetAniAmount(enemyAction, enemy_type)) {
-            aniIndex = 0;
-            if (attack) {
-                aniAttackCounter = 0;
-                attack = false;
-            }
-            hit = false;
+        if (attack) {
+            attackCooldown.start(aniAttackThreshold);
+            attack = false;
+        }
+        hit = false;
 
-            // if the necromancer is done with casting a spell, reset the animation
-            if (enemyAction == NECROMANCER_SPELL) {
-                enemyAction = NECROMANCER_RUNNING;
-            }
+        // if the necromancer is done with casting a spell, reset the animation
+        if (enemyAction == NECROMANCER_SPELL) {
+            enemyAction = NECROMANCER_RUNNING;
         }
     }
 
     /**
      * Updates the enemy's position.
      * If the enemy is moving, it updates the position based on the position
-     * offset(direction).
+     * offset(direction), sliding along the walls it walks into.
+     * A wandering enemy that walks into a wall turns back.
      * If the enemy is not moving, it resets the position to the previous one to
      * prevent being
      * moved into the collision tile.
@@ -200,12 +288,9 @@ public abstract class Enemy extends Entity {
      */
     private void updateMovingPosition() {
         if (moving) {
-            x += positionOffset.getX() * enemySpeed;
-            y += positionOffset.getY() * enemySpeed;
-
-            if (!collision.isMoveValid(x, y, hitbox.getWidth(), hitbox.getHeight())) {
-                x -= positionOffset.getX() * enemySpeed;
-                y -= positionOffset.getY() * enemySpeed;
+            moveBy(positionOffset.getX() * enemySpeed, positionOffset.getY() * enemySpeed);
+            if (!playerVisible && (contact.getX() != 0 || contact.getY() != 0)) {
+                positionOffset.setVector(-positionOffset.getX(), -positionOffset.getY());
             }
 
             tempX = x;
@@ -229,11 +314,13 @@ public abstract class Enemy extends Entity {
      * Sets the direction of the enemy.
      * If the player is in the visible radius, the enemy will move towards the
      * player.
-     * Otherwise, the enemy will move randomly every update threshold.
+     * Otherwise, the enemy will pick a random direction every time
+     * the wander cooldown ends.
+     * 
+     * @param player player at the start of the enemy update
      */
-    private void setDirection() {
-        updateCounter++;
-        playerVisible = isPlayerVisible();
+    private void setDirection(PlayerSnapshot player) {
+        playerVisible = isPlayerVisible(player);
 
         if (playerVisible) {
             // Normalize the vector to get the direction, to get the direction + value of
@@ -244,7 +331,7 @@ public abstract class Enemy extends Entity {
             // Set the position offset
             positionOffset.setVector(directionX, directionY);
         } else {
-            if (updateCounter >= updateThreshold) {
+            if (wanderCooldown.isReady()) {
                 moving = true;
                 enemyDirection = random.nextInt(50);
                 if (enemyDirection < 10) {
@@ -259,7 +346,7 @@ public abstract class Enemy extends Entity {
                     moving = false;
                 }
 
-                updateCounter = 0; // Reset the counter
+                wanderCooldown.start(updateThreshold);
             }
 
         }
@@ -275,7 +362,8 @@ public abstract class Enemy extends Entity {
         enemyAction = chooseEnemyAction(); // depending on the key pressed, the player action is set
 
         if (tempAni != enemyAction) { // if the player action has changed
-            resetAni(); // reset the animation so it starts from the beginning
+            // start the clip of the new action from the beginning
+            animator.restart(AnimationClips.ENEMY[enemy_type][enemyAction]);
         }
 
     }
@@ -339,12 +427,13 @@ public abstract class Enemy extends Entity {
      * Calculates the distance between the player and the enemy.
      * It also checks if the player is in the visible radius of the enemy.
      * 
+     * @param player player at the start of the enemy update
      * @return True if the player is in the visible radius of the enemy, false
      *         otherwise.
      */
-    private boolean isPlayerVisible() {
-        diffX = player.getX() - this.x; // difference between player and enemy x
-        diffY = player.getY() - this.y; // difference between player and enemy y
+    private boolean isPlayerVisible(PlayerSnapshot player) {
+        diffX = player.x - this.x; // difference between player and enemy x
+        diffY = player.y - this.y; // difference between player and enemy y
         fastest_path = (float) Math.sqrt(diffX * diffX + diffY * diffY); // Pythagorean theorem
 
         return fastest_path <= visibleRadius;
@@ -366,21 +455,43 @@ public abstract class Enemy extends Entity {
      * Delay between each enemy attack.
      */
     private void checkAttackDelay() {
-        aniAttackCounter++;
-        if (aniAttackCounter < aniAttackThreshold) {
+        if (!attackCooldown.isReady()) {
             attack = false;
         }
     }
 
     protected void resetAni() {
-        aniTick = 0;
-        aniIndex = 0;
+        animator.restart();
     }
 
     protected void setSprite(Image[][] sprites) {
         this.sprites = sprites;
     }
 
+    /**
+     * Get the spritesheet of the enemy from the AssetCache.
+     * The sheet is shared by all enemies of the same type.
+     * 
+     * @param sheet   path to the spritesheet
+     * @param pixSize size of one sprite
+     */
+    protected void loadSprites(String sheet, int pixSize) {
+        sprites = AssetCache.acquireSprites(sheet, pixSize);
+        spriteSheet = sheet;
+        spriteSize = pixSize;
+    }
+
+    /**
+     * Give the spritesheet back to the AssetCache.
+     * Called when the enemy is removed from the game.
+     */
+    public void dispose() {
+        if (spriteSheet != null) {
+            AssetCache.release(spriteSheet, spriteSize);
+            spriteSheet = null;
+        }
+    }
+
 
     protected void decreasePlayerHealth(Player player) {
         player.health -= damage;
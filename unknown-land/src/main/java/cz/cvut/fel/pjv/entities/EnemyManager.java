@@ -2,27 +2,40 @@ package cz.cvut.fel.pjv.entities;
 
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
 import static cz.cvut.fel.pjv.utils.Constants.Enemy.*;
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILES_IN_WIDTH;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WORLD_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WORLD_WIDTH;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.CULL_CELL_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.CULL_MARGIN;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import cz.cvut.fel.pjv.gamestates.PlayState;
 import cz.cvut.fel.pjv.time.GameTime;
+import cz.cvut.fel.pjv.utils.AssetCache;
 import cz.cvut.fel.pjv.utils.AttributesCreator;
 import cz.cvut.fel.pjv.utils.Collision;
+import cz.cvut.fel.pjv.utils.SpatialGrid;
+import cz.cvut.fel.pjv.utils.TileGrid;
 import cz.cvut.fel.pjv.utils.Vector2D;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
+import cz.cvut.fel.pjv.view.RenderQueue;
 
 /**
  * Manages the enemies in the game.
- * Spawns enemies based on the time of day and the current hour.
+ * Spawns enemies based on the time of day, spawns are scheduled
+ * in the game time scheduler.
  * Updates the enemies - their movement, health, and death.
- * Renders the enemies - animations.
+ * Renders the enemies - animations. Enemies are kept in a SpatialGrid,
+ * so only the ones around the camera are rendered.
+ * Spritesheets of all enemy types are held in the AssetCache while
+ * the manager exists, so spawning an enemy never loads a file.
  * @see Enemy
  * 
  * @author Son Ngoc Tran
@@ -31,13 +44,15 @@ public class EnemyManager {
 
     private PlayState playState;
     private GameTime gameTime;
-    private int enemyCount, enemyAmountMax, spawnHour, maxSpawnHour, minSpawnHour;
+    private int enemyCount, enemyAmountMax, maxSpawnHour, minSpawnHour;
+    private boolean spawnDue;
     private int skelRate, zomRate, eyeRate;
     private Random random;
-    private ArrayList<Enemy> enemyList, enemyToRemove;
+    private ArrayList<Enemy> enemyList, enemyToRemove, visibleEnemies;
+    private ArrayList<Enemy> nearEnemies; // enemies tested for hits in this tick
+    private SpatialGrid<Enemy> enemyGrid;
     private Set<Vector2D> usedCoords;
     private Collision collision;
-    private String dayCycle;
     private Necromancer necromancer;
     private AttributesCreator attributesCreator;
     private Logger log;
@@ -46,8 +61,7 @@ public class EnemyManager {
      * Constructor for the EnemyManager class.
      * 
      * @param playState current state of the game, used to access collision
-     * @param gameTime  current time of the game, used to determine when to spawn
-     *                  enemies
+     * @param gameTime  current time of the game, used to schedule enemy spawns
      *                  and increases spawn rate based on the time of day.
      */
     public EnemyManager(PlayState playState, GameTime gameTime) {
@@ -59,11 +73,17 @@ public class EnemyManager {
         random = new Random();
         enemyList = new ArrayList<>();
         enemyToRemove = new ArrayList<>();
+        visibleEnemies = new ArrayList<>();
+        nearEnemies = new ArrayList<>();
+        enemyGrid = new SpatialGrid<>(WORLD_WIDTH, WORLD_HEIGHT, CULL_CELL_SIZE);
         usedCoords = new HashSet<>();
         collision = playState.getCollision();
-        setSpawningInterval();
         setSpawnRates();
 
+        // held until dispose(), enemies only share them
+        AssetCache.acquireSprites(SKELETON_SHEET, SKELETON_PIX_SIZE);
+        AssetCache.acquireSprites(ZOMBIE_SHEET, ZOMBIE_PIX_SIZE);
+        AssetCache.acquireSprites(EYEBALL_SHEET, EYEBALL_PIX_SIZE);
         necromancer = new Necromancer(playState, 20 * TILE_SIZE, 26 * TILE_SIZE,
         attributesCreator.getAttributes(NECROMANCER));
         log = Logger.getLogger(EnemyManager.class.getName());
@@ -77,21 +97,31 @@ public class EnemyManager {
         enemyAmountMax = 8;
         minSpawnHour = 1;
         maxSpawnHour = 3;
-        dayCycle = "AM";
+        spawnDue = false;
 
-        spawnHour = gameTime.getHours() + random.nextInt(maxSpawnHour - minSpawnHour + 1) + minSpawnHour;
-        checkSpawnHour();
-        log.info("First enemy spawn at: " + spawnHour + " " + dayCycle);
+        scheduleSpawn();
     }
 
     /**
      * Renders the necromancer separately.
      * 
+     * @param queue where the sprites are submitted
+     * @param alpha how far we are between the last tick and the next one
+     */
+    public void renderNecromancer(RenderQueue queue, double alpha) {
+        if (!necromancer.checkDeath()) {
+            necromancer.renderNecro(queue, alpha);
+        }
+    }
+
+    /**
+     * Renders the necromancer's health bar and name over the sprites.
+     * 
      * @param gc used to draw on the canvas
      */
-    public void renderNecromancer(GraphicsContext gc) {
+    public void renderNecromancerHealth(Painter gc) {
         if (!necromancer.checkDeath()) {
-            necromancer.renderNecro(gc);
+            necromancer.renderHealthBar(gc);
         }
     }
 
@@ -106,31 +136,114 @@ public class EnemyManager {
 
     /**
      * Updates the enemies.
-     * Spawns enemies based on the time of day and the current hour.
-     * Updates the enemies - their movement, health, and death.
+     * Spawns an enemy if the spawn is due.
+     * Enemies within HIT_QUERY_RADIUS of the player are picked from the enemy
+     * grid, only they test their hitboxes against the player.
+     * Updates the enemies in two phases:
+     * 1. think - every enemy moves, animates and checks hits against a snapshot
+     * of the player taken before the phase. Enemies only change themselves here,
+     * so with ENEMY_PARALLEL_THRESHOLD or more enemies this runs on the ForkJoin pool.
+     * 2. resolve - one by one in the list order, damage and push back are applied
+     * to the player and dead enemies are collected. Enemies that moved to
+     * another cell are moved in the enemy grid.
+     * The result is the same no matter how many threads did the thinking.
      * If an enemy dies, it is put into the enemyToRemove list.
      * After all the iterations, the enemies in the enemyToRemove list
-     * are removed from the enemyList to prevent ERROR.
+     * are removed from the enemyList to prevent ERROR
+     * and their spritesheets are given back.
      */
     public void update() {
-        setSpawningInterval();
         checkTimeToSpawn();
+
+        Player player = playState.getPlayer();
+        PlayerSnapshot snapshot = new PlayerSnapshot(player);
+        markNearEnemies(snapshot);
+        think(enemyList, snapshot, ENEMY_PARALLEL_THRESHOLD);
         for (Enemy enemy : enemyList) {
-            enemy.update();
+            enemy.resolve(player, snapshot);
             checkDeath(enemy);
+            enemyGrid.move(enemy, enemy.getX(), enemy.getY());
+        }
+        for (Enemy enemy : enemyToRemove) {
+            enemyGrid.remove(enemy);
+            enemy.dispose();
         }
         enemyList.removeAll(enemyToRemove);
+        enemyToRemove.clear();
     }
 
     /**
-     * Renders all the enemies in the enemyList.
-     * EnemyList is an ArrayList of all the enemies in the dungeon.
+     * Think phase of the enemy update.
+     * With parallelThreshold or more enemies, the enemies think on the ForkJoin
+     * pool, otherwise one by one on this thread.
      * 
-     * @param gc
+     * @param enemies           enemies to update
+     * @param snapshot          player at the start of the enemy update
+     * @param parallelThreshold count of enemies from which the pool is used
+     */
+    static void think(ArrayList<Enemy> enemies, PlayerSnapshot snapshot, int parallelThreshold) {
+        if (enemies.size() >= parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new ThinkTask(enemies, 0, enemies.size(), snapshot));
+        } else {
+            for (Enemy enemy : enemies) {
+                enemy.think(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Mark the enemies near the player, unmark the ones from the last tick.
+     * The grid is one tick behind the enemies, the radius covers it.
+     */
+    private void markNearEnemies(PlayerSnapshot player) {
+        for (Enemy enemy : nearEnemies) {
+            enemy.nearPlayer = false;
+        }
+        nearEnemies.clear();
+        enemyGrid.queryRadius(player.x, player.y, HIT_QUERY_RADIUS, nearEnemies);
+        for (Enemy enemy : nearEnemies) {
+            enemy.nearPlayer = true;
+        }
+    }
+
+    /**
+     * Remove all enemies (not the necromancer), used when the game is loaded.
      */
-    public void render(GraphicsContext gc) {
+    public void clearEnemies() {
         for (Enemy enemy : enemyList) {
-            enemy.render(gc, 0);
+            enemy.dispose();
+        }
+        enemyList.clear();
+        enemyGrid.clear();
+        nearEnemies.clear();
+    }
+
+    /**
+     * Give back all spritesheets, used when the game is thrown away.
+     */
+    public void dispose() {
+        clearEnemies();
+        necromancer.dispose();
+        AssetCache.release(SKELETON_SHEET, SKELETON_PIX_SIZE);
+        AssetCache.release(ZOMBIE_SHEET, ZOMBIE_PIX_SIZE);
+        AssetCache.release(EYEBALL_SHEET, EYEBALL_PIX_SIZE);
+    }
+
+    /**
+     * Renders the enemies around the view of the camera.
+     * Enemy grid is asked for the view grown by CULL_MARGIN, because the sprites
+     * are bigger than the position they are kept by. The rest is counted as culled.
+     * 
+     * @param queue where the sprites are submitted
+     * @param alpha how far we are between the last tick and the next one
+     */
+    public void render(RenderQueue queue, double alpha) {
+        visibleEnemies.clear();
+        enemyGrid.query(queue.getViewX() - CULL_MARGIN, queue.getViewY() - CULL_MARGIN,
+                queue.getViewWidth() + 2 * CULL_MARGIN, queue.getViewHeight() + 2 * CULL_MARGIN, visibleEnemies);
+        queue.addCulled(enemyGrid.size() - visibleEnemies.size());
+        for (Enemy enemy : visibleEnemies) {
+            enemy.render(queue, 0, alpha);
         }
     }
 
@@ -147,9 +260,8 @@ public class EnemyManager {
      * During the night the spawn rate is higher.
      */
     private void setSpawningInterval() {
-        int hours = gameTime.getHours();
-        String dayCycle = gameTime.getDayCycle();
-        if (hours <= 6 && dayCycle.equals("PM") || hours >= 6 && dayCycle.equals("AM")) {
+        int hour = gameTime.getHourOfDay();
+        if (hour >= 6 && hour <= 18) {
             minSpawnHour = 2;
             maxSpawnHour = 6;
         } else {
@@ -159,32 +271,29 @@ public class EnemyManager {
     }
 
     /**
-     * Checks if it is time to spawn an enemy and
-     * if the maximum amount of enemies has not been reached.
-     * If the spawn hour is reached by current time, an enemy is spawned.
+     * Schedules the next spawn at a full hour, a random amount of hours
+     * from now depending on the time of day.
+     * When the event runs, the spawn becomes due.
      */
-    private void checkTimeToSpawn() {
-        int currentHour = gameTime.getHours();
-        if (enemyCount < enemyAmountMax) {
-            if (currentHour >= spawnHour && dayCycle.equals(gameTime.getDayCycle()) ||
-                currentHour < spawnHour && !dayCycle.equals(gameTime.getDayCycle())) {
-                spawnEnemy();
-                spawnHour = currentHour + random.nextInt(maxSpawnHour - minSpawnHour + 1) + minSpawnHour;
-                checkSpawnHour();
-                enemyCount++;
-                log.info("Next enemy spawn at: " + spawnHour + " " + dayCycle);
-            }
-        }
+    private void scheduleSpawn() {
+        setSpawningInterval();
+        long spawnMinute = gameTime.getHourStart(random.nextInt(maxSpawnHour - minSpawnHour + 1) + minSpawnHour);
+        gameTime.getScheduler().schedule(spawnMinute, () -> spawnDue = true);
+        log.info("Next enemy spawn at game minute: " + spawnMinute);
     }
 
-    private void checkSpawnHour() {
-        if (spawnHour >= 12) {
-            spawnHour = 1;
-            if (dayCycle.equals("AM")) {
-                dayCycle = "PM";
-            } else {
-                dayCycle = "AM";
-            }
+    /**
+     * Checks if a spawn is due and
+     * if the maximum amount of enemies has not been reached.
+     * If yes, an enemy is spawned and the next spawn is scheduled.
+     * If the dungeon is full, the spawn waits until an enemy dies.
+     */
+    private void checkTimeToSpawn() {
+        if (spawnDue && enemyCount < enemyAmountMax) {
+            spawnEnemy();
+            enemyCount++;
+            spawnDue = false;
+            scheduleSpawn();
         }
     }
 
@@ -195,10 +304,11 @@ public class EnemyManager {
      */
     private void spawnEnemy() {
         int randomNum = random.nextInt(100);
+        TileGrid tiles = collision.getCollisionMap(); // enemies are spawned in the current map
 
         while (true) {
-            int x = random.nextInt(TILES_IN_WIDTH);
-            int y = random.nextInt(TILES_IN_WIDTH);
+            int x = random.nextInt(tiles.getColumns());
+            int y = random.nextInt(tiles.getRows());
             Vector2D coords = new Vector2D(x, y);
             if (usedCoords.contains(coords)) {
                 continue; // skip iteration if the coords are already used
@@ -225,7 +335,7 @@ public class EnemyManager {
             }
 
         }
-        log.info("Enemy spawned at: " + spawnHour + " " + dayCycle);
+        log.info("Enemy spawned at game minute: " + gameTime.getGameMinutes());
     }
 
     /**
@@ -284,4 +394,35 @@ public class EnemyManager {
     public AttributesCreator getAttributesCreator() {
         return attributesCreator;
     }
+
+    /**
+     * Think phase of the enemy update for a part of the enemy list.
+     * Splits itself in halves until the part is small enough.
+     */
+    private static class ThinkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final ArrayList<Enemy> enemies;
+        private final int from, to;
+        private final PlayerSnapshot snapshot;
+
+        ThinkTask(ArrayList<Enemy> enemies, int from, int to, PlayerSnapshot snapshot) {
+            this.enemies = enemies;
+            this.from = from;
+            this.to = to;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ENEMY_PARALLEL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    enemies.get(i).think(snapshot);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ThinkTask(enemies, from, middle, snapshot), new ThinkTask(enemies, middle, to, snapshot));
+        }
+    }
 }
@@ -3,8 +3,11 @@ package cz.cvut.fel.pjv.entities;
 import java.util.logging.Logger;
 
 import cz.cvut.fel.pjv.utils.Collision;
+import cz.cvut.fel.pjv.utils.Vector2D;
 import javafx.scene.shape.Rectangle;
 
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.MAX_INTERPOLATION_DISTANCE;
+
 /**
  * Abstract class for all entities in the game.
  * Not meant to be instantiated.
@@ -21,6 +24,9 @@ public abstract class Entity {
     protected Rectangle weaponHitbox;
     protected Collision collision;
     protected float x, y;
+    protected double prevX, prevY; // hitbox position at the start of the current tick
+    protected Vector2D contact; // normal of the walls hit by the last move
+    private Vector2D sweptPosition;
     protected int health, damage;
     protected static final Logger log = Logger.getLogger(Entity.class.getName());
 
@@ -37,12 +43,15 @@ public abstract class Entity {
         this.y = y;
         this.health = health;
         this.damage = damage;
-
+        contact = new Vector2D(0, 0);
+        sweptPosition = new Vector2D(0, 0);
     }
 
     // Creating a hitbox for the entity
     public void initHitbox(float x, float y, float width, float height) {
         hitbox = new Rectangle(x, y, width, height);
+        prevX = x;
+        prevY = y;
     }
 
     public void initDmgHitbox(float x, float y, float width, float height) {
@@ -53,4 +62,58 @@ public abstract class Entity {
         weaponHitbox = new Rectangle(x, y, width, height);
     }
 
+    /**
+     * Remember where the entity was before the tick moved it.
+     * Called at the start of every update so render can draw the entity
+     * between its previous and current position.
+     */
+    protected void savePreviousPosition() {
+        prevX = hitbox.getX();
+        prevY = hitbox.getY();
+    }
+
+    /**
+     * Move the entity by the offset through the collision map.
+     * The entity stops at the walls it hits and slides along them,
+     * the normals of the walls are in contact.
+     * 
+     * @param dx offset along x
+     * @param dy offset along y
+     * @see Collision#move
+     */
+    protected void moveBy(double dx, double dy) {
+        sweptPosition.setVector(x, y);
+        collision.move(sweptPosition, hitbox.getWidth(), hitbox.getHeight(), dx, dy, contact);
+        x = (float) sweptPosition.getX();
+        y = (float) sweptPosition.getY();
+    }
+
+    /**
+     * X coordinate of the hitbox interpolated between the last two ticks.
+     * 
+     * @param alpha how far we are between the last tick and the next one
+     * @return x coordinate to draw the entity at
+     */
+    public double getRenderX(double alpha) {
+        return interpolate(prevX, hitbox.getX(), alpha);
+    }
+
+    /**
+     * Y coordinate of the hitbox interpolated between the last two ticks.
+     * 
+     * @param alpha how far we are between the last tick and the next one
+     * @return y coordinate to draw the entity at
+     */
+    public double getRenderY(double alpha) {
+        return interpolate(prevY, hitbox.getY(), alpha);
+    }
+
+    // teleports (entering dungeon, switching planets) are not interpolated
+    private double interpolate(double prev, double current, double alpha) {
+        if (Math.abs(current - prev) > MAX_INTERPOLATION_DISTANCE) {
+            return current;
+        }
+        return prev + (current - prev) * alpha;
+    }
+
 }
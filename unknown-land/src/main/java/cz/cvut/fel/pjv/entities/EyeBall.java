@@ -1,7 +1,9 @@
 package cz.cvut.fel.pjv.entities;
 
 import cz.cvut.fel.pjv.gamestates.PlayState;
-import cz.cvut.fel.pjv.utils.LoadFiles;
+
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.EYEBALL_PIX_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.EYEBALL_SHEET;
 
 /**
  * Class representing the EyeBall enemy.
@@ -23,7 +25,7 @@ public class EyeBall extends Enemy {
      */
     public EyeBall(PlayState playState, float x, float y, EnemyAttributes eyeAttributes) {
         super(playState, x, y, eyeAttributes);
-        sprites = LoadFiles.LoadSubImages("entity/Eyeball.png", 32);
+        loadSprites(EYEBALL_SHEET, EYEBALL_PIX_SIZE);
 
         initHitbox(x, y, 30, 30);
         initDmgHitbox(x, y, 38, 40);
@@ -2,70 +2,72 @@ package cz.cvut.fel.pjv.entities;
 
 import static cz.cvut.fel.pjv.utils.Constants.Enemy.NECROMANCER_SPELL;
 
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import cz.cvut.fel.pjv.gamestates.PlayState;
-import cz.cvut.fel.pjv.utils.Vector2D;
+import cz.cvut.fel.pjv.time.Cooldown;
+import cz.cvut.fel.pjv.time.TimerWheel;
 
 /**
  * Class representing the hit detection in the game.
  * HitDetector is used to detect hits between player and enemies.
+ * Detection only reads the player (through a PlayerSnapshot) and changes the
+ * enemy, what happens to the player is queued in the enemy and applied
+ * in resolve().
+ * Hitboxes are tested only for enemies near the player, the EnemyManager
+ * picks them from the enemy grid.
  * 
  * @author Son Ngoc Tran
  */
 public class HitDetector {
 
-    private PlayState playState;
-    private Player player;
-    private int collisionCounter, collisionThreshold;
-    private float getUnstuck;
+    private int collisionThreshold;
     private int attackDelayThreshold, getHitThreshold;
+    private Cooldown attackDelay, getHitDelay, collisionDelay;
     private Logger log;
 
     /**
      * Constructor for the HitDetector class.
      * Initialize all variables.
      * 
-     * @param playState current state of the game
+     * @param timerWheel counts down the delays between hits
      */
-    public HitDetector(PlayState playState) {
-        this.playState = playState;
+    public HitDetector(TimerWheel timerWheel) {
         collisionThreshold = 100;
-        collisionCounter = collisionThreshold;
 
         initVariables();
 
+        attackDelay = timerWheel.createCooldown();
+        attackDelay.start(attackDelayThreshold);
+        getHitDelay = timerWheel.createCooldown();
+        getHitDelay.start(getHitThreshold);
+        collisionDelay = timerWheel.createCooldown(); // enemy can start moving right away
+
         log = Logger.getLogger(HitDetector.class.getName());
-        log.setLevel(Level.INFO);
     }
 
     private void initVariables() {
-        // attackDelayCounter is incremented in the Enemy class
-        // getHitCounter is incremented in the Enemy class
+        // delays are in ticks
         attackDelayThreshold = 70;
-        getHitThreshold = 35;
-        getUnstuck = 1.5f;
+        getHitThreshold = 18;
     }
 
     /**
      * Check if the player was hit by the enemy.
-     * If the player was hit, decrease the player's health.
+     * If the player was hit, the damage is queued and player's health is
+     * decreased in resolve().
      * Player is hit only if the delay between attacks is
      * greater than the threshold meaning the player can't be hit every frame
      * of the enemy attack animation.
      * 
-     * @param enemy enemy that is attacking the player
+     * @param enemy  enemy that is attacking the player
+     * @param player player at the start of the enemy update
      */
-    protected void checkHitPlayer(Enemy enemy) {
-        enemy.attackDelayCounter++;
-        player = playState.getPlayer();
-        if ((enemy.weaponHitbox.getBoundsInParent().intersects(player.dmgHitbox.getBoundsInParent()))
+    protected void checkHitPlayer(Enemy enemy, PlayerSnapshot player) {
+        if ((enemy.weaponHitbox.getBoundsInParent().intersects(player.dmgHitbox))
                 && enemy.enemyAction != NECROMANCER_SPELL) {
-            if (enemy.attackDelayCounter >= attackDelayThreshold) {
-                enemy.decreasePlayerHealth(player);
-                enemy.attackDelayCounter = 0;
-                log.info("Player was hit, health: " + player.health);
+            if (attackDelay.isReady()) {
+                enemy.hitsPlayer = true;
+                attackDelay.start(attackDelayThreshold);
             }
         }
 
@@ -75,39 +77,38 @@ public class HitDetector {
      * Check if the player collided with the enemy.
      * If the player dmg hitbox collides with the enemy weapon hitbox, the enemy
      * attacks and stops moving.
-     * If the player solid hitbox collided with the enemy solid hitbox, the player
-     * is pushed back and
-     * the enemy is pushed back as well to prevent them from overlapping.
-     * If the collision counter is greater than the threshold, the enemy can move
+     * If the player solid hitbox collided with the enemy solid hitbox, the enemy
+     * is pushed back (never into a wall) and the player push back is queued for resolve()
+     * to prevent them from overlapping.
+     * Every time the collision delay ends, the enemy can move
      * again.
      * This is to prevent the enemy moving the player when they collide.
      * 
      * @param enemy
+     * @param player player at the start of the enemy update
      */
-    protected void checkPlayerCollision(Enemy enemy) {
-        collisionCounter++;
-        player = playState.getPlayer();
-        Vector2D playerPosOffset = playState.getPlayer().getPositionOffset();
-        float playerNewX = (float) (player.getX() - player.getSpeed() * playerPosOffset.getX());
-        float playerNewY = (float) (player.getY() - player.getSpeed() * playerPosOffset.getY());
-
-        if (enemy.weaponHitbox.getBoundsInParent().intersects(player.dmgHitbox.getBoundsInParent())) {
-            enemy.attack = true;
-            enemy.moving = false;
+    protected void checkPlayerCollision(Enemy enemy, PlayerSnapshot player) {
+        if (enemy.nearPlayer) {
+            checkPlayerContact(enemy, player);
         }
 
-        if (enemy.hitbox.getBoundsInParent().intersects(player.hitbox.getBoundsInParent())) {
-            enemy.x -= enemy.positionOffset.getX() * enemy.enemySpeed * getUnstuck; // * getUnstuck to get the enemy
-                                                                                    // unstuck in case of collision
-            enemy.y -= enemy.positionOffset.getY() * enemy.enemySpeed * getUnstuck;
-            player.resetPosition(playerNewX, playerNewY);
+        if (collisionDelay.isReady()) {
+            enemy.moving = true;
+            collisionDelay.start(collisionThreshold);
         }
 
-        if (collisionCounter >= collisionThreshold) {
-            enemy.moving = true;
-            collisionCounter = 0;
+    }
+
+    private void checkPlayerContact(Enemy enemy, PlayerSnapshot player) {
+        if (enemy.weaponHitbox.getBoundsInParent().intersects(player.dmgHitbox)) {
+            enemy.attack = true;
+            enemy.moving = false;
         }
 
+        if (enemy.hitbox.getBoundsInParent().intersects(player.hitbox)) {
+            enemy.pushBack();
+            enemy.pushesPlayer = true;
+        }
     }
 
     /**
@@ -117,18 +118,39 @@ public class HitDetector {
      * greater than the threshold meaning the enemy can't be hit every frame.
      * 
      * @param enemy
+     * @param player player at the start of the enemy update
      */
-    protected void checkGetHit(Enemy enemy) {
-        enemy.getHitCounter++;
-
-        player = playState.getPlayer();
-        if (enemy.dmgHitbox.getBoundsInParent().intersects(player.weaponHitbox.getBoundsInParent())) {
-            if (enemy.getHitCounter >= getHitThreshold && player.attack) {
+    protected void checkGetHit(Enemy enemy, PlayerSnapshot player) {
+        if (enemy.nearPlayer && enemy.dmgHitbox.getBoundsInParent().intersects(player.weaponHitbox)) {
+            if (getHitDelay.isReady() && player.attack) {
                 enemy.health -= player.damage;
-                enemy.getHitCounter = 0;
-                log.info("Enemy was hit, health: " + enemy.health);
+                enemy.gotHit = true;
+                getHitDelay.start(getHitThreshold);
+                log.fine("Enemy was hit, health: " + enemy.health);
             }
         }
     }
 
+    /**
+     * Apply what the enemy queued for the player during its update.
+     * Decrease the player's health if he was hit and push him back
+     * if he bumped into the enemy.
+     * 
+     * @param enemy    enemy that was updated
+     * @param player   the player
+     * @param snapshot player at the start of the enemy update
+     */
+    protected void resolve(Enemy enemy, Player player, PlayerSnapshot snapshot) {
+        if (enemy.hitsPlayer) {
+            enemy.decreasePlayerHealth(player);
+            log.fine("Player was hit, health: " + player.health);
+        }
+        if (enemy.pushesPlayer) {
+            player.resetPosition(snapshot.pushBackX, snapshot.pushBackY);
+        }
+        enemy.hitsPlayer = false;
+        enemy.pushesPlayer = false;
+        enemy.gotHit = false;
+    }
+
 }
@@ -1,13 +1,16 @@
 package cz.cvut.fel.pjv.entities;
 
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
 import static cz.cvut.fel.pjv.utils.InteractText.drawClueText;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.ENTITY_SCALE;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.LAYER_ENTITIES;
 
 import cz.cvut.fel.pjv.features.Inventory;
 
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
+import cz.cvut.fel.pjv.view.RenderQueue;
 import javafx.scene.image.Image;
+import javafx.scene.shape.Rectangle;
 
 /**
  * Class representing the Merchant entity.
@@ -24,7 +27,6 @@ import javafx.scene.image.Image;
 public class Merchant extends Entity {
 
     private Image sprite;
-    private Player player;
     private boolean clue;
     private boolean shopDisplay;
     private Inventory inventory;
@@ -34,15 +36,13 @@ public class Merchant extends Entity {
      * Constructor for the Merchant class.
      * 
      * @param inventory inventory of the player
-     * @param player    player of the game
      * @param x         x-coordinate at which the Merchant is created
      * @param y         y-coordinate at which the Merchant is created
      */
-    public Merchant(Inventory inventory, Player player, float x, float y) {
+    public Merchant(Inventory inventory, float x, float y) {
         super(x, y, 100, 0);
-        this.player = player;
         this.inventory = inventory;
-        sprite = LoadImage("entity/merchant.png");
+        sprite = getImage("entity/merchant.png");
         initHitbox(x, y, 120, 120);
         clue = false;
         shopDisplay = false;
@@ -52,23 +52,30 @@ public class Merchant extends Entity {
 
     /**
      * Update the Merchant.
-     * Check if the player is close to the Merchant.
      * Check if the player has the inventory open.
+     * Whether the player is close is set by the TriggerZones.
      */
     public void update() {
-        checkPlayerCollision();
         canDisplayShop();
     }
 
     /**
      * Render the Merchant.
-     * Draw the Merchant sprite.
+     * Submit the Merchant sprite.
+     * 
+     * @param queue where the sprite is submitted
+     */
+    public void render(RenderQueue queue) {
+        queue.submit(sprite, x, y, merchantWidth * ENTITY_SCALE, merchantHeight * ENTITY_SCALE, LAYER_ENTITIES);
+    }
+
+    /**
      * Draw the clue text if the player is close to the Merchant.
+     * Drawn after the sprites, so nothing covers it.
      * 
-     * @param gc to draw the Merchant on the canvas
+     * @param gc to draw the text on the canvas
      */
-    public void render(GraphicsContext gc) {
-        gc.drawImage(sprite, x, y, merchantWidth * ENTITY_SCALE, merchantHeight * ENTITY_SCALE);
+    public void renderClue(Painter gc) {
         /* draw the clue text if the player is close to the Merchant and the shop is not
         displayed */
         if (clue && !shopDisplay) {
@@ -77,15 +84,16 @@ public class Merchant extends Entity {
     }
 
     /**
-     * Check if the player is close to the Merchant.
+     * Set if the player is close to the Merchant, called by the TriggerZones
+     * when the player walks in or out of the Merchant's hitbox.
      * If the player is close to the Merchant, set clue to true
      * to display the clue text.
+     * 
+     * @param near true if the player is close
      */
-    private void checkPlayerCollision() {
-        if (hitbox.getBoundsInParent().intersects(player.getHitbox().getBoundsInParent())) {
-            clue = true;
-        } else {
-            clue = false;
+    public void setPlayerNear(boolean near) {
+        clue = near;
+        if (!near) {
             shopDisplay = false;
         }
     }
@@ -104,6 +112,10 @@ public class Merchant extends Entity {
 
     }
 
+    public Rectangle getHitbox() {
+        return hitbox;
+    }
+
     public Inventory getInventory() {
         return inventory;
     }
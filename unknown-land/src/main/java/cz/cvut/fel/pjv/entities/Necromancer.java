@@ -1,22 +1,24 @@
 package cz.cvut.fel.pjv.entities;
 
 import cz.cvut.fel.pjv.gamestates.PlayState;
-import cz.cvut.fel.pjv.utils.LoadFiles;
+import cz.cvut.fel.pjv.time.Cooldown;
+import cz.cvut.fel.pjv.utils.AssetCache;
 import cz.cvut.fel.pjv.utils.Vector2D;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
+import cz.cvut.fel.pjv.view.ParticleEmitter;
+import cz.cvut.fel.pjv.view.RenderQueue;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
-import static cz.cvut.fel.pjv.utils.Constants.Enemy.NECROMANCER;
 import static cz.cvut.fel.pjv.utils.Constants.Enemy.NECROMANCER_SPELL;
 import static cz.cvut.fel.pjv.utils.Constants.Enemy.NECRO_SPELL_APPEAR;
 import static cz.cvut.fel.pjv.utils.Constants.Enemy.NECRO_SPELL_DISAPPEAR;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.LAYER_EFFECTS;
 import static cz.cvut.fel.pjv.utils.LoadFiles.LoadFont;
-import static cz.cvut.fel.pjv.utils.Constants.Enemy.GetAniAmount;
 
 import java.util.Random;
 
@@ -32,9 +34,11 @@ import java.util.Random;
  */
 public class Necromancer extends Enemy {
 
-    private int rightOffset, aniSpellIndex, aniSpellTick, aniSpellSpeed;
+    private int rightOffset;
+    private Animator spellAnimator;
     private int spellDMGthreshold, spellDMGcounter, spellDMG;
-    private int spellTimer, spellThreshold, prevEnemyAction;
+    private int spellThreshold, prevEnemyAction;
+    private Cooldown spellTimer;
     private boolean spellAppeared, spellAlreadyDrawn, savePos;
     private double playerX, playerY;
     private Image[][] spritesRight, spritesLeft, spellSprite;
@@ -60,10 +64,10 @@ public class Necromancer extends Enemy {
         this.necWeaponOffset = necAttributes.getWeaponOffset();
         this.player = playState.getPlayer();
 
-        sprites = LoadFiles.LoadSubImages("entity/necromancer.png", 128);
-        spritesRight = LoadFiles.LoadSubImages("entity/necromancer_right.png", 128);
-        spritesLeft = LoadFiles.LoadSubImages("entity/necromancer.png", 128);
-        spellSprite = LoadFiles.LoadSubImages("entity/necrospell.png", 128);
+        loadSprites("entity/necromancer.png", 128);
+        spritesLeft = sprites; // necromancer.png is the left sheet, loaded only once
+        spritesRight = AssetCache.acquireSprites("entity/necromancer_right.png", 128);
+        spellSprite = AssetCache.acquireSprites("entity/necrospell.png", 128);
 
         font = LoadFont("transamericabold.ttf", 70);
         healthBar = new Rectangle(super.health, 40, Color.PURPLE);
@@ -76,11 +80,10 @@ public class Necromancer extends Enemy {
 
     private void initVariables() {
         rightOffset = 100;
-        spellTimer = 0;
         spellThreshold = 400;
-        aniSpellIndex = 0;
-        aniSpellTick = 0;
-        aniSpellSpeed = 7;
+        spellTimer = playState.getTimerWheel().createCooldown();
+        spellTimer.start(spellThreshold);
+        spellAnimator = new Animator(playState.getTimerWheel(), AnimationClips.SPELL_APPEAR);
         prevEnemyAction = 0;
         spellDMG = 20;
         spellDMGthreshold = 35;
@@ -104,28 +107,37 @@ public class Necromancer extends Enemy {
 
     /**
      * Drawing spell animation if available.
-     * Drawing health bar when necromancer is alive.
      * Drawing necromancer sprite based on its direction
      * and setting the offset to center the sprite.
      * 
-     * @param gc used to draw on the canvas
+     * @param queue where the sprites are submitted
+     * @param alpha how far we are between the last tick and the next one
      */
-    public void renderNecro(GraphicsContext gc) {
-        drawSpell(gc);
-        displayHealthBar(gc);
-        displayName(gc);
+    public void renderNecro(RenderQueue queue, double alpha) {
+        drawSpell(queue);
 
         // we need offset cause the sprite is not centered
         if (sprites == spritesLeft) {
-            super.render(gc, 0);
+            super.render(queue, 0, alpha);
         } else if (sprites == spritesRight) {
-            super.render(gc, rightOffset);
+            super.render(queue, rightOffset, alpha);
         }
 
     }
 
     /**
-     * Updating necromancer's health bar.
+     * Drawing health bar and name when necromancer is alive.
+     * Drawn over all sprites.
+     * 
+     * @param gc used to draw on the canvas
+     */
+    public void renderHealthBar(Painter gc) {
+        updateHealthBar();
+        displayHealthBar(gc);
+        displayName(gc);
+    }
+
+    /**
      * Updating necromancer's weapon hitbox.
      * Checking necromancer's direction.
      * Checking if spell can be cast.
@@ -134,7 +146,6 @@ public class Necromancer extends Enemy {
      */
     public void updateNecro() {
         super.update();
-        updateHealthBar();
         updateWeaponHitbox();
         checkNecroDir();
         checkCastSpell();
@@ -155,25 +166,26 @@ public class Necromancer extends Enemy {
     }
 
     /**
-     * Checking if the necromancer can cast a spell. - spell threshold is reached.
+     * Checking if the necromancer can cast a spell. - spell timer has ended.
      * If the spell can be cast, we reset the animation and set the spell action.
      * We set moving and attacking to false, so the necromancer animation is
      * not interrupted by other actions.
      * Also we randomize the spell threshold for the next casting.
      */
     private void checkCastSpell() {
-        spellTimer++;
-        if (spellTimer >= spellThreshold) {
+        if (spellTimer.isReady()) {
             resetAni();
-            spellTimer = 0;
             super.enemyAction = NECROMANCER_SPELL;
             prevEnemyAction = super.enemyAction;
 
             spellAlreadyDrawn = false;
+            ParticleEmitter.SPELL_CAST.emit(particles, dmgHitbox.getX() + dmgHitbox.getWidth() / 2,
+                    dmgHitbox.getY() + dmgHitbox.getHeight() / 2);
             super.attack = false;
             super.moving = false;
 
             spellThreshold = random.nextInt(400) + 300;
+            spellTimer.start(spellThreshold);
         }
     }
 
@@ -205,20 +217,16 @@ public class Necromancer extends Enemy {
     private void castSpell() {
         // after necromancer casting ends, we begin the spell animation
         if (prevEnemyAction == NECROMANCER_SPELL && super.enemyAction != NECROMANCER_SPELL) {
-            aniSpellTick++;
-            if (aniSpellTick >= aniSpellSpeed && !spellAlreadyDrawn) {
-                aniSpellTick = 0;
-                aniSpellIndex++;
-
+            if (!spellAlreadyDrawn && spellAnimator.update()) {
                 savePlayerPos(); // saving the player position for the spell animation
                 // drawing the spell appearing
-                if (aniSpellIndex >= GetAniAmount(NECRO_SPELL_APPEAR, NECROMANCER) && !spellAppeared) {
-                    aniSpellIndex = 0;
+                if (spellAnimator.isFinished() && !spellAppeared) {
                     spellAppeared = true;
+                    ParticleEmitter.SPELL.emit(particles, playerX + pixSize / 2, playerY + pixSize / 2);
+                    spellAnimator.restart(AnimationClips.SPELL_DISAPPEAR);
                 }
                 // drawing the spell disappearing
-                if (aniSpellIndex >= GetAniAmount(NECRO_SPELL_DISAPPEAR, NECROMANCER) && spellAppeared) {
-                    aniSpellIndex = 0;
+                else if (spellAnimator.isFinished() && spellAppeared) {
                     spellAppeared = false;
                     spellAlreadyDrawn = true; // after the spell has disappeared, we set the boolean to true so we
                                               // wouldn't draw it multiple times
@@ -234,8 +242,7 @@ public class Necromancer extends Enemy {
              * if the necromancer is not casting a spell, we reset the spell animation +
              * position
              */
-            aniSpellIndex = 0;
-            aniSpellTick = 0;
+            spellAnimator.restart(AnimationClips.SPELL_APPEAR);
             playerX = 0;
             playerY = 0;
             spellHitbox.setX(0);
@@ -249,13 +256,15 @@ public class Necromancer extends Enemy {
      * If spell hasn't appeared yet, we draw the spell appearing.
      * If the spell has appeared, we draw the spell disappearing.
      */
-    private void drawSpell(GraphicsContext gc) {
+    private void drawSpell(RenderQueue queue) {
         if (prevEnemyAction == NECROMANCER_SPELL && super.enemyAction != NECROMANCER_SPELL && !spellAlreadyDrawn) {
             // checking boolean spellAppeared to determine which spell animation to draw
             if (!spellAppeared) { // draw the spell appearing
-                gc.drawImage(spellSprite[NECRO_SPELL_APPEAR][aniSpellIndex], playerX, playerY, pixSize, pixSize);
+                queue.submit(spellSprite[NECRO_SPELL_APPEAR][spellAnimator.getFrame()], playerX, playerY, pixSize, pixSize,
+                        LAYER_EFFECTS);
             } else { // draw the spell disappearing
-                gc.drawImage(spellSprite[NECRO_SPELL_DISAPPEAR][aniSpellIndex], playerX, playerY, pixSize, pixSize);
+                queue.submit(spellSprite[NECRO_SPELL_DISAPPEAR][spellAnimator.getFrame()], playerX, playerY, pixSize, pixSize,
+                        LAYER_EFFECTS);
             }
         }
     }
@@ -298,7 +307,7 @@ public class Necromancer extends Enemy {
      * 
      * @param gc used to draw on the canvas
      */
-    private void displayHealthBar(GraphicsContext gc) {
+    private void displayHealthBar(Painter gc) {
         gc.setFill(healthBar.getFill());
         gc.fillRect(healthBar.getX(), healthBar.getY(), healthBar.getWidth(), healthBar.getHeight());
         gc.setStroke(healthBarOutline.getFill());
@@ -312,7 +321,7 @@ public class Necromancer extends Enemy {
      * It's displayed above the health bar.
      * @param gc
      */
-    private void displayName(GraphicsContext gc) {
+    private void displayName(Painter gc) {
         double x = this.playState.getCamera().getX() + WINDOW_WIDTH / 2 - 175;
         double y = this.playState.getCamera().getY() + 50;
         String text = "Necromancer";
@@ -330,6 +339,8 @@ public class Necromancer extends Enemy {
 
     /**
      * Updating the health bar position based on the camera position.
+     * It's done right before drawing, because the camera is interpolated
+     * between ticks.
      */
     private void updateHealthBar() {
         double x = this.playState.getCamera().getX() + WINDOW_WIDTH / 2 - 150;
@@ -347,7 +358,39 @@ public class Necromancer extends Enemy {
         return super.getHealth() <= 0;
     }
 
+    /**
+     * The spell is on the map while it's drawn (drawSpell) and its position
+     * is saved, only while the necromancer is alive.
+     * 
+     * @return true if the spell is on the map
+     */
+    public boolean isSpellShown() {
+        return !checkDeath() && prevEnemyAction == NECROMANCER_SPELL && super.enemyAction != NECROMANCER_SPELL
+                && !spellAlreadyDrawn && savePos;
+    }
+
+    public double getSpellCenterX() {
+        return playerX + pixSize / 2;
+    }
+
+    public double getSpellCenterY() {
+        return playerY + pixSize / 2;
+    }
+
     public void setEnemyPos(float x, float y) {
         super.setEnemyPos(x, y);
     }
+
+    /**
+     * Give all spritesheets of the necromancer back to the AssetCache.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (spritesRight != null) {
+            AssetCache.release("entity/necromancer_right.png", 128);
+            AssetCache.release("entity/necrospell.png", 128);
+            spritesRight = null;
+        }
+    }
 }
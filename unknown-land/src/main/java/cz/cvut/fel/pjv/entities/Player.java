@@ -2,14 +2,16 @@ package cz.cvut.fel.pjv.entities;
 
 import cz.cvut.fel.pjv.utils.PlayerDirection;
 import cz.cvut.fel.pjv.utils.Vector2D;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.RenderQueue;
 import javafx.scene.image.Image;
 import javafx.scene.shape.Rectangle;
 
 import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.*;
 import static cz.cvut.fel.pjv.utils.Constants.HitboxConstants.*;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.LAYER_ENTITIES;
 
 import cz.cvut.fel.pjv.gamestates.PlayState;
+import cz.cvut.fel.pjv.time.Cooldown;
 
 /**
  * Class representing the player entity.
@@ -31,10 +33,11 @@ public class Player extends Entity {
     private Image sprites[][];
     private float playerSpeed, tempX, tempY;
     private int playerAction, dmgBoxOffsetY;
-    private int aniTimer, spriteIndex, aniSpeed, attackSpeed, movingSpeed;
+    private Animator animator;
     private int swordColor;
     private int currentHealth, prevHealth;
-    private int attackTimer, attackCooldown;
+    private int attackCooldown;
+    private Cooldown attackTimer;
     private boolean hit, teleported;
     protected boolean attack; // used by the HitDetector class
 
@@ -62,17 +65,14 @@ public class Player extends Entity {
 
     private void initVariables() {
         playerSpeed = 4f;
-        aniTimer = 0;
-        spriteIndex = 0;
-        aniSpeed = 0;
+        animator = new Animator(playState.getTimerWheel(), AnimationClips.PLAYER_MOVING[IDLED]);
         swordColor = 0;
-        movingSpeed = 8;
-        attackSpeed = 4;
         prevHealth = 120;
         tempX = x;
         tempY = y;
-        attackTimer = 0;
         attackCooldown = 40;
+        attackTimer = playState.getTimerWheel().createCooldown();
+        attackTimer.start(attackCooldown);
         dmgBoxOffsetY = 30;
 
         playerDirection = PlayerDirection.DOWN;
@@ -86,15 +86,19 @@ public class Player extends Entity {
 
     /**
      * Render the player.
-     * Player sprite is drawn into the hitboxes rectangle.
+     * Player sprite is drawn into the hitboxes rectangle, interpolated
+     * between the last two ticks. Sorted by the bottom of the hitbox (feet).
      * 
-     * @param gc
+     * @param queue where the sprite is submitted
+     * @param alpha how far we are between the last tick and the next one
      */
-    public void render(GraphicsContext gc) {
-        if (spriteIndex < sprites[playerAction].length) {
-            gc.drawImage(sprites[playerAction][spriteIndex],
-                    hitbox.getX() - PLAYER_HITBOX_OFFSET_X, hitbox.getY() - PLAYER_HITBOX_OFFSET_Y, PLAYER_WIDTH,
-                    PLAYER_HEIGHT);
+    public void render(RenderQueue queue, double alpha) {
+        int frame = animator.getFrame();
+        if (frame < sprites[playerAction].length) {
+            double renderY = getRenderY(alpha);
+            queue.submit(sprites[playerAction][frame],
+                    getRenderX(alpha) - PLAYER_HITBOX_OFFSET_X, renderY - PLAYER_HITBOX_OFFSET_Y,
+                    PLAYER_WIDTH, PLAYER_HEIGHT, LAYER_ENTITIES, renderY + hitbox.getHeight());
         }
     }
 
@@ -103,6 +107,7 @@ public class Player extends Entity {
      * Update the player's position, hitboxes, animation, health, and direction.
      */
     public void update() {
+        savePreviousPosition();
         updateMovingPosition();
         updateWeaponHitbox();
         updateTick();
@@ -114,23 +119,16 @@ public class Player extends Entity {
 
     /**
      * Update the player's animation.
-     * Animation speed is based on the player's action.
+     * Animation speed is based on the player's action (AnimationClips).
      * Attack speed is faster than moving speed.
      * If player is doing an action, other actions are set
      * to false to prevent multiple actions at once.
      */
     private void updateTick() {
-        aniSpeed = attack ? attackSpeed : movingSpeed;
-        aniTimer++;
-        attackTimer++;
-        if (aniTimer >= aniSpeed) {
-            aniTimer = 0;
-            spriteIndex++;
+        if (animator.update()) {
             // HITTING
             if (hit) {
-                // avoid out of bounds exception
-                if (spriteIndex >= 1) {
-                    spriteIndex = 0;
+                if (animator.hasWrapped()) {
                     hit = false;
                 }
                 attack = false;
@@ -138,8 +136,7 @@ public class Player extends Entity {
             }
             // ATTACKING
             else if (attack) {
-                if (spriteIndex >= GetAttackAmount(playerAction)) {
-                    spriteIndex = 0;
+                if (animator.hasWrapped()) {
                     attack = false;
                 }
                 hit = false;
@@ -147,9 +144,6 @@ public class Player extends Entity {
             }
             // MOVING
             else {
-                if (spriteIndex >= GetAniAmount(playerAction)) {
-                    spriteIndex = 0;
-                }
                 attack = false;
                 hit = false;
             }
@@ -159,20 +153,14 @@ public class Player extends Entity {
     /**
      * Update the player's position - movement.
      * If the player is moving, update the position based on the direction.
+     * The player slides along walls instead of stopping at them.
      * If the player is teleported, don't set the position to the previous one.
      * We are using tempX and tempY to store the previous position to prevent
      * the player from being moved by other entities.
      */
     private void updateMovingPosition() {
         if (moving || teleported) {
-            x += positionOffset.getX() * playerSpeed;
-            y += positionOffset.getY() * playerSpeed;
-
-            // if collision is detected, move the player back
-            if (!collision.isMoveValid(x, y, hitbox.getWidth(), hitbox.getHeight())) {
-                x -= positionOffset.getX() * playerSpeed;
-                y -= positionOffset.getY() * playerSpeed;
-            }
+            moveBy(positionOffset.getX() * playerSpeed, positionOffset.getY() * playerSpeed);
 
             tempX = x;
             tempY = y;
@@ -193,23 +181,19 @@ public class Player extends Entity {
 
     /**
      * Set the player's animation based on the player's action.
-     * If the previous action is different from the current action, reset the
-     * animation.
+     * If the clip of the action is different from the current one, it
+     * starts from the beginning.
      */
     private void setAni() {
-        int tempAni = playerAction;
-
         playerAction = choosePlayerAction(); // depending on the key pressed, the player action is set
 
-        if (tempAni != playerAction) { // if the player action has changed
-            resetAni(); // reset the animation so it starts from the beginning
+        if (hit) {
+            animator.play(AnimationClips.PLAYER_HIT);
+        } else if (attack) {
+            animator.play(AnimationClips.PLAYER_ATTACK[playerAction]);
+        } else {
+            animator.play(AnimationClips.PLAYER_MOVING[playerAction]);
         }
-
-    }
-
-    private void resetAni() {
-        aniTimer = 0;
-        spriteIndex = 0;
     }
 
     /**
@@ -360,9 +344,9 @@ public class Player extends Entity {
     }
 
     public void setAttack(boolean attack) {
-        if (swordColor != 0 && attackTimer >= attackCooldown) {
+        if (swordColor != 0 && attackTimer.isReady()) {
             this.attack = attack;
-            attackTimer = 0;
+            attackTimer.start(attackCooldown);
         }
     }
 
@@ -374,6 +358,10 @@ public class Player extends Entity {
         return (int) y;
     }
 
+    public PlayerDirection getDirection() {
+        return playerDirection;
+    }
+
     public Vector2D getPositionOffset() {
         return positionOffset;
     }
@@ -0,0 +1,39 @@
+package cz.cvut.fel.pjv.entities;
+
+import javafx.geometry.Bounds;
+
+/**
+ * Read-only copy of the player taken at the start of the enemy update.
+ * Enemies only look at the player through this copy while they move,
+ * so they can be updated in parallel and none of them sees the player
+ * changed by another enemy in the same tick.
+ * Changes to the player are queued by the enemies and applied afterwards.
+ * @see EnemyManager
+ *
+ * @author Son Ngoc Tran
+ */
+final class PlayerSnapshot {
+
+    final int x, y;
+    final float pushBackX, pushBackY; // where the player ends up when he bumps into an enemy
+    final int damage;
+    final boolean attack;
+    final Bounds hitbox, dmgHitbox, weaponHitbox;
+
+    /**
+     * Copy the player.
+     *
+     * @param player player at the start of the enemy update
+     */
+    PlayerSnapshot(Player player) {
+        x = player.getX();
+        y = player.getY();
+        pushBackX = (float) (player.getX() - player.getSpeed() * player.getPositionOffset().getX());
+        pushBackY = (float) (player.getY() - player.getSpeed() * player.getPositionOffset().getY());
+        damage = player.damage;
+        attack = player.attack;
+        hitbox = player.hitbox.getBoundsInParent();
+        dmgHitbox = player.dmgHitbox.getBoundsInParent();
+        weaponHitbox = player.weaponHitbox.getBoundsInParent();
+    }
+}
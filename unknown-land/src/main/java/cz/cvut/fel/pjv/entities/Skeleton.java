@@ -1,8 +1,10 @@
 package cz.cvut.fel.pjv.entities;
 
-import cz.cvut.fel.pjv.utils.LoadFiles;
-
 import cz.cvut.fel.pjv.gamestates.PlayState;
+import cz.cvut.fel.pjv.view.ParticleEmitter;
+
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.SKELETON_PIX_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.SKELETON_SHEET;
 
 /**
  * Class for creating Skeleton enemy.
@@ -24,9 +26,10 @@ public class Skeleton extends Enemy {
      */
     public Skeleton(PlayState playState, float x, float y, EnemyAttributes skelAttributes) {
         super(playState, x, y, skelAttributes);
-        sprites = LoadFiles.LoadSubImages("entity/skeleton.png", 132);
+        loadSprites(SKELETON_SHEET, SKELETON_PIX_SIZE);
         initHitbox(x, y, 45, 50);
         initDmgHitbox(x, y, 45, 90);
         initWeaponHitbox(x, y, 180, 80);
+        hitEmitter = ParticleEmitter.BONES;
     }
 }
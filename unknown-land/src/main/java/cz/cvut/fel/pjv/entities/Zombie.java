@@ -2,7 +2,8 @@ package cz.cvut.fel.pjv.entities;
 
 import cz.cvut.fel.pjv.gamestates.PlayState;
 
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadSubImages;
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.ZOMBIE_PIX_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.ZOMBIE_SHEET;
 
 /**
  * Class for creating Zombie enemy.
@@ -24,7 +25,7 @@ public class Zombie extends Enemy {
      */
     public Zombie(PlayState playState, float x, float y, EnemyAttributes zomAttributes) {
         super(playState, x, y, zomAttributes);
-        sprites = LoadSubImages("entity/zombie.png", 64);
+        loadSprites(ZOMBIE_SHEET, ZOMBIE_PIX_SIZE);
         initHitbox(x, y, 40, 40);
         initDmgHitbox(x, y, 35, 70);
         initWeaponHitbox(x, y, 70, 65);
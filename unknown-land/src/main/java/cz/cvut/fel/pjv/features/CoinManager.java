@@ -1,11 +1,11 @@
 package cz.cvut.fel.pjv.features;
 
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
 
 import java.util.Random;
 
-import cz.cvut.fel.pjv.view.Camera;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.HudWidget;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
@@ -23,27 +23,34 @@ public class CoinManager {
     private Image coinIMG;
     private int playerCoinAmount;
     private Random random;
-    private Camera camera;
+    private HudWidget coinWidget;
 
     /**
      * Constructor for CoinManager.
-     * @param camera camera used for rendering in the right place
      */
-    public CoinManager(Camera camera) {
-        this.camera = camera;
-        coinIMG = LoadImage("items/coin.png");
+    public CoinManager() {
+        coinWidget = new HudWidget();
+        coinIMG = getImage("items/coin.png");
         playerCoinAmount = 0;
         random = new Random();
     }
 
     /**
      * Drawing the coin image and the amount of coins.
-     * X and Y coordinates are set by camera.
+     * Drawn in screen coordinates, recorded again only when the amount changes.
      * @param gc used for drawing on canvas
      */
-    public void render(GraphicsContext gc) {
-        double x = camera.getX() + 30;
-        double y = camera.getY() + 60;
+    public void render(Painter gc) {
+        coinWidget.render(gc, playerCoinAmount, this::drawCoins);
+    }
+
+    public boolean isChanged() {
+        return !coinWidget.isCurrent(playerCoinAmount);
+    }
+
+    private void drawCoins(Painter gc) {
+        double x = 30;
+        double y = 60;
 
         // drawing coin image
         gc.drawImage(coinIMG, x, y, 32, 32);
@@ -1,12 +1,11 @@
 package cz.cvut.fel.pjv.features;
 
 import cz.cvut.fel.pjv.entities.Player;
-import cz.cvut.fel.pjv.utils.LoadFiles;
-import cz.cvut.fel.pjv.view.Camera;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.utils.AssetCache;
+import cz.cvut.fel.pjv.view.HudWidget;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 
 /**
  * Class for creating player's health bar.
@@ -17,90 +16,59 @@ import javafx.scene.shape.Rectangle;
  */
 public class HealthBar {
 
-    private Rectangle healthBar, healthBarBorder;
-    private double cameraX, cameraY;
-    private int health;
+    private static final int BAR_HEIGHT = 15;
+
+    private int health, maxHealth;
     private Image heart;
-    private Camera camera;
     private Player player;
     private int offsetX, offsetY;
+    private HudWidget healthWidget;
 
     /**
      * Constructor for HealthBar.
      * 
-     * @param camera camera used for rendering in the right place
      * @param player player's health is managed by this class
      */
-    public HealthBar(Camera camera, Player player) {
-        this.camera = camera;
+    public HealthBar(Player player) {
         this.player = player;
-        this.cameraX = camera.getX();
-        this.cameraY = camera.getY();
         this.health = player.getHealth();
+        this.maxHealth = health;
         offsetX = 70;
         offsetY = 30;
-        heart = LoadFiles.LoadImage("heart.png");
-        initHealthBar();
+        heart = AssetCache.getImage("heart.png");
+        healthWidget = new HudWidget();
     }
 
     /**
-     * Initialize health bar.
-     * Offset is used for setting the position of the health bar
-     * on the screen.
-     */
-    private void initHealthBar() {
-        healthBar = new Rectangle(health, 15, Color.RED);
-        healthBar.setX(cameraX + offsetX);
-        healthBar.setY(cameraY + offsetY);
-
-        healthBarBorder = new Rectangle(health, 15, Color.BLACK);
-        healthBar.setX(cameraX + offsetX + 1);
-        healthBar.setY(cameraY + offsetY + 1);
-    }
-
-    /**
-     * Updating the health bar width + position.
+     * Updating the health bar width.
      */
     public void update() {
-        updateHealthBar();
-        updateHealthBarPos();
+        health = player.getHealth();
     }
 
     /**
      * Drawing the health bar.
      * We are drawing the heart image and the health bar.
+     * Drawn in screen coordinates, recorded again only when the health changes.
      * 
      * @param gc
      */
-    public void render(GraphicsContext gc) {
-        gc.drawImage(heart, healthBar.getX() - 45, healthBar.getY() - 10, 40, 40);
-        gc.setFill(healthBar.getFill());
-        gc.fillRect(healthBar.getX(), healthBar.getY(), healthBar.getWidth(), healthBar.getHeight());
-
-        gc.setStroke(healthBarBorder.getFill());
-        gc.setLineWidth(2);
-        gc.strokeRect(healthBarBorder.getX(), healthBarBorder.getY(), healthBarBorder.getWidth(),
-                healthBarBorder.getHeight());
+    public void render(Painter gc) {
+        healthWidget.render(gc, health, this::drawHealthBar);
     }
 
-    /**
-     * Updating the health bar width.
-     */
-    private void updateHealthBar() {
-        health = player.getHealth();
-        healthBar.setWidth(health);
+    public boolean isChanged() {
+        return !healthWidget.isCurrent(health);
     }
 
-    /**
-     * Updating the health bar position and its borders.
-     */
-    private void updateHealthBarPos() {
-        cameraX = camera.getX();
-        cameraY = camera.getY();
-        healthBar.setX(cameraX + offsetX);
-        healthBar.setY(cameraY + offsetY);
-        healthBarBorder.setX(cameraX + offsetX + 1);
-        healthBarBorder.setY(cameraY + offsetY + 1);
+    private void drawHealthBar(Painter gc) {
+        gc.drawImage(heart, offsetX - 45, offsetY - 10, 40, 40);
+        gc.setFill(Color.RED);
+        gc.fillRect(offsetX, offsetY, Math.max(0, health), BAR_HEIGHT);
+
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(2);
+        gc.strokeRect(offsetX + 1, offsetY + 1, maxHealth, BAR_HEIGHT);
     }
 
 }
@@ -15,19 +15,20 @@ import cz.cvut.fel.pjv.items.Food;
 import cz.cvut.fel.pjv.items.Item;
 import cz.cvut.fel.pjv.items.Sword;
 import cz.cvut.fel.pjv.utils.Vector2D;
-import cz.cvut.fel.pjv.view.Camera;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
 import static cz.cvut.fel.pjv.utils.LoadFiles.LoadFont;
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
 
 /**
  * Class for managing player's inventory.
  * It has methods for adding, removing and swapping items.
  * It deeply connects with InventoryManager class.
+ * It's drawn on the HUD in screen coordinates, the darkened background
+ * behind the opened inventory is drawn over the world.
  * 
  * @author Son Ngoc Tran
  */
@@ -35,7 +36,6 @@ public class Inventory {
 
     private ArrayList<Item> inventory;
     private ArrayList<Integer> invisPlaceholders;
-    private Camera camera;
     private int width, height;
     private double placementX, placementY;
     private int slotSize;
@@ -58,17 +58,16 @@ public class Inventory {
      * Placeholder are used to replace item with invisible item
      * when the item is removed from the inventory.
      * 
-     * @param playState used for the access to the camera and player
+     * @param playState used for the access to the player and quests
      * @param spaceShip used to set the map as revealed when used
      */
     public Inventory(PlayState playState, SpaceShip spaceShip) {
         this.playState = playState;
-        this.camera = playState.getCamera();
         this.player = playState.getPlayer();
         this.spaceShip = spaceShip;
 
         font = LoadFont("transamericabold.ttf", 70);
-        mapBig = LoadImage("items/map.png");
+        mapBig = getImage("items/map.png");
         inventory = new ArrayList<>();
         invisPlaceholders = new ArrayList<>();
 
@@ -153,15 +152,38 @@ public class Inventory {
     }
 
     /**
-     * Rendering the inventory.
+     * Counting how long the map notification has been displayed.
+     * If the item in the active slot is a sword, we are setting the sword color.
+     * That means that we are changing sprites in the player class.
+     * 
+     * @param index index of the active slot
+     */
+    public void update(int index) {
+        if (mapUsed && mapTimer < mapThreshold) {
+            mapTimer++;
+        }
+        // if the active slot is in the shop, the sword stays the same
+        if (!activeSlot) {
+            return;
+        }
+        if (inventory.size() > index && inventory.get(index).getItemType() == SWORD) {
+            Sword sword = (Sword) inventory.get(index);
+            player.setSwordColor(sword.getColor());
+        } else {
+            player.setSwordColor(0);
+        }
+    }
+
+    /**
+     * Rendering the inventory in screen coordinates.
      * We are drawing the inventory slots, items, active slot and map notification.
      * 
      * @param gc
      * @param index index of the active slot
      */
-    public void render(GraphicsContext gc, int index) {
-        checkInventoryOpen(gc); // if it's opened, draw the inventory
+    public void render(Painter gc, int index) {
         drawInvRectangle(gc, openedOffsetY);
+        drawTitle(gc); // if it's opened, draw the title
         drawSlots(gc);
         drawActiveSlot(gc, index);
         drawItems(gc);
@@ -175,7 +197,7 @@ public class Inventory {
      * 
      * @param gc
      */
-    private void drawItems(GraphicsContext gc) {
+    private void drawItems(Painter gc) {
         for (int i = 0; i < inventory.size(); i++) {
             Item currentItem = inventory.get(i);
 
@@ -190,15 +212,47 @@ public class Inventory {
         }
     }
 
+    /**
+     * Darkening the world behind the inventory if it's opened.
+     * Drawn over the world, not on the HUD, so the shop stays above it.
+     * 
+     * @param gc
+     * @param x  left edge of the screen in the world
+     * @param y  top edge of the screen in the world
+     */
+    public void renderBackground(Painter gc, double x, double y) {
+        if (inventoryOpen) {
+            gc.setFill(new Color(0, 0, 0, 0.5));
+            gc.fillRect(x - TILE_SIZE, y - TILE_SIZE, WINDOW_WIDTH + 2 * TILE_SIZE, WINDOW_HEIGHT + 2 * TILE_SIZE);
+        }
+    }
+
+    /**
+     * Everything the drawn inventory depends on, it's drawn again only when this changes.
+     * Items are compared by identity, food also by its quantity.
+     * 
+     * @return hash of the inventory state
+     */
+    public long getState() {
+        long state = (inventoryOpen ? 1 : 0) | (activeSlot ? 2 : 0) | (mark ? 4 : 0)
+                | (mapUsed && mapTimer < mapThreshold ? 8 : 0);
+        state = state * 31 + markIdx;
+        for (Item item : inventory) {
+            state = state * 31 + System.identityHashCode(item);
+            if (item.getItemType() == FOOD) {
+                state = state * 31 + ((Food) item).getQuantity();
+            }
+        }
+        return state;
+    }
+
     /**
      * Drawing the active slot red.
-     * If the item in the active slot is a sword, we are setting the sword color.
-     * That means that we are changing sprites in the player class.
      * 
      * @param gc
      * @param index index of the active slot
      */
-    private void drawActiveSlot(GraphicsContext gc, int index) {
+    private void drawActiveSlot(Painter gc, int index) {
         // if the inventory is not opened, we don't need to draw the active slot
         if (!activeSlot) {
             return;
@@ -211,14 +265,6 @@ public class Inventory {
         int x = (int) placementX + index * slotSize;
         int y = (int) placementY;
         gc.strokeRect(x, y, slotSize, slotSize);
-
-        // if the item in the active slot is a sword, we are setting the sword color
-        if (inventory.size() > index && inventory.get(index).getItemType() == SWORD) {
-            Sword sword = (Sword) inventory.get(index);
-            player.setSwordColor(sword.getColor());
-        } else {
-            player.setSwordColor(0);
-        }
     }
 
     /**
@@ -229,9 +275,9 @@ public class Inventory {
      * @param gc
      * @param openedOffsetY offset for the inventory when opened
      */
-    private void drawInvRectangle(GraphicsContext gc, int openedOffsetY) {
-        placementX = camera.getX() + WINDOW_WIDTH / 2 - width / 2;
-        placementY = camera.getY() + WINDOW_HEIGHT - height - 10 + openedOffsetY;
+    private void drawInvRectangle(Painter gc, int openedOffsetY) {
+        placementX = WINDOW_WIDTH / 2 - width / 2;
+        placementY = WINDOW_HEIGHT - height - 10 + openedOffsetY;
 
         gc.setFill(Color.rgb(182, 182, 182, 0.7));
         gc.fillRect(placementX, placementY, width, height);
@@ -242,7 +288,7 @@ public class Inventory {
      * 
      * @param gc
      */
-    private void drawSlots(GraphicsContext gc) {
+    private void drawSlots(Painter gc) {
         int slotsPerRow = width / slotSize;
 
         gc.setStroke(Color.rgb(45, 46, 51, 0.8)); // Color of the slot borders
@@ -261,7 +307,7 @@ public class Inventory {
      * 
      * @param gc
      */
-    private void drawMapNotification(GraphicsContext gc) {
+    private void drawMapNotification(Painter gc) {
         gc.setFont(font);
         gc.setFill(Color.RED);
         gc.setStroke(Color.BLACK);
@@ -270,8 +316,8 @@ public class Inventory {
         String text1 = "NEW LOCATION";
         String text2 = "REVEALED!!!";
 
-        double text1X = camera.getX() + 100;
-        double text1Y = camera.getY() + WINDOW_HEIGHT / 2 - 50;
+        double text1X = 100;
+        double text1Y = WINDOW_HEIGHT / 2 - 50;
 
         double text2X = text1X + 80;
         double text2Y = text1Y + 50;
@@ -281,33 +327,23 @@ public class Inventory {
 
         gc.fillText(text1, text1X, text1Y);
         gc.fillText(text2, text2X, text2Y);
-        gc.drawImage(mapBig, camera.getX() + 300, camera.getY() + WINDOW_HEIGHT / 2 + 25, 200, 200);
+        gc.drawImage(mapBig, 300, WINDOW_HEIGHT / 2 + 25, 200, 200);
     }
 
     /**
-     * Checking if the inventory is opened.
-     * If it is, we are darkening the background and drawing the inventory title.
+     * Drawing the inventory title if the inventory is opened.
      * 
      * @param gc
      */
-    private void checkInventoryOpen(GraphicsContext gc) {
+    private void drawTitle(Painter gc) {
         if (inventoryOpen) {
-            // darkening the background
-            gc.setFill(new Color(0, 0, 0, 0.5));
-            gc.fillRect(camera.getX() - TILE_SIZE, camera.getY() - TILE_SIZE, WINDOW_WIDTH + 2 * TILE_SIZE,
-                    WINDOW_HEIGHT + 2 * TILE_SIZE);
-
-            // drawing the inventory title + offsetting the inventory
             String textInventory = "INVENTORY";
-            openedOffsetY = -150;
             gc.setFont(font);
             gc.setFill(Color.WHITE);
             gc.setStroke(Color.BLACK);
             gc.setLineWidth(10);
             gc.strokeText(textInventory, placementX - textPosOffset.getX(), placementY - textPosOffset.getY());
             gc.fillText(textInventory, placementX - textPosOffset.getX(), placementY - textPosOffset.getY());
-        } else {
-            openedOffsetY = 0;
         }
     }
 
@@ -317,10 +353,9 @@ public class Inventory {
      * 
      * @param gc
      */
-    private void checkMapUsed(GraphicsContext gc) {
+    private void checkMapUsed(Painter gc) {
         if (mapUsed && mapTimer < mapThreshold) {
             drawMapNotification(gc);
-            mapTimer++;
         }
     }
 
@@ -330,7 +365,7 @@ public class Inventory {
      * 
      * @param gc
      */
-    private void checkSwapping(GraphicsContext gc) {
+    private void checkSwapping(Painter gc) {
         if (mark) {
             gc.setStroke(Color.WHITE);
             gc.setLineWidth(4);
@@ -397,8 +432,14 @@ public class Inventory {
         activeSlot = active;
     }
 
+    /**
+     * Opening or closing the inventory, opened inventory is moved up.
+     * 
+     * @param inventoryOpen
+     */
     protected void setOpen(boolean inventoryOpen) {
         this.inventoryOpen = inventoryOpen;
+        openedOffsetY = inventoryOpen ? -150 : 0;
     }
 
     /**
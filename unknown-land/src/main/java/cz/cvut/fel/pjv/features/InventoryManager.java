@@ -14,14 +14,16 @@ import cz.cvut.fel.pjv.items.InvisItem;
 import cz.cvut.fel.pjv.items.Item;
 import cz.cvut.fel.pjv.items.ItemManager;
 import cz.cvut.fel.pjv.utils.Vector2D;
-import cz.cvut.fel.pjv.view.Camera;
 import cz.cvut.fel.pjv.entities.Player;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.HudWidget;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.input.KeyCode;
 
 /**
  * Class for managing player's inventory.
  * It's mainly used for key handling and rendering.
+ * The inventory is a HudWidget, recorded again only when the inventory
+ * or the selected slot changes.
  * @see Inventory
  * 
  * @author Son Ngoc Tran
@@ -37,7 +39,7 @@ public class InventoryManager {
     private boolean markFirst, firstTimePick;
     private Item temp;
     private int tempIdx;
-    private Camera camera;
+    private HudWidget inventoryWidget;
     private SpaceShip spaceShip;
     private PlayState playState;
     private Vector2D descriptionOffset;
@@ -46,7 +48,7 @@ public class InventoryManager {
     /**
      * Constructor for InventoryManager.
      * 
-     * @param playState   used for getting camera, player and quests
+     * @param playState   used for getting player and quests
      * @param inventory   player's inventory
      * @param itemManager manager for items
      * @param spaceShip   used for rendering - cause we don't want render inventory
@@ -57,7 +59,7 @@ public class InventoryManager {
         this.inventory = inventory;
         this.itemManager = itemManager;
         this.spaceShip = spaceShip;
-        camera = playState.getCamera();
+        inventoryWidget = new HudWidget();
         items = inventory.getInvArray();
         player = playState.getPlayer();
         activeSlotIdx = 0;
@@ -81,22 +83,63 @@ public class InventoryManager {
             updateActiveSlot(pressedKeys);
             checkKeyCodes(pressedKeys);
             updateActiveWithArrows(pressedKeys);
+            inventory.update(activeSlotIdx);
         }
     }
 
     /**
-     * Render inventory.
+     * Render inventory on the HUD.
      * It's only active when map is not opened.
+     * Drawn in screen coordinates, recorded again only when the inventory changes.
      * 
      * @param gc
      */
-    public void render(GraphicsContext gc) {
+    public void render(Painter gc) {
+        inventoryWidget.render(gc, getState(), this::drawInventory);
+    }
+
+    public boolean isChanged() {
+        return !inventoryWidget.isCurrent(getState());
+    }
+
+    /**
+     * Darken the world behind the opened inventory.
+     * It's only active when map is not opened.
+     * 
+     * @param gc painter in world coordinates
+     * @param x  left edge of the screen in the world
+     * @param y  top edge of the screen in the world
+     */
+    public void renderBackground(Painter gc, double x, double y) {
+        if (!spaceShip.isMapOpened()) {
+            inventory.renderBackground(gc, x, y);
+        }
+    }
+
+    private void drawInventory(Painter gc) {
         if (!spaceShip.isMapOpened()) {
             inventory.render(gc, activeSlotIdx);
             drawItemDescription(gc, items);
         }
     }
 
+    /**
+     * Everything the drawn inventory depends on - the inventory itself,
+     * the selected slot and the item which description is shown.
+     * 
+     * @return hash of the state
+     */
+    private long getState() {
+        long state = inventory.getState();
+        state = state * 31 + activeSlotIdx;
+        state = state * 31 + (spaceShip.isMapOpened() ? 1 : 0);
+        state = state * 31 + System.identityHashCode(items);
+        if (activeSlotIdx < items.size()) {
+            state = state * 31 + System.identityHashCode(items.get(activeSlotIdx));
+        }
+        return state;
+    }
+
     /**
      * Check for pressed keys and update inventory depending on the key.
      * 
@@ -280,12 +323,11 @@ public class InventoryManager {
      * @param gc
      * @param box player's or shop's inventory
      */
-    private void drawItemDescription(GraphicsContext gc, ArrayList<Item> box) {
+    private void drawItemDescription(Painter gc, ArrayList<Item> box) {
         if (box.size() > 0 && activeSlotIdx < box.size() && inventoryOpen) {
             Item item = box.get(activeSlotIdx);
             if (item.getItemType() != INVIS_ITEM) {
-                item.renderDescription(gc, camera.getX() + descriptionOffset.getX(),
-                        camera.getY() + descriptionOffset.getY());
+                item.renderDescription(gc, descriptionOffset.getX(), descriptionOffset.getY());
             }
         }
     }
@@ -7,8 +7,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import cz.cvut.fel.pjv.utils.Vector2D;
-import cz.cvut.fel.pjv.view.Camera;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.HudWidget;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
@@ -21,17 +21,16 @@ import javafx.scene.text.Font;
  */
 public class Quests {
     
-    private Camera camera;
+    private HudWidget questWidget;
     private int questNumber, maxQuestNumber;
     private Logger log;
     private Vector2D questPosOffset;
     
     /**
      * Constructor of the Quests class.
-     * @param camera used for x and y coordinates of the quests.
      */
-    public Quests(Camera camera) {
-        this.camera = camera;
+    public Quests() {
+        questWidget = new HudWidget();
         questNumber = 0;
         maxQuestNumber = 6;
         questPosOffset = new Vector2D(190, 20);
@@ -39,8 +38,16 @@ public class Quests {
         log.setLevel(Level.INFO);
     }
 
-    public void render(GraphicsContext gc) {
-        drawQuest(gc);
+    /**
+     * Draw the current quest, recorded again only when the quest changes.
+     * @param gc painter in screen coordinates
+     */
+    public void render(Painter gc) {
+        questWidget.render(gc, questNumber, this::drawQuest);
+    }
+
+    public boolean isChanged() {
+        return !questWidget.isCurrent(questNumber);
     }
 
     /**
@@ -48,11 +55,11 @@ public class Quests {
      * Depending on the quest number, different quest is displayed.
      * @param gc
      */
-    private void drawQuest(GraphicsContext gc) {
+    private void drawQuest(Painter gc) {
         gc.setFill(Color.WHITE);
         gc.setFont(Font.font("Verdana", 10));
-        double x = camera.getX() + WINDOW_WIDTH - questPosOffset.getX();
-        double y = camera.getY() + WINDOW_HEIGHT - questPosOffset.getY();
+        double x = WINDOW_WIDTH - questPosOffset.getX();
+        double y = WINDOW_HEIGHT - questPosOffset.getY();
 
         switch (questNumber) {
             case 0:
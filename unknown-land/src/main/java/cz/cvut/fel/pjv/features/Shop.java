@@ -9,7 +9,7 @@ import cz.cvut.fel.pjv.entities.Merchant;
 import cz.cvut.fel.pjv.gamestates.PlayState;
 import cz.cvut.fel.pjv.items.*;
 import cz.cvut.fel.pjv.view.Camera;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
@@ -143,7 +143,7 @@ public class Shop {
      * 
      * @param gc
      */
-    public void render(GraphicsContext gc) {
+    public void render(Painter gc) {
         if (!merchant.getShopDisplay()) {
             activeSlot = false;
             inventory.setActiveSlot(true);
@@ -164,7 +164,7 @@ public class Shop {
      * 
      * @param gc
      */
-    private void drawItems(GraphicsContext gc) {
+    private void drawItems(Painter gc) {
         placementX = camera.getX() + WINDOW_WIDTH / 2 - shopWidth / 2;
         placementY = camera.getY() + shopHeight + offset;
         for (int i = 0; i < shopItems.size(); i++) {
@@ -185,7 +185,7 @@ public class Shop {
      * 
      * @param gc
      */
-    private void drawShopRectangle(GraphicsContext gc) {
+    private void drawShopRectangle(Painter gc) {
         placementX = camera.getX() + WINDOW_WIDTH / 2 - shopWidth / 2;
         placementY = camera.getY() + shopHeight + offset;
         gc.setFill(Color.rgb(182, 182, 182, 0.7));
@@ -198,7 +198,7 @@ public class Shop {
      * 
      * @param gc
      */
-    private void drawSlots(GraphicsContext gc) {
+    private void drawSlots(Painter gc) {
         int slotsPerRow = shopWidth / slotSize;
         gc.setStroke(Color.rgb(45, 46, 51, 0.8));
         gc.setLineWidth(4);
@@ -396,7 +396,7 @@ public class Shop {
      * 
      * @param gc
      */
-    private void drawActiveSlot(GraphicsContext gc) {
+    private void drawActiveSlot(Painter gc) {
         int index = inventoryManager.getActiveSlotIdx();
         if (!activeSlot) {
             return;
@@ -409,7 +409,7 @@ public class Shop {
         gc.strokeRect(x, y, slotSize, slotSize);
     }
 
-    private void drawShopLogo(GraphicsContext gc) {
+    private void drawShopLogo(Painter gc) {
         String text = "SHOP";
         gc.setFont(font);
         gc.setFill(Color.YELLOW);
@@ -427,7 +427,7 @@ public class Shop {
      * 
      * @param gc
      */
-    private void displayHint(GraphicsContext gc) {
+    private void displayHint(Painter gc) {
         double x = camera.getX() + WINDOW_WIDTH - 180;
         double y = camera.getY() + WINDOW_HEIGHT - 35;
 
@@ -4,16 +4,17 @@ import static cz.cvut.fel.pjv.utils.Constants.GameConstants.PLAYER_START_X;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.PLAYER_START_Y;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.LAYER_ENTITIES;
 
 import java.util.HashSet;
 
-import cz.cvut.fel.pjv.entities.Player;
 import cz.cvut.fel.pjv.gamestates.PlayState;
 import cz.cvut.fel.pjv.gamestates.PlayingStates;
 import cz.cvut.fel.pjv.utils.Vector2D;
 import cz.cvut.fel.pjv.view.Camera;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
+import cz.cvut.fel.pjv.view.RenderQueue;
 import javafx.scene.image.Image;
 import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
@@ -35,9 +36,9 @@ public class SpaceShip {
     private Image shipIMG, navMap, planetIMG;
     private int x, y, level;
     private Rectangle interactHitbox;
-    private Player player;
     private Camera camera;
     private boolean Fpressed, mapRevelead, ENTERpressed;
+    private boolean playerNear; // set by the TriggerZones
     private int markIdx, maxMarkIdx;
     private Color colorForChosenPlanet;
     private PlayState playState;
@@ -47,16 +48,14 @@ public class SpaceShip {
     /**
      * SpaceShip constructor.
      * @param playState used for setting the level
-     * @param player used for checking the collision
      * @param camera used for rendering in the right place
      */
-    public SpaceShip(PlayState playState, Player player, Camera camera) {
+    public SpaceShip(PlayState playState, Camera camera) {
         this.playState = playState;
-        this.player = player;
         this.camera = camera;
-        shipIMG = LoadImage("planets/spaceship.png");
-        navMap = LoadImage("planets/navigationMap.png");
-        planetIMG = LoadImage("planets/lavaplanet.png");
+        shipIMG = getImage("planets/spaceship.png");
+        navMap = getImage("planets/navigationMap.png");
+        planetIMG = getImage("planets/lavaplanet.png");
         shipWidth = 164;
         shipHeight = 164;
         initVariables();
@@ -80,13 +79,20 @@ public class SpaceShip {
     }
 
     /**
-     * Drawing the spaceship and the hint for navigation.
+     * Submitting the spaceship sprite.
+     * @param queue where the sprite is submitted
+     */
+    public void render(RenderQueue queue) {
+        queue.submit(shipIMG, x, y, shipWidth, shipHeight, LAYER_ENTITIES); // draw ship
+    }
+
+    /**
+     * Drawing the hint for navigation over the sprites.
      * It also draws the mark on the navigation map to 
      * show the chosen planet.
      * @param gc
      */
-    public void render(GraphicsContext gc) {
-        gc.drawImage(shipIMG, x, y, shipWidth, shipHeight); // draw ship
+    public void renderNavigation(Painter gc) {
         drawHint(gc);
         drawNavigation(gc);
         drawMark(gc);
@@ -115,10 +121,10 @@ public class SpaceShip {
      * If the navigation is opened, the hint is changed.
      * @param gc
      */
-    private void drawHint(GraphicsContext gc) {
+    private void drawHint(Painter gc) {
         double hintX = camera.getX() + WINDOW_WIDTH - 300;
         double hintY = camera.getY() + WINDOW_HEIGHT - 90;
-        if (interactHitbox.getBoundsInParent().intersects(player.getHitbox().getBoundsInParent())) {
+        if (playerNear) {
             if (!Fpressed) {
                 gc.setFont(Font.font("Verdana", FontWeight.BOLD, 14));
                 gc.setFill(Color.WHITE);
@@ -143,7 +149,7 @@ public class SpaceShip {
      * @param pressedKeys set of pressed keys
      */
     private void checkKeys(HashSet<KeyCode> pressedKeys) {
-        if (interactHitbox.getBoundsInParent().intersects(player.getHitbox().getBoundsInParent())) {
+        if (playerNear) {
             if (pressedKeys.contains(KeyCode.F)) {
                 Fpressed = !Fpressed;
                 pressedKeys.remove(KeyCode.F);
@@ -176,7 +182,7 @@ public class SpaceShip {
             }
 
         }
-        else if (!interactHitbox.getBoundsInParent().intersects(player.getHitbox().getBoundsInParent())) {
+        else {
             Fpressed = false;
         }
     }
@@ -186,8 +192,8 @@ public class SpaceShip {
      * If map was used, the planet is marked on the map.
      * @param gc
      */
-    private void drawNavigation(GraphicsContext gc) {
-        if (Fpressed && interactHitbox.getBoundsInParent().intersects(player.getHitbox().getBoundsInParent())) {
+    private void drawNavigation(Painter gc) {
+        if (Fpressed && playerNear) {
             gc.drawImage(navMap, camera.getX() + 150, camera.getY() + 25);
             if (mapRevelead) {
                 gc.drawImage(planetIMG, camera.getX() + WINDOW_WIDTH / 2 + 33, camera.getY() + 153);
@@ -204,7 +210,7 @@ public class SpaceShip {
      * The planet name changes when planet changes.
      * @param gc
      */
-    private void drawMark(GraphicsContext gc) {
+    private void drawMark(Painter gc) {
         if (Fpressed) {
             switch (markIdx) {
                 case 1:
@@ -249,7 +255,7 @@ public class SpaceShip {
      * @param gc
      * @param mapName
      */
-    private void drawPlanetName(GraphicsContext gc, String mapName) {
+    private void drawPlanetName(Painter gc, String mapName) {
         gc.setFont(Font.font("Verdana", FontWeight.BOLD, 18));
         gc.setFill(Color.rgb(140, 212, 220));
         gc.fillText(mapName, camera.getX() + WINDOW_WIDTH / 2 - 120, camera.getY() + WINDOW_HEIGHT - 50);        
@@ -262,6 +268,32 @@ public class SpaceShip {
         }
     }
 
+    /**
+     * Check if the player is close enough to use the spaceship.
+     * 
+     * @return true if the player is in the interact hitbox
+     */
+    public boolean isPlayerNear() {
+        return playerNear;
+    }
+
+    /**
+     * Set by the TriggerZones when the player gets into or out of the
+     * interact hitbox. Walking away closes the navigation.
+     *
+     * @param playerNear true if the player is in the interact hitbox
+     */
+    public void setPlayerNear(boolean playerNear) {
+        this.playerNear = playerNear;
+        if (!playerNear) {
+            Fpressed = false;
+        }
+    }
+
+    public Rectangle getInteractHitbox() {
+        return interactHitbox;
+    }
+
     public boolean isMapOpened() {
         return Fpressed;
     }
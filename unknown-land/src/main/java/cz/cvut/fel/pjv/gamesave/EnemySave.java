@@ -71,7 +71,7 @@ public class EnemySave {
      */
     protected void loadEnemyData(GameData gameData) {
         AttributesCreator attributesCreator = playState.getEnemyManager().getAttributesCreator();
-        playState.getEnemyManager().getEnemyList().clear();
+        playState.getEnemyManager().clearEnemies();
 
         if (gameData.enemyTypeList != null) {
             for (int i = 0; i < gameData.enemyTypeList.size(); i++) {
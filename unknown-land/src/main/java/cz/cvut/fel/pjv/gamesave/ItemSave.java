@@ -100,6 +100,7 @@ public class ItemSave {
         convertStringToItem(dungeonList, targetDungeonItems, dungeonPositions);
         convertStringToItem(planet1List, targetPlanet1Items, planet1Positions);
         convertStringToItem(planet2List, targetplanet2Items, planet2Positions);
+        playState.getItemManager().invalidateItemGrid();
     }
 
     /**
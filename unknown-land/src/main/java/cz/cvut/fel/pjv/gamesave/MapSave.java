@@ -2,12 +2,12 @@ package cz.cvut.fel.pjv.gamesave;
 
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.*;
 
-import java.util.ArrayList;
 import java.util.logging.Logger;
 
 import cz.cvut.fel.pjv.gamestates.PlayState;
 import cz.cvut.fel.pjv.gamestates.PlayingStates;
-import javafx.scene.image.Image;
+import cz.cvut.fel.pjv.map.TileAtlas;
+import cz.cvut.fel.pjv.utils.TileGrid;
 
 /**
  * Loads Map data.
@@ -42,10 +42,10 @@ public class MapSave {
      * and with that we can adjust PNG Image Map and Txt Collision.
      */
     protected void loadMap() {
-        Image[][] planetMapPNG = playState.getLoadMaps().getLVLImage();
-        Image[][] dungeonMapPNG = playState.getLoadMaps().getDungeonImage();
-        ArrayList<ArrayList<Integer>> planetMapCollision = playState.getLoadMaps().getLVLCollision();
-        ArrayList<ArrayList<Integer>> dungeonCollision = playState.getLoadMaps().getDungeonCollision();
+        TileAtlas planetMapPNG = playState.getLoadMaps().getLVLImage();
+        TileAtlas dungeonMapPNG = playState.getLoadMaps().getDungeonImage();
+        TileGrid planetMapCollision = playState.getLoadMaps().getLVLCollision();
+        TileGrid dungeonCollision = playState.getLoadMaps().getDungeonCollision();
         switch (PlayingStates.currentState) {
             case PLANET1:
                 playState.getMap().setMap(planetMapPNG);
@@ -14,7 +14,7 @@ import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
 
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
 import static cz.cvut.fel.pjv.utils.Constants.MenuConstants.MENU;
@@ -46,7 +46,7 @@ public class DeathState {
     public DeathState(GameView gameView, String message) {
         this.message = message;
         primarystage = gameView.getStage();
-        Image image = LoadImage(MENU);
+        Image image = getImage(MENU);
         VBox vbox = new VBox(20);
         StackPane stackPane = new StackPane();
         BorderPane borderPane = new BorderPane();
@@ -23,7 +23,7 @@ import static cz.cvut.fel.pjv.Main.startGameLoop;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
 import static cz.cvut.fel.pjv.utils.Constants.MenuConstants.*;
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
 
 import cz.cvut.fel.pjv.view.GameView;
 
@@ -48,7 +48,7 @@ public class MenuState {
      * @param gameView used for setting the scene
      */
     public MenuState(GameView gameView) {
-        Image image = LoadImage(MENU);
+        Image image = getImage(MENU);
         Font font = LoadFont("transamericabold.ttf", 70);
 
         VBox vbox = new VBox(20);
@@ -184,8 +184,8 @@ public class MenuState {
         int offsetDOWN = WINDOW_WIDTH / 2 - 350;
         int offsetLEFT = WINDOW_HEIGHT / 2 - 250;
         int offsetRIGHT = WINDOW_HEIGHT / 2 - 270;
-        Image playerOne = LoadImage(PLAYER_IMAGE1);
-        Image playerTwo = LoadImage(PLAYER_IMAGE2);
+        Image playerOne = getImage(PLAYER_IMAGE1);
+        Image playerTwo = getImage(PLAYER_IMAGE2);
 
         ImageView imageViewOne = new ImageView(playerOne);
         imageViewOne.setFitHeight(300);
@@ -14,7 +14,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
 import static cz.cvut.fel.pjv.utils.Constants.MenuConstants.MENU;
 import static cz.cvut.fel.pjv.utils.LoadFiles.LoadFont;
 import static cz.cvut.fel.pjv.Main.stopGameLoop;
@@ -42,7 +42,7 @@ public class PauseState {
      */
     public PauseState(GameView gameView) {
         Stage stage = gameView.getStage();
-        Image image = LoadImage(MENU);
+        Image image = getImage(MENU);
         VBox vbox = new VBox(20);
         StackPane stackPane = new StackPane();
         BorderPane borderPane = new BorderPane();
@@ -118,8 +118,8 @@ public class PauseState {
 
         menuSavebutton.setOnAction(e -> {
             States.currentState = States.MENU;
+            stopGameLoop(); // the simulation must not run while saving
             gameView.getGameSave().saveGame();
-            stopGameLoop();
             stage.setScene(gameView.getMenuState().getScene());
         });
     }
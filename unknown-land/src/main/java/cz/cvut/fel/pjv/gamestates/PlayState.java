@@ -5,8 +5,18 @@ import static cz.cvut.fel.pjv.utils.Constants.GameConstants.PLANET1_WIDTH;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.PLAYER_START_X;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.PLAYER_START_Y;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.PREFETCH_DISTANCE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_DUNGEON_ENTRANCE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_DUNGEON_EXIT;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.RENDER_QUEUE_CAPACITY;
+import static cz.cvut.fel.pjv.utils.Constants.ParticleConstants.AMBIENT_INTERVAL;
+import static cz.cvut.fel.pjv.utils.Constants.ParticleConstants.MAX_PARTICLES;
 
 import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -30,13 +40,20 @@ import cz.cvut.fel.pjv.map.LoadMaps;
 import cz.cvut.fel.pjv.map.Map;
 import cz.cvut.fel.pjv.time.GameTime;
 import cz.cvut.fel.pjv.time.MapBrightness;
+import cz.cvut.fel.pjv.time.TimerWheel;
+import cz.cvut.fel.pjv.utils.AssetCache;
 import cz.cvut.fel.pjv.utils.Collision;
+import cz.cvut.fel.pjv.utils.InputEvent;
 import cz.cvut.fel.pjv.utils.LoadedFiles;
 import cz.cvut.fel.pjv.utils.PlayerDirection;
+import cz.cvut.fel.pjv.utils.TriggerZones;
 import cz.cvut.fel.pjv.view.Camera;
 import cz.cvut.fel.pjv.view.GameView;
 import javafx.scene.Scene;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
+import cz.cvut.fel.pjv.view.ParticleEmitter;
+import cz.cvut.fel.pjv.view.ParticleSystem;
+import cz.cvut.fel.pjv.view.RenderQueue;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
 
@@ -58,6 +75,7 @@ public class PlayState {
     private Player player;
     private GameView gameView;
     private Collision collision;
+    private TriggerZones triggerZones;
     private int level;
     private PlayerCoords playerCoords;
     private HealthBar healthBar;
@@ -68,26 +86,35 @@ public class PlayState {
     private Merchant merchant;
     private LoadedFiles loadedFiles;
     private GameTime gameTime;
+    private TimerWheel timerWheel;
     private EnemyManager enemyManager;
     private Shop shop;
     private CoinManager coinManager;
     private SpaceShip spaceShip;
     private MapBrightness mapBrightness;
     private Quests quests;
+    private RenderQueue renderQueue;
+    private ParticleSystem particles;
+    private PlayingStates particlesState; // map the particles belong to
+    private Random random;
     private Logger log;
     private HashSet<KeyCode> pressedKeys;
+    private ConcurrentLinkedQueue<InputEvent> inputQueue;
 
     /**
      * Constructor for the PlayState class.
      * 
      * @param gameView used for setting the scene
+     * @param loadMaps maps of the game
      */
-    public PlayState(GameView gameView) {
+    public PlayState(GameView gameView, LoadMaps loadMaps) {
         this.gameView = gameView;
-        gameTime = new GameTime();
-        loadMaps = new LoadMaps();
+        this.loadMaps = loadMaps;
         pressedKeys = new HashSet<>();
+        inputQueue = new ConcurrentLinkedQueue<>();
         loadedFiles = new LoadedFiles();
+        renderQueue = new RenderQueue(RENDER_QUEUE_CAPACITY);
+        random = new Random();
 
         initClasses();
         keyboardHandle();
@@ -99,100 +126,244 @@ public class PlayState {
 
     private void initClasses() {
         level = 1;
+        gameTime = new GameTime(); // new game, new time and nothing scheduled
         gameTime.setTime(8, 0, "AM");
+        timerWheel = new TimerWheel(); // cooldowns of the old game are dropped with it
+        particles = new ParticleSystem(MAX_PARTICLES); // before the enemies, they emit into it
+        if (enemyManager != null) {
+            enemyManager.dispose(); // spritesheets of the old game are given back
+        }
 
         PlayingStates.currentState = PlayingStates.PLANET1;
         Levels.currentLevel = Levels.LEVEL1;
 
-        collision = new Collision(this);
+        collision = new Collision();
         player = new Player(PLAYER_START_X, PLAYER_START_Y, this);
         camera = new Camera(player);
-        map = new Map(camera);
+        map = new Map(loadMaps.getLVLImage());
         enemyManager = new EnemyManager(this, gameTime);
-        healthBar = new HealthBar(camera, player);
-        coinManager = new CoinManager(camera);
-        spaceShip = new SpaceShip(this, player, camera);
+        healthBar = new HealthBar(player);
+        coinManager = new CoinManager();
+        spaceShip = new SpaceShip(this, camera);
         inventory = new Inventory(this, spaceShip);
-        merchant = new Merchant(inventory, player, 11 * TILE_SIZE, 650);
+        merchant = new Merchant(inventory, 11 * TILE_SIZE, 650);
         itemManager = new ItemManager(this, inventory);
         inventoryManager = new InventoryManager(this, inventory, itemManager, spaceShip);
         shop = new Shop(this, merchant, inventoryManager, coinManager);
-        mapBrightness = new MapBrightness(player, gameTime);
-        quests = new Quests(camera);
+        mapBrightness = new MapBrightness(player, camera, inventory, collision, enemyManager.getNecromancer(),
+                gameTime);
+        quests = new Quests();
+        initTriggers();
+    }
+
+    /**
+     * Dungeon doors and the areas around the merchant and the spaceship.
+     */
+    private void initTriggers() {
+        triggerZones = new TriggerZones();
+        triggerZones.addTileTrigger(TILE_DUNGEON_ENTRANCE, this::enterDungeon);
+        triggerZones.addTileTrigger(TILE_DUNGEON_EXIT, this::exitDungeon);
+        triggerZones.addAreaTrigger(PlayingStates.PLANET1, merchant.getHitbox(),
+                () -> merchant.setPlayerNear(true), () -> merchant.setPlayerNear(false));
+        triggerZones.addAreaTrigger(PlayingStates.PLANET1, spaceShip.getInteractHitbox(),
+                () -> spaceShip.setPlayerNear(true), () -> spaceShip.setPlayerNear(false));
+        triggerZones.addAreaTrigger(PlayingStates.PLANET2, spaceShip.getInteractHitbox(),
+                () -> spaceShip.setPlayerNear(true), () -> spaceShip.setPlayerNear(false));
     }
 
     /**
      * Updating everything in the game.
+     * Called once per simulation tick, the game loop takes care
+     * of calling it at a fixed rate.
      */
     public void update() {
+        processInput();
+        timerWheel.update();
+        gameTime.update();
         checkGameState();
         camera.update();
         updatePlayerKeys();
+        updateTimeKeys();
         mapBrightness.update();
         updateStates(pressedKeys);
+        triggerZones.update(collision.getCollisionMap(), player.getX(), player.getY());
+        updateParticles();
         healthBar.update();
         inventoryManager.update(pressedKeys);
         shop.update(pressedKeys);
     }
 
     /**
-     * Rendering everything in the game.
+     * Rendering everything in the game into one painter.
      * We use gc.save() and gc.restore() to save and restore the original state of
-     * the GraphicsContext
+     * the painter
      * because we are modifying it in the camera.render() method. We are moving the
      * canvas with the camera.
+     * Moving things are drawn between their last two tick positions.
+     * Used when the frame is recorded, GameView draws the layers separately otherwise.
      * 
      * @param gc
+     * @param alpha how far we are between the last tick and the next one
      */
-    public void render(GraphicsContext gc) {
+    public void render(Painter gc, double alpha) {
         gc.save(); // saves current state, important for camera movement - gc.translate(-cameraX,
                    // -cameraY)
 
-        camera.render(gc); // moving the camera
-        map.render(gc); // drawing the whole map
-        itemManager.render(gc); // drawing the items
-        renderStates(gc); // drawing depending on the state
+        camera.render(gc, alpha); // moving the camera
+        map.render(gc, camera.getX(), camera.getY(), WINDOW_WIDTH, WINDOW_HEIGHT); // drawing the visible map
+        renderSprites(gc, alpha);
+
+        gc.restore(); // restores the state saved by gc.save() but the settings in xxxx.render() are
+                      // still modified
+
+        renderHud(gc);
+    }
+
+    /**
+     * Rendering the ground of the world layer.
+     * Only the map, it changes only when the camera moves far or the map is switched.
+     * 
+     * @param gc     painter already moved to world coordinates
+     * @param x      left edge of the area in the world
+     * @param y      top edge of the area in the world
+     * @param width  width of the area
+     * @param height height of the area
+     */
+    public void renderGround(Painter gc, double x, double y, double width, double height) {
+        map.render(gc, x, y, width, height);
+    }
+
+    /**
+     * Rendering everything that moves - items, entities, darkness and windows.
+     * Drawn every frame over the ground.
+     * 
+     * @param gc
+     * @param alpha how far we are between the last tick and the next one
+     */
+    public void renderWorld(Painter gc, double alpha) {
+        gc.save();
+        camera.render(gc, alpha); // moving the camera
+        renderSprites(gc, alpha);
+        gc.restore();
+    }
+
+    /**
+     * Rendering the HUD in screen coordinates.
+     * 
+     * @param gc
+     */
+    public void renderHud(Painter gc) {
         healthBar.render(gc); // drawing the health bar
         coinManager.render(gc); // drawing the coins
-        gameTime.render(gc, camera); // drawing the time
+        gameTime.render(gc); // drawing the time
         quests.render(gc); // drawing the quests
+        inventoryManager.render(gc); // drawing the inventory
+    }
 
-        gc.restore(); // restores the state saved by gc.save() but the settings in xxxx.render() are
-                      // still modified
+    /**
+     * Checking if anything on the HUD would look different than the last time.
+     * 
+     * @return true if the HUD has to be drawn again
+     */
+    public boolean isHudChanged() {
+        return healthBar.isChanged() || coinManager.isChanged() || gameTime.isChanged() || quests.isChanged()
+                || inventoryManager.isChanged();
+    }
+
+    /**
+     * Updating the particles.
+     * Particles belong to the map they were emitted on, they are removed
+     * when the map changes. The dungeon has dust floating around and the lava
+     * planet has embers rising, emitted somewhere in the view of the camera.
+     */
+    private void updateParticles() {
+        if (particlesState != PlayingStates.currentState) {
+            particles.clear();
+            particlesState = PlayingStates.currentState;
+        }
+        if (timerWheel.getTick() % AMBIENT_INTERVAL == 0) {
+            ParticleEmitter ambience = null;
+            if (PlayingStates.currentState == PlayingStates.DUNGEON1) {
+                ambience = ParticleEmitter.DUST;
+            } else if (PlayingStates.currentState == PlayingStates.PLANET2) {
+                ambience = ParticleEmitter.EMBERS;
+            }
+            if (ambience != null) {
+                ambience.emit(particles, camera.getX() + random.nextDouble() * WINDOW_WIDTH,
+                        camera.getY() + random.nextDouble() * WINDOW_HEIGHT);
+            }
+        }
+        particles.update();
+    }
+
+    /**
+     * Drawing all particles in one pass over the sprites.
+     * 
+     * @param gc    used to draw on the canvas
+     * @param alpha how far we are between the last tick and the next one
+     */
+    private void renderParticles(Painter gc, double alpha) {
+        particles.render(gc, alpha, camera.getX(), camera.getY(), WINDOW_WIDTH, WINDOW_HEIGHT);
+    }
 
+    /**
+     * Submitting and drawing the sprites of the world, the camera is already moved.
+     * Sprites outside of the camera view are culled by the render queue.
+     * 
+     * @param gc    used to draw on the canvas
+     * @param alpha how far we are between the last tick and the next one
+     */
+    private void renderSprites(Painter gc, double alpha) {
+        renderQueue.setView(camera.getX(), camera.getY(), WINDOW_WIDTH, WINDOW_HEIGHT);
+        itemManager.render(renderQueue); // submitting the items
+        renderStates(gc, alpha); // drawing depending on the state
     }
 
     /**
      * Rendering depending on the state.
      * We avoid rendering everything at once because
-     * it would be too much for the game loop and it would
-     * cause troubles with overlapping.
+     * it would be too much for the game loop.
+     * Sprites are submitted to the render queue and drawn sorted by y when it's
+     * flushed, so they overlap correctly. Darkness, texts and windows are drawn
+     * after that.
      * 
      * @param gc
+     * @param alpha how far we are between the last tick and the next one
      */
-    private void renderStates(GraphicsContext gc) {
+    private void renderStates(Painter gc, double alpha) {
         switch (PlayingStates.currentState) {
             case PLANET1:
-                merchant.render(gc); // drawing the merchant
-                player.render(gc); // drawing the player
-                mapBrightness.render(gc); // drawing the map brightness
-                spaceShip.render(gc); // drawing the spaceship
-                inventoryManager.render(gc); // drawing the inventory
+                merchant.render(renderQueue); // submitting the merchant
+                player.render(renderQueue, alpha); // submitting the player
+                spaceShip.render(renderQueue); // submitting the spaceship
+                renderQueue.flush(gc); // drawing all sprites
+                mapBrightness.render(gc, alpha); // drawing the map brightness
+                merchant.renderClue(gc);
+                spaceShip.renderNavigation(gc);
+                inventoryManager.renderBackground(gc, camera.getX(), camera.getY()); // darkening behind the inventory
                 shop.render(gc);
                 break;
             case DUNGEON1:
-                player.render(gc); // drawing the player
-                enemyManager.render(gc); // drawing the enemies
-                mapBrightness.render(gc); // drawing the map brightness
-                inventoryManager.render(gc); // drawing the inventory
+                player.render(renderQueue, alpha); // submitting the player
+                enemyManager.render(renderQueue, alpha); // submitting the enemies
+                renderQueue.flush(gc); // drawing all sprites
+                renderParticles(gc, alpha);
+                mapBrightness.render(gc, alpha); // drawing the map brightness
+                inventoryManager.renderBackground(gc, camera.getX(), camera.getY()); // darkening behind the inventory
                 break;
             case PLANET2:
-                player.render(gc); // drawing the player
-                enemyManager.renderNecromancer(gc);
-                spaceShip.render(gc); // drawing the spaceship
-                inventoryManager.render(gc); // drawing the inventory
+                player.render(renderQueue, alpha); // submitting the player
+                enemyManager.renderNecromancer(renderQueue, alpha);
+                spaceShip.render(renderQueue); // submitting the spaceship
+                renderQueue.flush(gc); // drawing all sprites
+                renderParticles(gc, alpha);
+                mapBrightness.render(gc, alpha); // drawing the map brightness
+                enemyManager.renderNecromancerHealth(gc);
+                spaceShip.renderNavigation(gc);
+                inventoryManager.renderBackground(gc, camera.getX(), camera.getY()); // darkening behind the inventory
                 break;
             default:
+                renderQueue.flush(gc);
                 log.warning("Unknown state");
                 break;
         }
@@ -212,6 +383,7 @@ public class PlayState {
             spaceShip.setENTERpressed(false);
             log.info("Switching to planet");
         }
+        prefetchMaps();
         switch (PlayingStates.currentState) {
             case PLANET1:
                 merchant.update();
@@ -232,23 +404,82 @@ public class PlayState {
         }
     }
 
+    /**
+     * Prefetching the map the player is probably going to next.
+     * Near the spaceship it's the other planet, near the dungeon door it's
+     * the dungeon and near the dungeon exit it's the planet.
+     * The map is loaded in the background, so switching to it doesn't stop the game.
+     */
+    private void prefetchMaps() {
+        switch (PlayingStates.currentState) {
+            case PLANET1:
+                if (spaceShip.isPlayerNear()) {
+                    loadMaps.prefetch(Levels.LEVEL2);
+                }
+                if (collision.isTileNear(player.getX(), player.getY(), PREFETCH_DISTANCE, TILE_DUNGEON_ENTRANCE)) {
+                    loadMaps.prefetch(Levels.currentDungeon);
+                }
+                break;
+            case PLANET2:
+                if (spaceShip.isPlayerNear()) {
+                    loadMaps.prefetch(Levels.LEVEL1);
+                }
+                break;
+            case DUNGEON1:
+                if (collision.isTileNear(player.getX(), player.getY(), PREFETCH_DISTANCE, TILE_DUNGEON_EXIT)) {
+                    loadMaps.prefetch(Levels.currentLevel);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
     /**
      * Handling the keyboard input.
-     * Add the pressed key to the hash set of pressed keys.
+     * Events come on the JavaFX thread, but the game may be simulated on
+     * another thread, so they are only queued here and applied at the start of
+     * the next tick.
      */
     private void keyboardHandle() {
         Scene scene = gameView.getScene();
 
         scene.setOnKeyPressed(e -> {
-            pressedKeys.add(e.getCode());
+            inputQueue.add(InputEvent.keyPressed(e.getCode()));
         });
 
         scene.setOnKeyReleased(e -> {
-            pressedKeys.remove(e.getCode());
+            inputQueue.add(InputEvent.keyReleased(e.getCode()));
         });
 
     }
 
+    /**
+     * Applying the queued input events in the order they came.
+     * Pressed keys are added to the hash set of pressed keys, released keys are
+     * removed. If the left mouse button was clicked, the player attacks.
+     */
+    private void processInput() {
+        InputEvent event;
+        while ((event = inputQueue.poll()) != null) {
+            switch (event.getType()) {
+                case KEY_PRESSED:
+                    pressedKeys.add(event.getKey());
+                    break;
+                case KEY_RELEASED:
+                    pressedKeys.remove(event.getKey());
+                    break;
+                case MOUSE_CLICKED:
+                    if (event.getButton() == MouseButton.PRIMARY) {
+                        player.setAttack(true);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     /**
      * Updating the player direction depending on the pressed keys.
      * Also handle the ESCAPE key for the pause state.
@@ -273,16 +504,35 @@ public class PlayState {
         }
     }
 
+    /**
+     * Changing how fast the game time goes.
+     * F1 stops the time, F2 is the normal speed, F3 is 10 times and F4 1000 times faster.
+     * Keys are removed after use, so holding them doesn't set the speed every tick.
+     */
+    private void updateTimeKeys() {
+        if (pressedKeys.contains(KeyCode.F1)) {
+            gameTime.setTimeScale(0);
+            pressedKeys.remove(KeyCode.F1);
+        } else if (pressedKeys.contains(KeyCode.F2)) {
+            gameTime.setTimeScale(1);
+            pressedKeys.remove(KeyCode.F2);
+        } else if (pressedKeys.contains(KeyCode.F3)) {
+            gameTime.setTimeScale(10);
+            pressedKeys.remove(KeyCode.F3);
+        } else if (pressedKeys.contains(KeyCode.F4)) {
+            gameTime.setTimeScale(1000);
+            pressedKeys.remove(KeyCode.F4);
+        }
+    }
+
     /**
      * Handling the mouse input.
-     * If the left mouse button is clicked, the player attacks.
+     * Clicks are queued the same way as keys.
      */
     public void mouseHandle() {
         Scene scene = gameView.getScene();
         scene.setOnMouseClicked(event -> {
-            if (event.getButton() == MouseButton.PRIMARY) {
-                player.setAttack(true);
-            }
+            inputQueue.add(InputEvent.mouseClicked(event.getButton()));
         });
     }
 
@@ -303,6 +553,7 @@ public class PlayState {
         checkLevel(level);
         map.setMap(loadMaps.getLVLImage());
         collision.setCollisionMap(loadMaps.getLVLCollision());
+        AssetCache.releaseUnused();
         player.setTeleported(true);
         player.resetPosition(playerCoords.getxEnter(), playerCoords.getyEnter());
         spaceShip.setShipPos(playerCoords.getxEnter() - 200, playerCoords.getyEnter() - 100);
@@ -322,6 +573,7 @@ public class PlayState {
         checkDungeon(level);
         map.setMap(loadMaps.getDungeonImage());
         collision.setCollisionMap(loadMaps.getDungeonCollision());
+        player.setTeleported(true); // the door position of the old map is not kept
         player.resetPosition(playerCoords.getxEnter(), playerCoords.getyEnter());
         camera.resetBorders(collision.getWidth(), collision.getHeight());
         itemManager.setSpawningItems();
@@ -339,6 +591,7 @@ public class PlayState {
         checkLevel(level);
         map.setMap(loadMaps.getLVLImage());
         collision.setCollisionMap(loadMaps.getLVLCollision());
+        player.setTeleported(true);
         player.resetPosition(playerCoords.getxExit(), playerCoords.getyExit());
         camera.resetBorders(PLANET1_WIDTH, PLANET1_HEIGHT);
     }
@@ -391,6 +644,14 @@ public class PlayState {
         return gameTime;
     }
 
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    public ParticleSystem getParticles() {
+        return particles;
+    }
+
     public void setLevel(int level) {
         this.level = level;
     }
@@ -6,7 +6,7 @@ import static cz.cvut.fel.pjv.gamestates.MenuState.setImageOnBackground;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
 import static cz.cvut.fel.pjv.utils.Constants.MenuConstants.MENU;
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
 import static cz.cvut.fel.pjv.utils.LoadFiles.LoadFont;
 
 import cz.cvut.fel.pjv.view.GameView;
@@ -43,7 +43,7 @@ public class SettingsState {
      */
     public SettingsState(GameView gameView) {
         primarystage = gameView.getStage();
-        Image image = LoadImage(MENU);
+        Image image = getImage(MENU);
         VBox vbox = new VBox(20);
         VBox vboxText = new VBox(10);
         StackPane stackPane = new StackPane();
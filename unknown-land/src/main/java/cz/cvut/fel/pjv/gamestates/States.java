@@ -15,6 +15,7 @@ public enum States {
     WIN,
     SETTINGS;
 
-    public static States currentState = MENU;
-    public static States previousState = MENU;
+    // volatile, the simulation thread and the JavaFX thread both switch states
+    public static volatile States currentState = MENU;
+    public static volatile States previousState = MENU;
 }
@@ -1,6 +1,6 @@
 package cz.cvut.fel.pjv.items;
 
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
@@ -61,7 +61,7 @@ public abstract class Food extends Item {
      * @param tileX x coordinate where the number will be displayed
      * @param tileY y coordinate where the number will be displayed
      */
-    public void drawQuantity(GraphicsContext gc, float tileX, float tileY) {
+    public void drawQuantity(Painter gc, float tileX, float tileY) {
         gc.setFont(new Font("Verdana", 10));
         gc.setFill(Color.WHITE);
         gc.fillText("x" + quantity, tileX + slotOffX, tileY + slotOffY);
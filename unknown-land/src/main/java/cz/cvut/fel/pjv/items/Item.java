@@ -2,14 +2,16 @@ package cz.cvut.fel.pjv.items;
 
 import static cz.cvut.fel.pjv.utils.Constants.ItemConstants.FOOD;
 import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.PLAYER_MAX_HEALTH;
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.LAYER_GROUND;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import cz.cvut.fel.pjv.entities.Player;
 import cz.cvut.fel.pjv.features.Inventory;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.utils.AssetCache;
+import cz.cvut.fel.pjv.view.Painter;
+import cz.cvut.fel.pjv.view.RenderQueue;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
@@ -56,7 +58,7 @@ public abstract class Item {
         this.healing = healing;
         this.tileX = tileX;
         this.tileY = tileY;
-        this.image = LoadImage(imageName);
+        this.image = AssetCache.getImage(imageName); // shared by all items with this image
         this.width = width;
         this.height = height;
         this.itemRect = new Rectangle(tileX, tileY, width, height);
@@ -72,12 +74,14 @@ public abstract class Item {
 
     /**
      * If the item is not picked up, render it on the ground.
+     * Items on the ground don't overlap, so they all have the same sort key
+     * and the same images are drawn together.
      * 
-     * @param gc
+     * @param queue where the sprite is submitted
      */
-    public void render(GraphicsContext gc) {
+    public void render(RenderQueue queue) {
         if (!isPickedUP) {
-            gc.drawImage(image, tileX, tileY, width, height);
+            queue.submit(image, tileX, tileY, width, height, LAYER_GROUND, 0);
         }
     }
 
@@ -90,7 +94,7 @@ public abstract class Item {
      * @param x  x coordinate where the description will be displayed
      * @param y  y coordinate where the description will be displayed
      */
-    public void renderDescription(GraphicsContext gc, double x, double y) {
+    public void renderDescription(Painter gc, double x, double y) {
         drawBox(gc, x, y);
         gc.setFont(Font.font("Verdana", FontWeight.BOLD, 17));
         if (itemType == 1) {
@@ -109,7 +113,7 @@ public abstract class Item {
      * @param x  x coordinate where the box will be displayed
      * @param y  y coordinate where the box will be displayed
      */
-    private void drawBox(GraphicsContext gc, double x, double y) {
+    private void drawBox(Painter gc, double x, double y) {
         double placementX = x - 10;
         double placementY = y - 20;
         gc.setFill(Color.rgb(182, 182, 182, 0.7));
@@ -4,14 +4,22 @@ import cz.cvut.fel.pjv.entities.Player;
 import cz.cvut.fel.pjv.features.Inventory;
 import cz.cvut.fel.pjv.gamestates.PlayState;
 import cz.cvut.fel.pjv.gamestates.PlayingStates;
+import cz.cvut.fel.pjv.time.Cooldown;
 import cz.cvut.fel.pjv.utils.Collision;
+import cz.cvut.fel.pjv.utils.SpatialGrid;
+import cz.cvut.fel.pjv.utils.TileGrid;
 import cz.cvut.fel.pjv.utils.Vector2D;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.RenderQueue;
 import javafx.scene.shape.Rectangle;
 
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILES_IN_WIDTH;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WORLD_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WORLD_WIDTH;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.CULL_CELL_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.CULL_MARGIN;
 import static cz.cvut.fel.pjv.utils.Constants.ItemConstants.ITEM_PIX_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.ItemConstants.ITEM_PIX_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.ItemConstants.PICK_UP_CANDIDATES;
 import static cz.cvut.fel.pjv.utils.Constants.ItemConstants.SWORD_PIX_SIZE;
 
 import java.util.ArrayList;
@@ -27,6 +35,8 @@ import java.util.logging.Logger;
  * This class spawns items in the world and
  * keep track of them. That means that they render
  * items depending on the current state of the game.
+ * Items on the ground are kept in a SpatialGrid for rendering, it's built
+ * again only when the list of items on the ground changes.
  * 
  * @see Item
  * @see Inventory
@@ -35,11 +45,16 @@ import java.util.logging.Logger;
  */
 public class ItemManager {
     private int itemsAmount, minAmount, maxAmount;
-    private int delay, pickUpTimer;
+    private int delay;
+    private Cooldown pickUpTimer;
     private Player player;
     private Rectangle playerHitbox;
     private Random random;
     private ArrayList<Item> itemList, planet1ItemList, itemsOnGround, planet2ItemList;
+    private ArrayList<Item> gridItems, visibleItems; // list the item grid was built from, items around the view
+    private ArrayList<Item> nearItems; // items around the player
+    private SpatialGrid<Item> itemGrid;
+    private boolean itemGridChanged;
     private Set<Vector2D> usedCoords;
     private int candyRate, breadRate, ballRate, burgerRate,
             cookieRate, panRate, teddybearRate, radioRate, mapRate, flashlightRate,
@@ -72,12 +87,16 @@ public class ItemManager {
         itemList = new ArrayList<>();
         planet1ItemList = new ArrayList<>();
         planet2ItemList = new ArrayList<>();
+        visibleItems = new ArrayList<>();
+        nearItems = new ArrayList<>();
+        itemGrid = new SpatialGrid<>(WORLD_WIDTH, WORLD_HEIGHT, CULL_CELL_SIZE);
+        itemGridChanged = true;
 
         minAmount = 20;
         maxAmount = 30;
 
         delay = 60;
-        pickUpTimer = delay;
+        pickUpTimer = playState.getTimerWheel().createCooldown(); // can pick up right away
 
         log = Logger.getLogger(ItemManager.class.getName());
         log.setLevel(Level.INFO);
@@ -85,19 +104,50 @@ public class ItemManager {
     }
 
     /**
-     * Update method for the ItemManager class.
-     * Renders items on the ground depending on the current state of the game.
+     * Renders items on the ground around the view of the camera
+     * depending on the current state of the game.
+     * The rest of the items is counted as culled.
      * 
-     * @param gc
+     * @param queue where the sprites are submitted
      */
-    public void render(GraphicsContext gc) {
-        pickUpTimer++;
+    public void render(RenderQueue queue) {
         switchItemList();
+        updateItemGrid();
+
+        visibleItems.clear();
+        itemGrid.query(queue.getViewX() - CULL_MARGIN, queue.getViewY() - CULL_MARGIN,
+                queue.getViewWidth() + 2 * CULL_MARGIN, queue.getViewHeight() + 2 * CULL_MARGIN, visibleItems);
+        queue.addCulled(itemGrid.size() - visibleItems.size());
+        for (Item item : visibleItems) {
+            item.render(queue);
+        }
+
+    }
 
+    /**
+     * Build the item grid again if the items on the ground were changed from
+     * outside or the list of the map changed.
+     * Items on the ground don't move, picked up and dropped items are
+     * removed from and added to the grid right away.
+     */
+    private void updateItemGrid() {
+        if (!itemGridChanged && gridItems == itemsOnGround && itemGrid.size() == itemsOnGround.size()) {
+            return;
+        }
+        itemGrid.clear();
         for (Item item : itemsOnGround) {
-            item.render(gc);
+            itemGrid.move(item, item.getX(), item.getY());
         }
+        gridItems = itemsOnGround;
+        itemGridChanged = false;
+    }
 
+    /**
+     * Build the item grid again before the next render,
+     * used when the lists of items are changed from outside (loading a game).
+     */
+    public void invalidateItemGrid() {
+        itemGridChanged = true;
     }
 
     /**
@@ -129,6 +179,7 @@ public class ItemManager {
         if (!dungeonEntered) { // for the first time, spawn items only once;
             itemsAmount = random.nextInt(maxAmount - minAmount + 1) + minAmount; // + 1 to include maxAmount
             spawnItem();
+            itemGridChanged = true;
 
             dungeonEntered = true;
             playState.getQuests().increaseQuestNumber();
@@ -149,10 +200,11 @@ public class ItemManager {
      */
     private void spawnItem() {
         setSpawnRates();
+        TileGrid tiles = collision.getCollisionMap(); // items are spawned in the current map
         int itemCounter = 0;
         while (itemCounter < itemsAmount) {
-            int x = random.nextInt(TILES_IN_WIDTH);
-            int y = random.nextInt(TILES_IN_WIDTH);
+            int x = random.nextInt(tiles.getColumns());
+            int y = random.nextInt(tiles.getRows());
             Vector2D coords = new Vector2D(x, y);
             if (usedCoords.contains(coords)) {
                 continue; // skip iteration if the coords are already used
@@ -279,14 +331,33 @@ public class ItemManager {
      * @return true if the player collides with the item, false otherwise
      */
     public boolean checkItemCollision() {
-        playerHitbox = player.getHitbox();
         switchItemList();
-        for (Item item : itemsOnGround) {
+        return findItemUnderPlayer() != null;
+    }
+
+    /**
+     * Find the item the player stands on, the nearest one if there are more.
+     * The item grid gives the PICK_UP_CANDIDATES items nearest to the middle
+     * of the player, nearest first. Items are kept by their corner, so the
+     * point is moved by half of an item and the reach is grown by the biggest
+     * item (SWORD_PIX_SIZE).
+     * 
+     * @return the item, null if there is none
+     */
+    private Item findItemUnderPlayer() {
+        updateItemGrid();
+        playerHitbox = player.getHitbox();
+        double x = playerHitbox.getX() + playerHitbox.getWidth() / 2 - ITEM_PIX_SIZE / 2;
+        double y = playerHitbox.getY() + playerHitbox.getHeight() / 2 - ITEM_PIX_SIZE / 2;
+        double reach = Math.hypot(playerHitbox.getWidth() + SWORD_PIX_SIZE, playerHitbox.getHeight() + SWORD_PIX_SIZE);
+        nearItems.clear();
+        itemGrid.nearest(x, y, PICK_UP_CANDIDATES, reach, nearItems);
+        for (Item item : nearItems) {
             if (item.getItemRect().getBoundsInParent().intersects(playerHitbox.getBoundsInParent())) {
-                return true;
+                return item;
             }
         }
-        return false;
+        return null;
     }
 
     /**
@@ -298,18 +369,12 @@ public class ItemManager {
     public void pickUpItem() {
         switchItemList();
 
-        if (pickUpTimer <= delay) {
+        if (!pickUpTimer.isReady()) {
             return;
         }
-        playerHitbox = player.getHitbox();
-        for (Item item : itemsOnGround) {
-            if (item.getItemRect().getBoundsInParent().intersects(playerHitbox.getBoundsInParent())) {
-                if (!isFoodAddable(item)) {
-                    return;
-                }
-                isItemAddable(item);
-                break; // stop searching for item after one is picked up
-            }
+        Item item = findItemUnderPlayer();
+        if (item != null && isFoodAddable(item)) {
+            isItemAddable(item);
         }
     }
 
@@ -334,6 +399,7 @@ public class ItemManager {
                     item.pickUP();
                     food.increaseQuantity();
                     itemsOnGround.remove(item);
+                    itemGrid.remove(item);
                     log.info("Item picked up and added to inventory to stack.");
                     ret = false;
                     break;
@@ -355,7 +421,8 @@ public class ItemManager {
             inventory.addItem(item);
             item.pickUP();
             itemsOnGround.remove(item);
-            pickUpTimer = 0;
+            itemGrid.remove(item);
+            pickUpTimer.start(delay);
             log.info("Item picked up and added to inventory.");
         } else {
             log.info("Inventory is full.");
@@ -370,8 +437,10 @@ public class ItemManager {
      */
     public void addItem(Item item) {
         switchItemList();
+        updateItemGrid();
         itemsOnGround.add(item);
         item.drop();
+        itemGrid.move(item, item.getX(), item.getY());
 
     }
 
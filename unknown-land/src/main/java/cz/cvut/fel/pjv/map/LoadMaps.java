@@ -1,98 +1,228 @@
 package cz.cvut.fel.pjv.map;
 
-import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import cz.cvut.fel.pjv.levels.Levels;
+import cz.cvut.fel.pjv.utils.TileGrid;
 
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
 import static cz.cvut.fel.pjv.utils.LoadFiles.*;
 import static cz.cvut.fel.pjv.utils.Constants.MapConstants.*;
 
-import javafx.scene.image.Image;
-
 /**
  * Load maps and their collision from txt files.
- * Load it only once to save memory.
- * This class is used only to store maps and their collision.
- * 
+ * Maps are loaded only when they are needed, not all at once.
+ * Loaded maps are kept in a LRU cache with a memory budget (LEVEL_CACHE_BUDGET),
+ * when it's full the map that wasn't used the longest is thrown away.
+ * When the player gets close to a way into another map (spaceship, dungeon door),
+ * the map is prefetched on a background thread, so switching maps doesn't stop the game.
+ * The starting map is loaded with the other assets behind the loading screen (AssetLoader).
+ * A prefetch that fails is thrown out of the cache, so the map is loaded again next time.
+ * Every map is kept as one TileAtlas, not as an image per tile.
+ *
  * @author Son Ngoc Tran
  */
 public class LoadMaps {
 
-    private ArrayList<ArrayList<Integer>> level1txt, level2txt, dungeon1txt;
-    private Image[][] level1, level2, dungeon1;
+    private LinkedHashMap<Levels, CompletableFuture<LevelData>> cache;
+    private ExecutorService loader;
+    private Logger log;
+
+    /**
+     * Loaded map and its collision.
+     */
+    private static class LevelData {
+        private TileAtlas atlas;
+        private TileGrid collision;
+        private long bytes; // roughly how much memory the map takes
+    }
 
     /**
      * Constructor of the LoadMaps class.
-     * Load maps PNG and their collision from txt files.
+     * Nothing is loaded yet, maps are loaded when they are first asked for.
      */
     public LoadMaps() {
-        level1txt = LoadTxt(LVL1_COLLISION);
-        level2txt = LoadTxt(LVL2_COLLISION);
-        dungeon1txt = LoadTxt(LVL1_DUNGEON_COLLISION);
-        level1 = LoadSubImages(LVL1_MAP, TILE_SIZE);
-        level2 = LoadSubImages(LVL2_MAP, TILE_SIZE);
-        dungeon1 = LoadSubImages(LVL1_DUNGEON, TILE_SIZE);
+        cache = new LinkedHashMap<>(8, 0.75f, true); // access order - eldest is the least recently used
+        loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "map-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log = Logger.getLogger(LoadMaps.class.getName());
+        log.setLevel(Level.INFO);
     }
 
     /**
-     * Get images of the current level.
-     * 
-     * @return 2D array of images
+     * Start loading the map in the background if it's not loaded yet.
+     *
+     * @param level map that will probably be needed soon
      */
-    public Image[][] getLVLImage() {
-        switch (Levels.currentLevel) {
-            case LEVEL1:
-                return level1;
-            case LEVEL2:
-                return level2;
-            default:
-                return null;
+    public synchronized void prefetch(Levels level) {
+        if (!cache.containsKey(level)) {
+            log.info("Prefetching " + level);
+            CompletableFuture<LevelData> future = CompletableFuture.supplyAsync(() -> loadLevel(level), loader);
+            cache.put(level, future);
+            future.whenComplete((data, error) -> {
+                if (error != null) {
+                    log.warning("Prefetching " + level + " failed: " + error.getMessage());
+                    forget(level, future);
+                }
+            });
         }
     }
 
+    /**
+     * Load the map on the calling thread and keep it in the cache.
+     * Used by the AssetLoader for the starting map, so it's not decoded on the
+     * JavaFX thread when the game starts.
+     *
+     * @param level which map
+     */
+    public void preload(Levels level) {
+        get(level);
+    }
+
+    /**
+     * Get images of the current level.
+     *
+     * @return atlas of the level
+     */
+    public TileAtlas getLVLImage() {
+        return get(Levels.currentLevel).atlas;
+    }
+
     /**
      * Get collision of the current level.
-     * 
-     * @return 2D array of integers
+     *
+     * @return collision map
      */
-    public ArrayList<ArrayList<Integer>> getLVLCollision() {
-        switch (Levels.currentLevel) {
-            case LEVEL1:
-                return level1txt;
-            case LEVEL2:
-                return level2txt;
-            default:
-                return null;
-        }
+    public TileGrid getLVLCollision() {
+        return get(Levels.currentLevel).collision;
     }
 
     /**
      * Get images of the current dungeon.
-     * 
-     * @return 2D array of images
+     *
+     * @return atlas of the dungeon
      */
-    public Image[][] getDungeonImage() {
-        switch (Levels.currentDungeon) {
-            case DUNGEON1:
-                return dungeon1;
-            default:
-                return null;
-        }
+    public TileAtlas getDungeonImage() {
+        return get(Levels.currentDungeon).atlas;
     }
 
     /**
      * Get collision of the current dungeon.
-     * 
-     * @return 2D array of integers
+     *
+     * @return collision map
+     */
+    public TileGrid getDungeonCollision() {
+        return get(Levels.currentDungeon).collision;
+    }
+
+    /**
+     * Get the map from the cache.
+     * If it's not there, it's loaded right away, if it's being prefetched,
+     * we wait only for the rest of the loading. If the prefetch failed,
+     * the map is loaded again right away.
+     *
+     * @param level which map
+     * @return loaded map
+     */
+    private LevelData get(Levels level) {
+        CompletableFuture<LevelData> future;
+        synchronized (this) {
+            future = cache.get(level);
+            if (future == null) {
+                future = CompletableFuture.completedFuture(loadLevel(level));
+                cache.put(level, future);
+            }
+        }
+        LevelData data;
+        try {
+            data = future.join();
+        } catch (CompletionException e) {
+            forget(level, future);
+            return get(level);
+        }
+        trim(level);
+        return data;
+    }
+
+    /**
+     * Throw the failed map out of the cache, unless it was already replaced.
      */
-    public ArrayList<ArrayList<Integer>> getDungeonCollision() {
-        switch (Levels.currentDungeon) {
+    private synchronized void forget(Levels level, CompletableFuture<LevelData> future) {
+        cache.remove(level, future);
+    }
+
+    /**
+     * Throw away the least recently used maps until the cache fits the budget.
+     * The map that is just used and maps that are still loading stay.
+     *
+     * @param keep map that is used right now
+     */
+    private synchronized void trim(Levels keep) {
+        long total = 0;
+        for (CompletableFuture<LevelData> future : cache.values()) {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                total += future.join().bytes;
+            }
+        }
+        Iterator<java.util.Map.Entry<Levels, CompletableFuture<LevelData>>> iterator = cache.entrySet().iterator();
+        while (total > LEVEL_CACHE_BUDGET && iterator.hasNext()) {
+            java.util.Map.Entry<Levels, CompletableFuture<LevelData>> entry = iterator.next();
+            CompletableFuture<LevelData> future = entry.getValue();
+            if (entry.getKey() == keep || !future.isDone()) {
+                continue;
+            }
+            if (!future.isCompletedExceptionally()) {
+                total -= future.join().bytes;
+            }
+            iterator.remove();
+            log.info("Evicted " + entry.getKey() + " from the map cache");
+        }
+    }
+
+    /**
+     * Load the map PNG and its collision from the txt file.
+     *
+     * @param level which map
+     * @return loaded map
+     */
+    private LevelData loadLevel(Levels level) {
+        long start = System.nanoTime();
+        LevelData data = new LevelData();
+        switch (level) {
+            case LEVEL1:
+                data.atlas = new TileAtlas(LVL1_MAP, TILE_SIZE);
+                data.collision = LoadTxt(LVL1_COLLISION);
+                break;
+            case LEVEL2:
+                data.atlas = new TileAtlas(LVL2_MAP, TILE_SIZE);
+                data.collision = LoadTxt(LVL2_COLLISION);
+                break;
             case DUNGEON1:
-                return dungeon1txt;
+                data.atlas = new TileAtlas(LVL1_DUNGEON, TILE_SIZE);
+                data.collision = LoadTxt(LVL1_DUNGEON_COLLISION);
+                break;
             default:
-                return null;
+                log.warning("Unknown level " + level);
+                return data;
         }
+        // 4 bytes per pixel of the sheet and of the decoded unique tiles, 4 per tile index
+        // and 1 per collision tile
+        long cells = (long) data.atlas.getRows() * data.atlas.getCols();
+        data.bytes = (long) (data.atlas.getSheet().getWidth() * data.atlas.getSheet().getHeight() * 4)
+                + (long) data.atlas.getUniqueTiles() * TILE_SIZE * TILE_SIZE * 4 + cells * 4
+                + data.collision.getBytes();
+        log.info("Loaded " + level + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return data;
     }
 
 }
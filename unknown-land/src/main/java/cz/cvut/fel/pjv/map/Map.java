@@ -1,66 +1,148 @@
 package cz.cvut.fel.pjv.map;
 
-import cz.cvut.fel.pjv.utils.LoadFiles;
-import cz.cvut.fel.pjv.view.Camera;
-import javafx.scene.canvas.GraphicsContext;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.PIXEL_BUFFER_MAP;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.THREADED_SIMULATION;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
-import static cz.cvut.fel.pjv.utils.Constants.MapConstants.LVL1_MAP;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.CHUNK_TILES;
 
 /**
  * Class for the Map.
  * It is used to render the map.
+ * The map doesn't change while playing, so the tiles are put together
+ * into bigger chunks (CHUNK_TILES x CHUNK_TILES tiles) and only the chunks
+ * in the drawn area are drawn - a few draws per frame instead of one per tile.
+ * Chunks are made the first time they are visible and thrown away when the map changes.
+ * With PIXEL_BUFFER_MAP the TileRasterizer is used instead, it copies the tiles
+ * into one image itself. Average render time of every map is logged when
+ * the map changes, so both ways can be compared.
+ * @see TileRasterizer
  * 
  * @author Son Ngoc Tran
  */
 public class Map {
 
-    private Image map[][];
-    private Camera camera;
+    private static final int CHUNK_SIZE = CHUNK_TILES * TILE_SIZE; // size of a chunk in pixels
+
+    private TileAtlas map;
+    private Image chunks[][];
+    private TileRasterizer rasterizer; // null when chunks are used
+    private long renderNanos;
+    private int renderCount;
+    private int version; // changes with every setMap, so layers know the map is different
+    private Logger log;
 
     /**
      * Constructor for the Map class.
      * 
-     * @param camera to get the position of the camera
+     * @param map tiles of the starting map, already loaded in LoadMaps
      */
-    public Map(Camera camera) {
-        this.camera = camera;
-        map = LoadFiles.LoadSubImages(LVL1_MAP, TILE_SIZE);
-
+    public Map(TileAtlas map) {
+        log = Logger.getLogger(Map.class.getName());
+        log.setLevel(Level.INFO);
+        if (PIXEL_BUFFER_MAP && !THREADED_SIMULATION) {
+            rasterizer = new TileRasterizer(map); // PixelBuffer can only be updated on the JavaFX thread
+        }
+        setMap(map);
     }
 
     /**
      * Render the map.
-     * Render only the part of the map that is visible on the screen
-     * (the part that is inside the window).
+     * Render only the chunks that are inside the area
+     * (the window or the ground layer around it).
+     * Visible chunks are computed straight from the area.
      * 
      * @param gc
+     * @param x      left edge of the area in the world
+     * @param y      top edge of the area in the world
+     * @param width  width of the area, at most the size of the ground layer
+     * @param height height of the area, at most the size of the ground layer
      */
-    public void render(GraphicsContext gc) {
-        double x, y;
-        for (int j = 0; j < map.length; j++) {
-            for (int i = 0; i < map[j].length; i++) {
-                x = i * TILE_SIZE;
-                y = j * TILE_SIZE;
+    public void render(Painter gc, double x, double y, double width, double height) {
+        long start = System.nanoTime();
+        if (rasterizer != null) {
+            rasterizer.render(gc, x, y);
+        } else {
+            renderChunks(gc, x, y, width, height);
+        }
+        renderNanos += System.nanoTime() - start;
+        renderCount++;
+    }
 
-                /*
-                 * render only part of the map that is visible on the screen,
-                 * + tileSize so the last row and column are rendered too
-                 * + checking if the map is being rendered outside the window
-                 */
-                if (x + TILE_SIZE >= camera.getX() && y + TILE_SIZE >= camera.getY()
-                        && x <= camera.getX() + WINDOW_WIDTH && y <= camera.getY() + WINDOW_HEIGHT) {
-                    gc.drawImage(map[j][i], x, y, TILE_SIZE, TILE_SIZE);
+    private void renderChunks(Painter gc, double x, double y, double width, double height) {
+        if (chunks.length == 0) {
+            return;
+        }
+        int firstCol = Math.max(0, (int) Math.floor(x / CHUNK_SIZE));
+        int firstRow = Math.max(0, (int) Math.floor(y / CHUNK_SIZE));
+        int lastCol = Math.min(chunks[0].length - 1, (int) Math.floor((x + width) / CHUNK_SIZE));
+        int lastRow = Math.min(chunks.length - 1, (int) Math.floor((y + height) / CHUNK_SIZE));
+
+        for (int j = firstRow; j <= lastRow; j++) {
+            for (int i = firstCol; i <= lastCol; i++) {
+                if (chunks[j][i] == null) {
+                    chunks[j][i] = createChunk(i, j);
                 }
+                gc.drawImage(chunks[j][i], i * CHUNK_SIZE, j * CHUNK_SIZE);
             }
         }
     }
 
-    public void setMap(Image[][] map) {
+    /**
+     * Set new map, chunks of the old map are thrown away.
+     * 
+     * @param map tiles of the new map
+     */
+    public void setMap(TileAtlas map) {
+        if (renderCount > 0) {
+            log.info("Map rendered in " + renderNanos / renderCount / 1000 + " us on average ("
+                    + (rasterizer != null ? "PixelBuffer" : "chunks") + ", " + renderCount + " frames)");
+            renderNanos = 0;
+            renderCount = 0;
+        }
         this.map = map;
+        version++;
+        if (rasterizer != null) {
+            rasterizer.setMap(map);
+        }
+        int rows = (map.getRows() + CHUNK_TILES - 1) / CHUNK_TILES;
+        int cols = (map.getCols() + CHUNK_TILES - 1) / CHUNK_TILES;
+        chunks = new Image[rows][cols];
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Put the tiles of one chunk together into one image.
+     * Chunks at the edge of the map can be smaller.
+     * 
+     * @param col column of the chunk
+     * @param row row of the chunk
+     * @return image of the chunk
+     */
+    private Image createChunk(int col, int row) {
+        int firstTileX = col * CHUNK_TILES;
+        int firstTileY = row * CHUNK_TILES;
+        int tilesY = Math.min(CHUNK_TILES, map.getRows() - firstTileY);
+        int tilesX = Math.min(CHUNK_TILES, map.getCols() - firstTileX);
+
+        WritableImage chunk = new WritableImage(tilesX * TILE_SIZE, tilesY * TILE_SIZE);
+        PixelWriter writer = chunk.getPixelWriter();
+        for (int j = 0; j < tilesY; j++) {
+            for (int i = 0; i < tilesX; i++) {
+                map.writeTile(writer, firstTileY + j, firstTileX + i, i * TILE_SIZE, j * TILE_SIZE);
+            }
+        }
+        return chunk;
     }
 
 }
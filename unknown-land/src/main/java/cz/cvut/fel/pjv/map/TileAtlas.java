@@ -0,0 +1,151 @@
+package cz.cvut.fel.pjv.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import cz.cvut.fel.pjv.utils.LoadFiles;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+
+/**
+ * Class for the TileAtlas.
+ * Keeps the whole map sheet as one image and a grid of tile indexes
+ * instead of a separate image for every tile.
+ * Tiles that look the same (same pixels) get the same index,
+ * every index remembers where its tile is in the sheet.
+ * Pixels of the unique tiles are also kept decoded in one int array
+ * (premultiplied ARGB), so they can be copied straight into a PixelBuffer.
+ * @see TileRasterizer
+ *
+ * @author Son Ngoc Tran
+ */
+public class TileAtlas {
+
+    private Image sheet;
+    private int tileSize;
+    private int[][] grid;
+    private int[] tileX, tileY; // position of every unique tile in the sheet
+    private int[] tilePixels; // pixels of all unique tiles, one after another
+
+    /**
+     * Constructor for the TileAtlas.
+     * Load the sheet and find all unique tiles in it.
+     *
+     * @param path     path to the map sheet
+     * @param tileSize size of one tile in pixels
+     */
+    public TileAtlas(String path, int tileSize) {
+        this.tileSize = tileSize;
+        sheet = LoadFiles.LoadImage(path);
+        initGrid();
+    }
+
+    /**
+     * Go through all tiles of the sheet and give them indexes.
+     * Tiles are compared by the hash of their pixels first
+     * and only the ones with the same hash are compared pixel by pixel.
+     */
+    private void initGrid() {
+        PixelReader reader = sheet.getPixelReader();
+        int cols = (int) sheet.getWidth() / tileSize;
+        int rows = (int) sheet.getHeight() / tileSize;
+        grid = new int[rows][cols];
+
+        HashMap<Integer, ArrayList<Integer>> indexesByHash = new HashMap<>();
+        ArrayList<int[]> uniquePixels = new ArrayList<>();
+        ArrayList<Integer> xs = new ArrayList<>();
+        ArrayList<Integer> ys = new ArrayList<>();
+
+        for (int j = 0; j < rows; j++) {
+            for (int i = 0; i < cols; i++) {
+                int[] pixels = new int[tileSize * tileSize];
+                reader.getPixels(i * tileSize, j * tileSize, tileSize, tileSize,
+                        PixelFormat.getIntArgbPreInstance(), pixels, 0, tileSize);
+                int hash = Arrays.hashCode(pixels);
+
+                ArrayList<Integer> sameHash = indexesByHash.computeIfAbsent(hash, h -> new ArrayList<>());
+                int index = -1;
+                for (int candidate : sameHash) {
+                    if (Arrays.equals(uniquePixels.get(candidate), pixels)) {
+                        index = candidate;
+                        break;
+                    }
+                }
+                if (index == -1) {
+                    index = uniquePixels.size();
+                    uniquePixels.add(pixels);
+                    xs.add(i * tileSize);
+                    ys.add(j * tileSize);
+                    sameHash.add(index);
+                }
+                grid[j][i] = index;
+            }
+        }
+
+        tileX = xs.stream().mapToInt(Integer::intValue).toArray();
+        tileY = ys.stream().mapToInt(Integer::intValue).toArray();
+        int tileLength = tileSize * tileSize;
+        tilePixels = new int[uniquePixels.size() * tileLength];
+        for (int index = 0; index < uniquePixels.size(); index++) {
+            System.arraycopy(uniquePixels.get(index), 0, tilePixels, index * tileLength, tileLength);
+        }
+    }
+
+    /**
+     * Copy pixels of the tile into an image.
+     *
+     * @param writer where the tile is copied
+     * @param row    row of the tile in the map
+     * @param col    column of the tile in the map
+     * @param x      x position in the target image
+     * @param y      y position in the target image
+     */
+    public void writeTile(PixelWriter writer, int row, int col, int x, int y) {
+        int index = grid[row][col];
+        writer.setPixels(x, y, tileSize, tileSize, sheet.getPixelReader(), tileX[index], tileY[index]);
+    }
+
+    /**
+     * Copy pixels of the tile into an int array, row by row.
+     *
+     * @param target pixels of the target image (premultiplied ARGB)
+     * @param stride width of the target image
+     * @param row    row of the tile in the map
+     * @param col    column of the tile in the map
+     * @param x      x position in the target image
+     * @param y      y position in the target image
+     */
+    public void blitTile(int[] target, int stride, int row, int col, int x, int y) {
+        int from = grid[row][col] * tileSize * tileSize;
+        int to = y * stride + x;
+        for (int j = 0; j < tileSize; j++) {
+            System.arraycopy(tilePixels, from, target, to, tileSize);
+            from += tileSize;
+            to += stride;
+        }
+    }
+
+    public int getRows() {
+        return grid.length;
+    }
+
+    public int getCols() {
+        return grid.length == 0 ? 0 : grid[0].length;
+    }
+
+    public int getTile(int row, int col) {
+        return grid[row][col];
+    }
+
+    public int getUniqueTiles() {
+        return tileX.length;
+    }
+
+    public Image getSheet() {
+        return sheet;
+    }
+
+}
@@ -0,0 +1,167 @@
+package cz.cvut.fel.pjv.map;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import cz.cvut.fel.pjv.view.Painter;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.GROUND_MARGIN;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
+
+/**
+ * Class for the TileRasterizer.
+ * Other way of drawing the map than the chunks in Map - tiles are copied
+ * straight from the decoded TileAtlas into an int array that is shared with
+ * the image through a PixelBuffer, and the whole visible part of the map
+ * is then drawn as one image.
+ * The image is a bit bigger than the ground layer and aligned to the tiles.
+ * When the camera moves by a tile, the pixels are shifted by whole rows and
+ * columns and only the tiles that came into view are copied.
+ * The image is given to JavaFX again only when the camera moved by a tile
+ * or the map changed, tiles of a map never change on their own.
+ * Has to be used on the JavaFX thread.
+ * @see Map
+ *
+ * @author Son Ngoc Tran
+ */
+public class TileRasterizer {
+
+    private static final int COLS = (WINDOW_WIDTH + 2 * GROUND_MARGIN) / TILE_SIZE + 2;
+    private static final int ROWS = (WINDOW_HEIGHT + 2 * GROUND_MARGIN) / TILE_SIZE + 2;
+    private static final int WIDTH = COLS * TILE_SIZE;
+    private static final int HEIGHT = ROWS * TILE_SIZE;
+
+    private TileAtlas map;
+    private int[] pixels;
+    private PixelBuffer<IntBuffer> buffer;
+    private WritableImage image;
+    private int originCol, originRow; // tile in the top left corner of the image
+    private boolean valid;
+    private boolean changed; // pixels changed since they were given to JavaFX
+
+    /**
+     * Constructor for the TileRasterizer.
+     *
+     * @param map tiles of the starting map
+     */
+    public TileRasterizer(TileAtlas map) {
+        pixels = new int[WIDTH * HEIGHT];
+        buffer = new PixelBuffer<>(WIDTH, HEIGHT, IntBuffer.wrap(pixels), PixelFormat.getIntArgbPreInstance());
+        image = new WritableImage(buffer);
+        setMap(map);
+    }
+
+    /**
+     * Draw the visible part of the map.
+     *
+     * @param gc
+     * @param cameraX left edge of the drawn area in the world
+     * @param cameraY top edge of the drawn area in the world
+     */
+    public void render(Painter gc, double cameraX, double cameraY) {
+        int firstCol = (int) Math.floor(cameraX / TILE_SIZE);
+        int firstRow = (int) Math.floor(cameraY / TILE_SIZE);
+        int shiftCols = firstCol - originCol;
+        int shiftRows = firstRow - originRow;
+
+        if (!valid || Math.abs(shiftCols) >= COLS || Math.abs(shiftRows) >= ROWS) {
+            originCol = firstCol;
+            originRow = firstRow;
+            redrawAll();
+            valid = true;
+        } else if (shiftCols != 0 || shiftRows != 0) {
+            originCol = firstCol;
+            originRow = firstRow;
+            scroll(shiftCols, shiftRows);
+        }
+
+        if (changed) {
+            buffer.updateBuffer(b -> null); // null - the whole image
+            changed = false;
+        }
+        gc.drawImage(image, originCol * TILE_SIZE, originRow * TILE_SIZE);
+    }
+
+    /**
+     * Set new map, everything is copied again on the next render.
+     *
+     * @param map tiles of the new map
+     */
+    public void setMap(TileAtlas map) {
+        this.map = map;
+        valid = false;
+    }
+
+    private void redrawAll() {
+        for (int j = 0; j < ROWS; j++) {
+            for (int i = 0; i < COLS; i++) {
+                copyTile(i, j);
+            }
+        }
+        changed = true;
+    }
+
+    /**
+     * Move the pixels by whole tiles and copy the tiles that came into view.
+     * The new pixel at (x, y) is the old pixel at (x + shiftX, y + shiftY).
+     *
+     * @param shiftCols how many columns the camera moved (negative to the left)
+     * @param shiftRows how many rows the camera moved (negative up)
+     */
+    private void scroll(int shiftCols, int shiftRows) {
+        int shiftX = shiftCols * TILE_SIZE;
+        int shiftY = shiftRows * TILE_SIZE;
+        int fromX = Math.max(0, shiftX);
+        int toX = Math.max(0, -shiftX);
+        int length = WIDTH - Math.abs(shiftX);
+        // go against the shift so rows are not overwritten before they are moved
+        if (shiftY >= 0) {
+            for (int y = 0; y < HEIGHT - shiftY; y++) {
+                System.arraycopy(pixels, (y + shiftY) * WIDTH + fromX, pixels, y * WIDTH + toX, length);
+            }
+        } else {
+            for (int y = HEIGHT - 1; y >= -shiftY; y--) {
+                System.arraycopy(pixels, (y + shiftY) * WIDTH + fromX, pixels, y * WIDTH + toX, length);
+            }
+        }
+
+        int firstNewCol = shiftCols > 0 ? COLS - shiftCols : 0;
+        int lastNewCol = shiftCols > 0 ? COLS - 1 : -shiftCols - 1;
+        int firstNewRow = shiftRows > 0 ? ROWS - shiftRows : 0;
+        int lastNewRow = shiftRows > 0 ? ROWS - 1 : -shiftRows - 1;
+        for (int j = 0; j < ROWS; j++) {
+            boolean newRow = shiftRows != 0 && j >= firstNewRow && j <= lastNewRow;
+            for (int i = 0; i < COLS; i++) {
+                if (newRow || (shiftCols != 0 && i >= firstNewCol && i <= lastNewCol)) {
+                    copyTile(i, j);
+                }
+            }
+        }
+        changed = true; // everything moved
+    }
+
+    /**
+     * Copy the tile into its place in the image, outside of the map it's transparent.
+     *
+     * @param i column in the image
+     * @param j row in the image
+     */
+    private void copyTile(int i, int j) {
+        int row = originRow + j;
+        int col = originCol + i;
+        if (row >= 0 && row < map.getRows() && col >= 0 && col < map.getCols()) {
+            map.blitTile(pixels, WIDTH, row, col, i * TILE_SIZE, j * TILE_SIZE);
+        } else {
+            int start = j * TILE_SIZE * WIDTH + i * TILE_SIZE;
+            for (int y = 0; y < TILE_SIZE; y++) {
+                Arrays.fill(pixels, start + y * WIDTH, start + y * WIDTH + TILE_SIZE, 0);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package cz.cvut.fel.pjv.time;
+
+/**
+ * Class for the Cooldown.
+ * Time in simulation ticks during which something can't happen again
+ * (attacking, getting hit, picking up items...).
+ * Instead of counting ticks itself, the cooldown is put into the TimerWheel
+ * which sets it ready when the time is up.
+ * @see TimerWheel
+ *
+ * @author Son Ngoc Tran
+ */
+public class Cooldown {
+
+    private final TimerWheel wheel;
+
+    // managed by the TimerWheel
+    volatile boolean ready;
+    boolean scheduled;
+    long endTick;
+    Cooldown prev, next;
+
+    /**
+     * Constructor for the Cooldown.
+     * Use TimerWheel.createCooldown().
+     *
+     * @param wheel wheel that counts the ticks
+     */
+    Cooldown(TimerWheel wheel) {
+        this.wheel = wheel;
+        ready = true;
+    }
+
+    /**
+     * Start the cooldown, it's ready again after the given amount of ticks.
+     * Starting a running cooldown starts it over.
+     *
+     * @param ticks how long the cooldown takes, 0 or less means ready right away
+     */
+    public void start(int ticks) {
+        if (ticks <= 0) {
+            finish();
+        } else {
+            wheel.schedule(this, ticks);
+        }
+    }
+
+    /**
+     * End the cooldown right away.
+     */
+    public void finish() {
+        wheel.finish(this);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+}
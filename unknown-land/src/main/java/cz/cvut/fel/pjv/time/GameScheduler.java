@@ -0,0 +1,105 @@
+package cz.cvut.fel.pjv.time;
+
+import java.util.PriorityQueue;
+
+/**
+ * Class for the GameScheduler.
+ * Runs events at given game minutes.
+ * Systems register what should happen and when (enemy spawns,
+ * day/night changes...) instead of checking the time every tick.
+ * Events are kept in a priority queue ordered by the minute they are due,
+ * so a tick only looks at the events that are due.
+ * It's moved forward by the GameTime.
+ * @see GameTime
+ * @see ScheduledEvent
+ *
+ * @author Son Ngoc Tran
+ */
+public class GameScheduler {
+
+    private PriorityQueue<ScheduledEvent> events;
+    private long order;
+
+    /**
+     * Constructor for the GameScheduler.
+     */
+    public GameScheduler() {
+        events = new PriorityQueue<>();
+        order = 0;
+    }
+
+    /**
+     * Run the event once at the given game minute.
+     *
+     * @param dueMinute game minute when the event runs
+     * @param action    what happens
+     * @return the event, can be used to cancel it
+     */
+    public ScheduledEvent schedule(long dueMinute, Runnable action) {
+        return add(new ScheduledEvent(dueMinute, 0, order++, action));
+    }
+
+    /**
+     * Run the event at the given game minute and then every period minutes.
+     *
+     * @param dueMinute     game minute of the first run
+     * @param periodMinutes minutes between runs, at least 1
+     * @param action        what happens
+     * @return the event, can be used to cancel it
+     */
+    public ScheduledEvent scheduleRepeating(long dueMinute, long periodMinutes, Runnable action) {
+        if (periodMinutes <= 0) {
+            throw new IllegalArgumentException("Period has to be at least 1 minute");
+        }
+        return add(new ScheduledEvent(dueMinute, periodMinutes, order++, action));
+    }
+
+    /**
+     * Run every event that is due.
+     * If the time jumped more than one period of a repeating event,
+     * the event runs for every period it missed.
+     *
+     * @param currentMinute current game minute
+     */
+    public void runDue(long currentMinute) {
+        while (!events.isEmpty() && events.peek().getDueMinute() <= currentMinute) {
+            ScheduledEvent event = events.poll();
+            if (event.isCancelled()) {
+                continue;
+            }
+            event.run();
+            if (event.isRepeating() && !event.isCancelled()) {
+                event.reschedule(order++);
+                events.add(event);
+            }
+        }
+    }
+
+    /**
+     * Move all events by the given amount of minutes.
+     * Used when the game time is set, so the events stay
+     * the same amount of time away.
+     * Order of the events doesn't change, so the queue stays valid.
+     *
+     * @param minutes how much the time was moved
+     */
+    public void shift(long minutes) {
+        for (ScheduledEvent event : events) {
+            event.shift(minutes);
+        }
+    }
+
+    public void clear() {
+        events.clear();
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    private ScheduledEvent add(ScheduledEvent event) {
+        events.add(event);
+        return event;
+    }
+
+}
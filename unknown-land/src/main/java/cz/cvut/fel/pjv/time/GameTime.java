@@ -1,94 +1,89 @@
 package cz.cvut.fel.pjv.time;
 
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TICKS_PER_GAME_MINUTE;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TIME_SCALE;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
 
 import cz.cvut.fel.pjv.utils.Vector2D;
-import cz.cvut.fel.pjv.view.Camera;
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.HudWidget;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
 /**
  * Class for the GameTime.
- * It is used to render the time in the game.
- * It's a thread to keep track of the time in the game.
+ * It is used to keep track of the time in the game and render it.
  * Time of the game is its own time, not the real time.
+ * It is moved forward by the simulation ticks, one game minute every
+ * TICKS_PER_GAME_MINUTE ticks multiplied by the time scale, so it stops
+ * when the game is paused and can be fast-forwarded.
+ * Internally the time is just the number of game minutes since midnight
+ * of the first day, hours and AM/PM are calculated from it.
+ * Things that should happen at some game time are scheduled
+ * in the GameScheduler, which is run after every time update.
+ * @see GameScheduler
  * 
  * @author Son Ngoc Tran
  */
-public class GameTime implements Runnable {
+public class GameTime {
 
-    private int minutes, hours, clockWidth, clockHeight;
-    private boolean running;
-    private Thread thread;
-    private String dayCycle;
+    private static final int MINUTES_IN_HOUR = 60;
+    private static final int MINUTES_IN_DAY = 24 * MINUTES_IN_HOUR;
+
+    private long gameMinutes;
+    private int tickCounter, timeScale, clockWidth, clockHeight;
     private Vector2D clockOffset;
+    private GameScheduler scheduler;
+    private HudWidget clock;
 
     /**
      * Constructor for the GameTime class.
      * Initialize the time to 0:00 AM.
-     * Start the thread.
      */
     public GameTime() {
-        minutes = 0;
-        hours = 0;
-        dayCycle = "AM";
-        running = true;
+        gameMinutes = 0;
+        tickCounter = 0;
+        timeScale = TIME_SCALE;
         clockWidth = 100;
         clockHeight = 40;
         clockOffset = new Vector2D(WINDOW_WIDTH - 120, 20);
-        thread = new Thread(this); // new thread for time
-        thread.start();
+        scheduler = new GameScheduler();
+        clock = new HudWidget();
     }
 
     /**
-     * Run method for the thread.
-     * Every 200ms the minutes are increased by 1.
-     * If minutes reach 60, they are set to 0 and hours are increased by 1.
-     * If hours reach 12, the day cycle is changed from AM to PM or vice versa.
+     * Move the time by one simulation tick.
+     * Every TICKS_PER_GAME_MINUTE ticks one game minute passes,
+     * time scale makes every tick count that many times.
+     * Events that became due are run.
      */
-    @Override
-    public void run() {
-        while (running) {
-            try {
-                Thread.sleep(200);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-            minutes++;
-            if (minutes == 60) {
-                minutes = 0;
-                hours++;
-            }
-            if (hours == 12) {
-                if (dayCycle.equals("AM")) {
-                    dayCycle = "PM";
-                } else {
-                    dayCycle = "AM";
-                }
-                hours = 1;
-            }
-
+    public void update() {
+        tickCounter += timeScale;
+        if (tickCounter >= TICKS_PER_GAME_MINUTE) {
+            gameMinutes += tickCounter / TICKS_PER_GAME_MINUTE;
+            tickCounter %= TICKS_PER_GAME_MINUTE;
+            scheduler.runDue(gameMinutes);
         }
     }
 
-    /**
-     * Stop the time.
-     */
-    public void stopTime() {
-        running = false;
-    }
-
     /**
      * Render the time on the screen.
+     * Drawn in screen coordinates, recorded again only when a minute passes.
      * 
      * @param gc
-     * @param camera used for positioning the time on the screen
      */
-    public void render(GraphicsContext gc, Camera camera) {
-        double placementX = camera.getX() + clockOffset.getX();
-        double placementY = camera.getY() + clockOffset.getY();
+    public void render(Painter gc) {
+        clock.render(gc, gameMinutes, this::drawClock);
+    }
+
+    public boolean isChanged() {
+        return !clock.isCurrent(gameMinutes);
+    }
+
+    private void drawClock(Painter gc) {
+        double placementX = clockOffset.getX();
+        double placementY = clockOffset.getY();
 
         gc.setFill(Color.rgb(182, 182, 182, 0.7));
         gc.fillRect(placementX, placementY, clockWidth, clockHeight);
@@ -107,8 +102,8 @@ public class GameTime implements Runnable {
      * @param placementX
      * @param placementY
      */
-    private void drawTime(GraphicsContext gc, double placementX, double placementY) {
-        String time = String.format("%02d:%02d %s", hours, minutes, dayCycle);
+    private void drawTime(Painter gc, double placementX, double placementY) {
+        String time = String.format("%02d:%02d %s", getHours(), getMinutes(), getDayCycle());
         gc.setFont(Font.font("Arial", FontWeight.BOLD, 20));
         gc.setFill(Color.BLACK);
         gc.fillText(time, placementX + 7, placementY + 28);
@@ -116,30 +111,93 @@ public class GameTime implements Runnable {
 
     /**
      * Set the time if needed.
+     * Used when starting a new game or loading a save,
+     * the time is set to the given time of the first day.
+     * Scheduled events are moved with the time, so they stay
+     * the same amount of time away.
      * 
-     * @param hours
-     * @param minutes
-     * @param dayCycle
+     * @param hours    0-12
+     * @param minutes  0-59
+     * @param dayCycle AM or PM
      */
     public void setTime(int hours, int minutes, String dayCycle) {
-        if (hours >= 0 && hours <= 12 && minutes >= 0 && minutes <= 60) {
-            this.hours = hours;
-            this.minutes = minutes;
-            this.dayCycle = dayCycle;
+        if (hours >= 0 && hours <= 12 && minutes >= 0 && minutes < MINUTES_IN_HOUR) {
+            int hourOfDay = hours % 12 + (dayCycle.equals("PM") ? 12 : 0);
+            long newMinutes = hourOfDay * MINUTES_IN_HOUR + minutes;
+            scheduler.shift(newMinutes - gameMinutes);
+            gameMinutes = newMinutes;
+            tickCounter = 0;
         }
 
     }
 
+    /**
+     * Set how fast the time goes.
+     * 0 stops the time, 1 is the normal speed, 10 is 10 times faster and so on.
+     * 
+     * @param timeScale game minutes per TICKS_PER_GAME_MINUTE ticks
+     */
+    public void setTimeScale(int timeScale) {
+        if (timeScale >= 0) {
+            this.timeScale = timeScale;
+        }
+    }
+
+    public GameScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public int getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Game minutes since the start of the first day.
+     * It goes up with the time, only setTime can move it (also backwards),
+     * the GameScheduler is shifted with it, so scheduled things stay the
+     * same amount of time away.
+     * 
+     * @return number of game minutes
+     */
+    public long getGameMinutes() {
+        return gameMinutes;
+    }
+
+    /**
+     * Game minute when the hour the given amount of hours from now starts.
+     * 
+     * @param hoursFromNow 0 is the current hour
+     * @return game minute at the full hour
+     */
+    public long getHourStart(int hoursFromNow) {
+        return (gameMinutes / MINUTES_IN_HOUR + hoursFromNow) * MINUTES_IN_HOUR;
+    }
+
+    /**
+     * Hour of the day in 24 hour format.
+     * 
+     * @return 0-23
+     */
+    public int getHourOfDay() {
+        return (int) (gameMinutes % MINUTES_IN_DAY / MINUTES_IN_HOUR);
+    }
+
+    /**
+     * Hour on the 12 hour clock, noon and midnight are 12.
+     * 
+     * @return 1-12
+     */
     public int getHours() {
-        return hours;
+        int hours = getHourOfDay() % 12;
+        return hours == 0 ? 12 : hours;
     }
 
     public int getMinutes() {
-        return minutes;
+        return (int) (gameMinutes % MINUTES_IN_HOUR);
     }
 
     public String getDayCycle() {
-        return dayCycle;
+        return getHourOfDay() < 12 ? "AM" : "PM";
     }
 
 }
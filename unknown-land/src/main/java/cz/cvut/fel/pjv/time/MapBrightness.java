@@ -1,206 +1,220 @@
 package cz.cvut.fel.pjv.time;
 
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.MAP_HEIGHT;
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.MAP_WIDTH;
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
-import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
-
+import static cz.cvut.fel.pjv.utils.Constants.LightConstants.DUNGEON_DARKNESS;
+import static cz.cvut.fel.pjv.utils.Constants.LightConstants.FLASHLIGHT_LIGHT_RADIUS;
+import static cz.cvut.fel.pjv.utils.Constants.LightConstants.FLASHLIGHT_REACH;
+import static cz.cvut.fel.pjv.utils.Constants.LightConstants.LAVA_PLANET_DARKNESS;
+import static cz.cvut.fel.pjv.utils.Constants.LightConstants.PLAYER_LIGHT_RADIUS;
+import static cz.cvut.fel.pjv.utils.Constants.LightConstants.SPELL_LIGHT_RADIUS;
+import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.PLAYER_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.PLAYER_WIDTH;
+
+import cz.cvut.fel.pjv.entities.Necromancer;
 import cz.cvut.fel.pjv.entities.Player;
+import cz.cvut.fel.pjv.features.Inventory;
 import cz.cvut.fel.pjv.gamestates.PlayingStates;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
+import cz.cvut.fel.pjv.items.FlashLight;
+import cz.cvut.fel.pjv.items.Item;
+import cz.cvut.fel.pjv.utils.Collision;
+import cz.cvut.fel.pjv.view.Camera;
+import cz.cvut.fel.pjv.view.LightMap;
+import cz.cvut.fel.pjv.view.LightSource;
+import cz.cvut.fel.pjv.view.Painter;
+import cz.cvut.fel.pjv.view.ShadowCaster;
 
 /**
  * Class for the MapBrightness.
  * It is used to render the darkness on the map.
- * The darkness is rendered around the player.
- * The darkness is rendered only on the map.
- * The darkness is rendered only in the PLANET1 state and
- * it depends on the time of the day.
- * The darkness is always in the DUNGEON1 state.
+ * The darkness is drawn through the LightMap from separate light sources -
+ * the player, the flashlight shining in front of the player when it's in the
+ * inventory and the necromancer's spell.
+ * In the dungeon the walls stop the light, the visible part of the map is
+ * computed by the ShadowCaster for every light on its own, from the same
+ * interpolated point the light is drawn at.
+ * In the PLANET1 state the darkness depends on the time of the day.
+ * The darkness is always in the DUNGEON1 state and a lighter one on the lava planet.
  * @see GameTime
+ * @see LightMap
+ * @see LightSource
+ * @see ShadowCaster
  * 
  * @author Son Ngoc Tran
  */
 public class MapBrightness {
 
-    private Rectangle darkZoneTOP, darkZoneBOTTOM, darkZoneLEFT, darkZoneRIGHT, darkZone;
-    private double x, y, opacity, opacityEverywhere, opacityOutside, opacityEverywhereTemp;
+    private double opacity, opacityEverywhere, opacityOutside, opacityEverywhereTemp;
     private Player player;
+    private Camera camera;
+    private Inventory inventory;
     private GameTime gameTime;
-    private int prevHour;
-    private boolean saveHour;
+    private Collision collision;
+    private Necromancer necromancer;
+    private LightMap lightMap;
+    private ShadowCaster shadowCaster;
+    private LightSource playerLight, flashLightBeam, spellLight;
+    private LightSource[] lights;
+    private boolean flashLight, wallsChanged;
 
     /**
      * Constructor for the MapBrightness class.
-     * Create 4 big black rectangles for the darkness around the player.
      * 
-     * @param player   to get the position of the player
-     * @param gameTime to get the time of the day
+     * @param player    to get the position of the player
+     * @param camera    to get the part of the map on the screen
+     * @param inventory to check if the player has the flashlight
+     * @param collision   to get the walls that stop the light
+     * @param necromancer to get the spell that lights up the lava planet
+     * @param gameTime    to get the time of the day
      */
-    public MapBrightness(Player player, GameTime gameTime) {
+    public MapBrightness(Player player, Camera camera, Inventory inventory, Collision collision,
+            Necromancer necromancer, GameTime gameTime) {
         this.player = player;
+        this.camera = camera;
+        this.inventory = inventory;
+        this.collision = collision;
+        this.necromancer = necromancer;
         this.gameTime = gameTime;
-        x = player.getX();
-        y = player.getY();
         opacity = 0.5;
         opacityEverywhere = 0.0;
         opacityOutside = 0.0;
         opacityEverywhereTemp = 0.0;
-        prevHour = 0;
-        saveHour = false;
-
-        darkZoneTOP = new Rectangle();
-        darkZoneBOTTOM = new Rectangle();
-        darkZoneLEFT = new Rectangle();
-        darkZoneRIGHT = new Rectangle();
-        darkZone = new Rectangle();
-
+        flashLight = false;
+        wallsChanged = false;
+        lightMap = new LightMap();
+        shadowCaster = new ShadowCaster();
+        playerLight = new LightSource();
+        flashLightBeam = new LightSource();
+        spellLight = new LightSource();
+        lights = new LightSource[] { playerLight, flashLightBeam, spellLight };
     }
 
     /**
      * Render the darkness on the map.
-     * Opacity of the darkness depends on the time of the day.
+     * Darkness where there is no light is the darkness outside and everywhere together,
+     * in the light only the darkness everywhere stays.
+     * The lights of the player follow the interpolated player.
      * 
      * @param gc
+     * @param alpha how far we are between the last tick and the next one
      */
-    public void render(GraphicsContext gc) {
-        gc.setFill(Color.rgb(0, 0, 0, opacity));
-        gc.fillRect(darkZoneTOP.getX(), darkZoneTOP.getY(), darkZoneTOP.getWidth(), darkZoneTOP.getHeight());
-        gc.fillRect(darkZoneBOTTOM.getX(), darkZoneBOTTOM.getY(), darkZoneBOTTOM.getWidth(),
-                darkZoneBOTTOM.getHeight());
-        gc.fillRect(darkZoneLEFT.getX(), darkZoneLEFT.getY(), darkZoneLEFT.getWidth(), darkZoneLEFT.getHeight());
-        gc.fillRect(darkZoneRIGHT.getX(), darkZoneRIGHT.getY(), darkZoneRIGHT.getWidth(), darkZoneRIGHT.getHeight());
+    public void render(Painter gc, double alpha) {
+        double ambient = 1 - (1 - opacity) * (1 - opacityEverywhere);
+        if (ambient <= 0) {
+            return;
+        }
+        placeLights(alpha);
+        ShadowCaster walls = PlayingStates.currentState == PlayingStates.DUNGEON1 ? shadowCaster : null;
+        lightMap.begin(camera.getX(), camera.getY(), ambient, opacityEverywhere);
+        for (LightSource light : lights) {
+            if (light.isOn()) {
+                light.updatePolygon(walls, wallsChanged);
+                lightMap.addLight(light);
+            }
+        }
+        wallsChanged = false;
+        lightMap.render(gc);
+    }
 
-        gc.setFill(Color.rgb(0, 0, 0, opacityEverywhere));
-        gc.fillRect(darkZone.getX(), darkZone.getY(), darkZone.getWidth(), darkZone.getHeight());
+    /**
+     * Place every light for this frame.
+     * The flashlight shines in the direction the player looks.
+     * The spell lights up the place where it appears.
+     */
+    private void placeLights(double alpha) {
+        double x = player.getRenderX(alpha) + PLAYER_WIDTH / 2;
+        double y = player.getRenderY(alpha) + PLAYER_HEIGHT / 2;
+        playerLight.place(x, y, PLAYER_LIGHT_RADIUS);
+
+        if (flashLight) {
+            switch (player.getDirection()) {
+                case UP:
+                    flashLightBeam.place(x, y - FLASHLIGHT_REACH, FLASHLIGHT_LIGHT_RADIUS);
+                    break;
+                case DOWN:
+                    flashLightBeam.place(x, y + FLASHLIGHT_REACH, FLASHLIGHT_LIGHT_RADIUS);
+                    break;
+                case LEFT:
+                    flashLightBeam.place(x - FLASHLIGHT_REACH, y, FLASHLIGHT_LIGHT_RADIUS);
+                    break;
+                case RIGHT:
+                    flashLightBeam.place(x + FLASHLIGHT_REACH, y, FLASHLIGHT_LIGHT_RADIUS);
+                    break;
+            }
+        } else {
+            flashLightBeam.turnOff();
+        }
 
+        if (PlayingStates.currentState == PlayingStates.PLANET2 && necromancer.isSpellShown()) {
+            spellLight.place(necromancer.getSpellCenterX(), necromancer.getSpellCenterY(), SPELL_LIGHT_RADIUS);
+        } else {
+            spellLight.turnOff();
+        }
     }
 
     /**
-     * Update the position of the darkness around the player.
+     * Update the opacity of the darkness around the player.
      * If the player is in the PLANET1 state, the darkness is rendered around the
      * player and
      * the opacity of the darkness depends on the time of the day.
      * If the player is in the DUNGEON1 state, the darkness is perma rendered around
-     * the player.
+     * the player, on the lava planet it's lighter.
      * We use opacityOutside and opacityEverywhereTemp to keep track of the opacity
      * outside the dungeon. Otherwise the opacity outside wouldn't change when
      * we are inside the dungeon.
      */
     public void update() {
         if (PlayingStates.currentState == PlayingStates.PLANET1) {
-            updatePos();
             updateOpacity();
             opacity = opacityOutside;
             opacityEverywhere = opacityEverywhereTemp;
         } else if (PlayingStates.currentState == PlayingStates.DUNGEON1) {
-            updatePos();
             updateOpacity();
-            opacity = 0.90;
+            opacity = DUNGEON_DARKNESS;
+            opacityEverywhere = 0.0;
+            wallsChanged |= shadowCaster.setWalls(collision.getCollisionMap()); // walls stop the light only here
+        } else if (PlayingStates.currentState == PlayingStates.PLANET2) {
+            updateOpacity();
+            opacity = LAVA_PLANET_DARKNESS;
             opacityEverywhere = 0.0;
         }
-
+        flashLight = hasFlashLight();
     }
 
-    /**
-     * Update the position of the darkness around the player.
-     * The darkness is rendered around the player.
-     */
-    private void updatePos() {
-        x = player.getX();
-        y = player.getY();
-        darkZoneTOP.setX(x - WINDOW_WIDTH / 2 - 300);
-        darkZoneTOP.setY(y - WINDOW_HEIGHT / 2 - 400);
-        darkZoneTOP.setWidth(MAP_WIDTH);
-        darkZoneTOP.setHeight(WINDOW_HEIGHT / 2 + 300);
-
-        darkZoneBOTTOM.setX(x - WINDOW_WIDTH / 2 - 300);
-        darkZoneBOTTOM.setY(y + WINDOW_HEIGHT / 2 - 200);
-        darkZoneBOTTOM.setWidth(MAP_WIDTH);
-        darkZoneBOTTOM.setHeight(WINDOW_HEIGHT);
-
-        darkZoneLEFT.setX(x - WINDOW_WIDTH / 2 - 300);
-        darkZoneLEFT.setY(y - WINDOW_HEIGHT / 2 + WINDOW_HEIGHT / 2 - 100);
-        darkZoneLEFT.setWidth(WINDOW_WIDTH / 2 + 200);
-        darkZoneLEFT.setHeight(WINDOW_HEIGHT / 2 - 100);
-
-        darkZoneRIGHT.setX(x + WINDOW_WIDTH / 2 - 270);
-        darkZoneRIGHT.setY(y - WINDOW_HEIGHT / 2 + WINDOW_HEIGHT / 2 - 100);
-        darkZoneRIGHT.setWidth(WINDOW_WIDTH);
-        darkZoneRIGHT.setHeight(WINDOW_HEIGHT / 2 - 100);
-
-        darkZone.setX(x - WINDOW_WIDTH / 2 - 300);
-        darkZone.setY(y - WINDOW_HEIGHT / 2 - 400);
-        darkZone.setWidth(MAP_WIDTH);
-        darkZone.setHeight(MAP_HEIGHT);
+    private boolean hasFlashLight() {
+        for (Item item : inventory.getInvArray()) {
+            if (item instanceof FlashLight) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Update the opacity of the darkness.
      * The opacity of the darkness depends on the time of the day.
      * This darkness is rendered only in the PLANET1 state.
-     * If the time is between 2AM and 7AM, the opacity of the darkness is decreasing
-     * every hour.
-     * If the time is between 8AM and 12AM, the opacity of the darkness is 0.
-     * If the time is between 2PM and 5PM, the opacity of the darkness is 0.
-     * If the time is between 6PM and 12PM, the opacity of the darkness is
-     * increasing every hour.
+     * If the time is between 6PM and 11PM, the darkness gets darker every hour.
+     * Until 1AM it stays at its darkest.
+     * If the time is between 2AM and 6AM, the darkness gets lighter every hour.
+     * During the rest of the day the opacity of the darkness is 0.
+     * Opacity is calculated from the hour itself, so it's right even when
+     * the time jumps (loading a save, fast-forwarding).
      * We use opacityOutside to keep track of the opacity of the darkness outside
      * because when we are inside the dungeon we set opacity to 0.90.
      */
     private void updateOpacity() {
-        int hours = gameTime.getHours();
-        if (gameTime.getDayCycle().equals("AM")) {
-            if (hours >= 2 && hours <= 7) {
-                saveHours();
-                if (prevHour != hours) {
-                    opacityOutside -= 0.1;
-                    opacityEverywhereTemp -= 0.05;
-                    if (opacityOutside < 0.0) {
-                        opacityOutside = 0.0; // Ensure opacity never goes below 0.0
-                    }
-                    if (opacityEverywhereTemp < 0.0) {
-                        opacityEverywhereTemp = 0.0; // Ensure opacityEverywhere never goes below 0.0
-                    }
-                    saveHour = false;
-                }
-            }
-            if (hours >= 8 && hours <= 12) {
-                opacityOutside = 0.0;
-            }
+        int hour = gameTime.getHourOfDay();
+        int darkHours; // hours of darkening since the evening started
+        if (hour >= 18) {
+            darkHours = hour - 18;
+        } else if (hour <= 1) {
+            darkHours = 5;
+        } else if (hour <= 6) {
+            darkHours = 6 - hour;
         } else {
-            if (hours >= 2 && hours <= 5) {
-                opacityOutside = 0.0;
-            }
-            if (hours >= 6 && hours <= 12) {
-                saveHours();
-                if (prevHour != hours) {
-                    opacityOutside += 0.1;
-                    opacityEverywhereTemp += 0.05;
-                    if (opacityOutside > 1) {
-                        opacityOutside = 1.0; // Ensure opacity never goes above 1.0
-                    }
-                    if (opacityEverywhereTemp > 0.5) {
-                        opacityEverywhereTemp = 0.5; // Ensure opacityEverywhere never goes above 0.5
-                    }
-                    saveHour = false;
-                }
-            }
-        }
-    }
-
-    /**
-     * Save the current hour.
-     * This is used to be compared with the next hour so
-     * we can increase or decrease the opacity of the darkness.
-     */
-    private void saveHours() {
-        if (!saveHour) {
-            prevHour = gameTime.getHours();
-            saveHour = true;
+            darkHours = 0;
         }
+        opacityOutside = darkHours * 0.1;
+        opacityEverywhereTemp = darkHours * 0.05;
     }
 
 }
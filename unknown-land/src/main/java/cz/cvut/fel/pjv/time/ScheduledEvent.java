@@ -0,0 +1,83 @@
+package cz.cvut.fel.pjv.time;
+
+/**
+ * Class for the ScheduledEvent.
+ * Something that should happen at a given game minute,
+ * once or repeatedly every period.
+ * Created by the GameScheduler, can be cancelled before it runs.
+ * @see GameScheduler
+ *
+ * @author Son Ngoc Tran
+ */
+public class ScheduledEvent implements Comparable<ScheduledEvent> {
+
+    private long dueMinute, order;
+    private final long period;
+    private final Runnable action;
+    private boolean cancelled;
+
+    /**
+     * Constructor for the ScheduledEvent.
+     *
+     * @param dueMinute game minute when the event runs
+     * @param period    minutes between runs, 0 if it runs only once
+     * @param order     events due at the same minute run in this order
+     * @param action    what happens
+     */
+    ScheduledEvent(long dueMinute, long period, long order, Runnable action) {
+        this.dueMinute = dueMinute;
+        this.period = period;
+        this.order = order;
+        this.action = action;
+    }
+
+    /**
+     * Events are ordered by the minute they are due,
+     * events due at the same minute keep the order they were scheduled in.
+     */
+    @Override
+    public int compareTo(ScheduledEvent other) {
+        if (dueMinute != other.dueMinute) {
+            return Long.compare(dueMinute, other.dueMinute);
+        }
+        return Long.compare(order, other.order);
+    }
+
+    /**
+     * Stop the event, it won't run anymore.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    void run() {
+        action.run();
+    }
+
+    /**
+     * Move the event to its next run.
+     *
+     * @param order new order among the events due at the same minute
+     */
+    void reschedule(long order) {
+        dueMinute += period;
+        this.order = order;
+    }
+
+    void shift(long minutes) {
+        dueMinute += minutes;
+    }
+
+    public boolean isRepeating() {
+        return period > 0;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getDueMinute() {
+        return dueMinute;
+    }
+
+}
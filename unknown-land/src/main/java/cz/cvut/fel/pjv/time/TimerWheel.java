@@ -0,0 +1,129 @@
+package cz.cvut.fel.pjv.time;
+
+/**
+ * Class for the TimerWheel.
+ * Keeps track of all running cooldowns in the game, counted in simulation ticks.
+ * It's a hashed timer wheel - a ring of slots, a cooldown is put into the slot
+ * of the tick it ends at (modulo the amount of slots). Every tick the wheel moves
+ * by one slot and only the cooldowns in that slot are checked, the ones that
+ * end later (after another round of the wheel) stay there.
+ * So a tick costs only as much as there are cooldowns in one slot and an
+ * entity without running cooldowns costs nothing.
+ * Cooldowns can be started from more threads at once (enemies are updated in
+ * parallel), so adding and removing is synchronized.
+ * @see Cooldown
+ *
+ * @author Son Ngoc Tran
+ */
+public class TimerWheel {
+
+    private static final int SLOTS = 256; // power of 2, so we can use a mask instead of modulo
+    private static final int MASK = SLOTS - 1;
+
+    private final Cooldown[] slots;
+    private long currentTick;
+    private int running;
+
+    /**
+     * Constructor for the TimerWheel.
+     */
+    public TimerWheel() {
+        slots = new Cooldown[SLOTS];
+        currentTick = 0;
+        running = 0;
+    }
+
+    /**
+     * Move the wheel by one tick.
+     * Cooldowns that end at this tick are finished and removed from the wheel.
+     * Called at the start of every simulation tick, before the entities are updated.
+     */
+    public synchronized void update() {
+        currentTick++;
+        Cooldown cooldown = slots[(int) (currentTick & MASK)];
+        while (cooldown != null) {
+            Cooldown next = cooldown.next;
+            if (cooldown.endTick <= currentTick) {
+                remove(cooldown);
+                cooldown.ready = true;
+            }
+            cooldown = next;
+        }
+    }
+
+    /**
+     * Create a new cooldown counted by this wheel.
+     * The cooldown is ready until it's started.
+     *
+     * @return new cooldown
+     */
+    public Cooldown createCooldown() {
+        return new Cooldown(this);
+    }
+
+    /**
+     * Current tick of the wheel, it's also the clock of all animations.
+     *
+     * @return number of ticks since the wheel was made
+     */
+    public long getTick() {
+        return currentTick;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     * Put the cooldown into the slot of the tick it ends at.
+     * If it was already running, it's removed from its old slot first.
+     *
+     * @param cooldown cooldown to start
+     * @param ticks    how many ticks it takes, at least 1
+     */
+    synchronized void schedule(Cooldown cooldown, int ticks) {
+        if (cooldown.scheduled) {
+            remove(cooldown);
+        }
+        cooldown.ready = false;
+        cooldown.endTick = currentTick + ticks;
+        int slot = (int) (cooldown.endTick & MASK);
+        cooldown.prev = null;
+        cooldown.next = slots[slot];
+        if (slots[slot] != null) {
+            slots[slot].prev = cooldown;
+        }
+        slots[slot] = cooldown;
+        cooldown.scheduled = true;
+        running++;
+    }
+
+    /**
+     * Stop the cooldown, it becomes ready right away.
+     *
+     * @param cooldown cooldown to finish
+     */
+    synchronized void finish(Cooldown cooldown) {
+        if (cooldown.scheduled) {
+            remove(cooldown);
+        }
+        cooldown.ready = true;
+    }
+
+    private void remove(Cooldown cooldown) {
+        int slot = (int) (cooldown.endTick & MASK);
+        if (cooldown.prev != null) {
+            cooldown.prev.next = cooldown.next;
+        } else {
+            slots[slot] = cooldown.next;
+        }
+        if (cooldown.next != null) {
+            cooldown.next.prev = cooldown.prev;
+        }
+        cooldown.prev = null;
+        cooldown.next = null;
+        cooldown.scheduled = false;
+        running--;
+    }
+
+}
@@ -0,0 +1,183 @@
+package cz.cvut.fel.pjv.utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import javafx.scene.image.Image;
+
+/**
+ * Class for the AssetCache.
+ * Every image and spritesheet is loaded only once and shared by everything
+ * that uses it (all skeletons share one spritesheet, all apples one image...).
+ * Spritesheets are kept by the path and the size of one sprite.
+ * Whoever acquires a spritesheet has to release it when it's not needed anymore,
+ * sheets nobody uses are thrown away by releaseUnused() when the level is left.
+ * Images got by getImage() (items, HUD) stay loaded for the whole game.
+ * Shared images must not be changed.
+ * Files are decoded outside of the lock, so more threads can load at once
+ * (AssetLoader preloads everything in parallel).
+ * @see LoadFiles
+ *
+ * @author Son Ngoc Tran
+ */
+public class AssetCache {
+
+    private static final Logger log = Logger.getLogger(AssetCache.class.getName());
+
+    private static final HashMap<String, Entry> entries = new HashMap<>();
+    private static int loads, hits;
+    private static long loadTime; // nanoseconds spent loading
+
+    /**
+     * One loaded file and how many times it's used.
+     */
+    private static class Entry {
+        private Image image;
+        private Image[][] sprites;
+        private int references;
+        private boolean pinned;
+    }
+
+    private AssetCache() {
+    }
+
+    /**
+     * Get the spritesheet cut into sprites, load it if it's not loaded yet.
+     * Every acquire has to be followed by release() once it's not used.
+     *
+     * @param sheet   path to the spritesheet
+     * @param pixSize size of one sprite
+     * @return shared sprites, must not be changed
+     */
+    public static Image[][] acquireSprites(String sheet, int pixSize) {
+        Entry entry = loadSprites(sheet, pixSize);
+        synchronized (AssetCache.class) {
+            entry.references++;
+        }
+        return entry.sprites;
+    }
+
+    /**
+     * Load the spritesheet without using it, so it's ready when it's acquired.
+     * Nobody holds it, so releaseUnused() can throw it away.
+     *
+     * @param sheet   path to the spritesheet
+     * @param pixSize size of one sprite
+     */
+    public static void preloadSprites(String sheet, int pixSize) {
+        loadSprites(sheet, pixSize);
+    }
+
+    /**
+     * Give back the spritesheet got by acquireSprites().
+     *
+     * @param sheet   path to the spritesheet
+     * @param pixSize size of one sprite
+     */
+    public static synchronized void release(String sheet, int pixSize) {
+        Entry entry = entries.get(key(sheet, pixSize));
+        if (entry == null || entry.references == 0) {
+            log.warning("Releasing spritesheet that is not used: " + sheet);
+            return;
+        }
+        entry.references--;
+    }
+
+    /**
+     * Get the image, load it if it's not loaded yet.
+     * The image stays loaded for the whole game.
+     *
+     * @param path path to the image
+     * @return shared image
+     */
+    public static Image getImage(String path) {
+        return load(key(path, 0), () -> {
+            Entry entry = new Entry();
+            entry.image = LoadFiles.LoadImage(path);
+            entry.pinned = true;
+            return entry;
+        }).image;
+    }
+
+    /**
+     * Throw away all spritesheets that nobody uses.
+     * Called when the level is left.
+     */
+    public static synchronized void releaseUnused() {
+        int released = 0;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.pinned && entry.references == 0) {
+                iterator.remove();
+                released++;
+            }
+        }
+        log.info("Released " + released + " unused assets, " + getStats());
+    }
+
+    /**
+     * Get the statistics of the cache.
+     *
+     * @return loaded files, loads, hits and time spent loading (summed over all threads)
+     */
+    public static synchronized String getStats() {
+        return entries.size() + " cached, " + loads + " loads, " + hits + " hits, "
+                + loadTime / 1_000_000 + " ms loading";
+    }
+
+    public static synchronized int getLoads() {
+        return loads;
+    }
+
+    public static synchronized int getHits() {
+        return hits;
+    }
+
+    private static Entry loadSprites(String sheet, int pixSize) {
+        return load(key(sheet, pixSize), () -> {
+            Entry entry = new Entry();
+            entry.sprites = LoadFiles.LoadSubImages(sheet, pixSize);
+            return entry;
+        });
+    }
+
+    /**
+     * Find the entry or load it.
+     * The file is loaded without holding the lock, if two threads load
+     * the same file at once, the first one that finishes wins.
+     *
+     * @param key    key of the file
+     * @param loader loads the file
+     * @return cached entry
+     */
+    private static Entry load(String key, Supplier<Entry> loader) {
+        synchronized (AssetCache.class) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+        }
+        long start = System.nanoTime();
+        Entry loaded = loader.get();
+        long time = System.nanoTime() - start;
+        synchronized (AssetCache.class) {
+            Entry entry = entries.putIfAbsent(key, loaded);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+            loads++;
+            loadTime += time;
+            return loaded;
+        }
+    }
+
+    private static String key(String path, int pixSize) {
+        return path + "#" + pixSize;
+    }
+
+}
@@ -0,0 +1,131 @@
+package cz.cvut.fel.pjv.utils;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import cz.cvut.fel.pjv.levels.Levels;
+import cz.cvut.fel.pjv.map.LoadMaps;
+import javafx.application.Platform;
+
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.*;
+import static cz.cvut.fel.pjv.utils.Constants.ItemConstants.*;
+import static cz.cvut.fel.pjv.utils.Constants.MenuConstants.*;
+import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.*;
+
+/**
+ * Class for the AssetLoader.
+ * Loads all images of the game into the AssetCache before the game starts.
+ * The list of files (manifest) is decoded in parallel on background threads,
+ * the JavaFX thread only gets the progress and builds the scenes at the end,
+ * when everything it needs is already in the cache.
+ * @see AssetCache
+ *
+ * @author Son Ngoc Tran
+ */
+public class AssetLoader {
+
+    private ArrayList<Runnable> manifest;
+    private LoadMaps loadMaps;
+    private AtomicInteger loaded;
+    private Logger log;
+
+    /**
+     * Constructor for the AssetLoader.
+     *
+     * @param loadMaps where the starting map is loaded to
+     */
+    public AssetLoader(LoadMaps loadMaps) {
+        this.loadMaps = loadMaps;
+        manifest = new ArrayList<>();
+        loaded = new AtomicInteger();
+        log = Logger.getLogger(AssetLoader.class.getName());
+        log.setLevel(Level.INFO);
+
+        initManifest();
+    }
+
+    /**
+     * Everything that is loaded before the game starts.
+     * From the maps only the starting one is here, LoadMaps loads the others
+     * when they are needed.
+     * Biggest files go first, so they don't end up last on one thread.
+     */
+    private void initManifest() {
+        manifest.add(() -> loadMaps.preload(Levels.currentLevel));
+
+        addSprites(NORMAL_PLAYER, 64);
+        addSprites(GREEN_SWORD_PLAYER, 64);
+        addSprites(BLUE_SWORD_PLAYER, 64);
+        addSprites(RED_SWORD_PLAYER, 64);
+        addSprites(HIT_PLAYER, 64);
+        addSprites(SKELETON_SHEET, SKELETON_PIX_SIZE);
+        addSprites(ZOMBIE_SHEET, ZOMBIE_PIX_SIZE);
+        addSprites(EYEBALL_SHEET, EYEBALL_PIX_SIZE);
+        addSprites("entity/necromancer.png", 128);
+        addSprites("entity/necromancer_right.png", 128);
+        addSprites("entity/necrospell.png", 128);
+
+        addImages(MENU, ICON, PLAYER_IMAGE1, PLAYER_IMAGE2);
+        addImages("heart.png", "items/coin.png", "entity/merchant.png",
+                "planets/spaceship.png", "planets/navigationMap.png", "planets/lavaplanet.png");
+        addImages(BALL_IMG, BLUESWORD_IMG, BREAD_IMG, BURGER_IMG, CANDY_IMG, COOKIE_IMG,
+                FLASHLIGHT_IMG, GREENSWORD_IMG, INVIS_IMG, PAN_IMG, RADIO_IMG, REDSWORD_IMG,
+                TEDDYBEAR_IMG, MAPITEM_IMG);
+    }
+
+    /**
+     * Load the whole manifest.
+     * Called on the JavaFX thread, both callbacks are called on it too.
+     * A file that fails to load is only logged, it's loaded again when it's used.
+     *
+     * @param onProgress gets how much is loaded <0,1>
+     * @param onDone     called when everything is loaded
+     */
+    public void load(DoubleConsumer onProgress, Runnable onDone) {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+
+        for (Runnable asset : manifest) {
+            workers.execute(() -> {
+                try {
+                    asset.run();
+                } catch (RuntimeException e) {
+                    log.warning("Error preloading asset: " + e.getMessage());
+                }
+                int done = loaded.incrementAndGet();
+                Platform.runLater(() -> onProgress.accept((double) done / manifest.size()));
+                if (done == manifest.size()) {
+                    workers.shutdown();
+                    log.info("Assets loaded in " + (System.nanoTime() - start) / 1_000_000 + " ms on "
+                            + threads + " threads, " + AssetCache.getStats());
+                    Platform.runLater(onDone);
+                }
+            });
+        }
+    }
+
+    public int getSize() {
+        return manifest.size();
+    }
+
+    private void addSprites(String sheet, int pixSize) {
+        manifest.add(() -> AssetCache.preloadSprites(sheet, pixSize));
+    }
+
+    private void addImages(String... paths) {
+        for (String path : paths) {
+            manifest.add(() -> AssetCache.getImage(path));
+        }
+    }
+
+}
@@ -1,77 +1,144 @@
 package cz.cvut.fel.pjv.utils;
 
-import java.util.ArrayList;
-import cz.cvut.fel.pjv.gamestates.PlayState;
-
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
 import static cz.cvut.fel.pjv.utils.Constants.MapConstants.LVL1_COLLISION;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.SWEEP_EPSILON;
 
 /**
  * Class for the Collision.
  * It is used to check the collision of the entities with the map.
  * It is also used for item spawning.
+ * The collision map is a TileGrid, every query is one array load.
+ * Moving entities are swept through the map one axis at a time, so they
+ * slide along walls and can't skip over a wall at any speed.
+ * Queries only read the collision map, they have no side effects, so they
+ * can be called from any thread. Dungeon doors are TriggerZones.
  * 
  * @author Son Ngoc Tran
  */
 public class Collision {
 
-    private ArrayList<ArrayList<Integer>> collisionMap;
-    private PlayState playState;
+    private TileGrid collisionMap;
 
     /**
      * Initialize the Collision class.
      * Load the collision map from the file.
-     * 
-     * @param playState to enter/exit the dungeon
      */
-    public Collision(PlayState playState) {
-        this.playState = playState;
+    public Collision() {
         this.collisionMap = LoadFiles.LoadTxt(LVL1_COLLISION);
     }
 
     /**
      * Check if the entity is on the solid tile.
-     * If tile is 2, the player will enter the dungeon.
-     * If tile is 3, the player will exit the dungeon.
      * 
      * @param x x coordinate of the entity/item
      * @param y y coordinate of the entity/item
      * @return true if the entity is on the solid tile, false otherwise
      */
     public boolean isSolid(double x, double y) {
-        int tileX = (int) Math.floor(x / TILE_SIZE);
-        int tileY = (int) Math.floor(y / TILE_SIZE);
-
-        if (collisionMap.get(tileY).get(tileX) == 2) {
-            // ensure that the player will port to the dungeon when PLAYER steps on the tile
-            if (tileX == playState.getPlayer().getX() / TILE_SIZE
-                    && tileY == playState.getPlayer().getY() / TILE_SIZE) {
-                playState.enterDungeon();
+        return collisionMap.isSolid(TileGrid.toTile(x), TileGrid.toTile(y));
+    }
+
+    /**
+     * Move the box by the offset, first along x and then along y.
+     * If the box hits a wall on one axis, it stops right at the wall and still
+     * moves along the other axis, so entities slide along walls.
+     * Only the tiles the box sweeps over are checked, in the order the box
+     * gets to them, so the cost is the number of those tiles and a fast box
+     * can't skip a thin wall. A box that is already in a wall can move out.
+     * 
+     * @param position position of the box, it is moved
+     * @param width    width of the box
+     * @param height   height of the box
+     * @param dx       offset along x
+     * @param dy       offset along y
+     * @param normal   set to the normal of the walls that stopped the box,
+     *                 0 on the axis where nothing was hit
+     */
+    public void move(Vector2D position, double width, double height, double dx, double dy, Vector2D normal) {
+        double x = sweepX(position.getX(), position.getY(), width, height, dx);
+        double y = sweepY(x, position.getY(), width, height, dy);
+        normal.setVector(contactNormal(position.getX() + dx, x), contactNormal(position.getY() + dy, y));
+        position.setVector(x, y);
+    }
+
+    /**
+     * Move the box along x until it gets to the first solid column.
+     */
+    private double sweepX(double x, double y, double width, double height, double dx) {
+        int firstRow = TileGrid.toTile(y);
+        int lastRow = TileGrid.toTile(y + height);
+        if (dx > 0) {
+            // columns the right edge gets into
+            int last = TileGrid.toTile(x + width + dx);
+            for (int column = TileGrid.toTile(x + width) + 1; column <= last; column++) {
+                if (isColumnSolid(column, firstRow, lastRow)) {
+                    return Math.max(x, column * TILE_SIZE - width - SWEEP_EPSILON);
+                }
+            }
+        } else if (dx < 0) {
+            // columns the left edge gets into
+            int last = TileGrid.toTile(x + dx);
+            for (int column = TileGrid.toTile(x) - 1; column >= last; column--) {
+                if (isColumnSolid(column, firstRow, lastRow)) {
+                    return (column + 1) * TILE_SIZE;
+                }
             }
         }
+        return x + dx;
+    }
 
-        if (collisionMap.get(tileY).get(tileX) == 3) {
-            if (tileX == playState.getPlayer().getX() / TILE_SIZE
-                    && tileY == playState.getPlayer().getY() / TILE_SIZE) {
-                playState.exitDungeon();
+    /**
+     * Move the box along y until it gets to the first solid row.
+     */
+    private double sweepY(double x, double y, double width, double height, double dy) {
+        int firstColumn = TileGrid.toTile(x);
+        int lastColumn = TileGrid.toTile(x + width);
+        if (dy > 0) {
+            int last = TileGrid.toTile(y + height + dy);
+            for (int row = TileGrid.toTile(y + height) + 1; row <= last; row++) {
+                if (isRowSolid(row, firstColumn, lastColumn)) {
+                    return Math.max(y, row * TILE_SIZE - height - SWEEP_EPSILON);
+                }
+            }
+        } else if (dy < 0) {
+            int last = TileGrid.toTile(y + dy);
+            for (int row = TileGrid.toTile(y) - 1; row >= last; row--) {
+                if (isRowSolid(row, firstColumn, lastColumn)) {
+                    return (row + 1) * TILE_SIZE;
+                }
             }
         }
+        return y + dy;
+    }
 
-        return collisionMap.get(tileY).get(tileX) == 1;
+    private boolean isColumnSolid(int column, int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (collisionMap.isSolid(column, row)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    /**
-     * Check if the whole entity is on the solid tile.
-     * Check if all 4 corners of the entity are on the solid tile.
-     * 
-     * @param x      x coordinate of the entity/item
-     * @param y      y coordinate of the entity/item
-     * @param width  width of the entity/item
-     * @param height height of the entity/item
-     * @return true if the entity is on the solid tile, false otherwise
-     */
-    public boolean isMoveValid(float x, float y, double width, double height) {
-        return !isSolid(x, y) && !isSolid(x + width, y) && !isSolid(x, y + height) && !isSolid(x + width, y + height);
+    private boolean isRowSolid(int row, int firstColumn, int lastColumn) {
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            if (collisionMap.isSolid(column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the box got less far than it wanted - it was pushed back by a wall
+    private double contactNormal(double wanted, double reached) {
+        if (reached < wanted) {
+            return -1;
+        }
+        if (reached > wanted) {
+            return 1;
+        }
+        return 0;
     }
 
     /**
@@ -96,22 +163,51 @@ public class Collision {
      * @return true if the entity/item can be spawned on the tile, false otherwise
      */
     private boolean isSpawnAble(double x, double y) {
-        int tileX = (int) Math.floor(x / TILE_SIZE);
-        int tileY = (int) Math.floor(y / TILE_SIZE);
+        return collisionMap.isSpawnable(TileGrid.toTile(x), TileGrid.toTile(y));
+    }
 
-        return collisionMap.get(tileY).get(tileX) == 8;
+    /**
+     * Check if there is a tile with the given value close to the position.
+     * Used to find out if the player is getting close to the dungeon door.
+     * 
+     * @param x        x coordinate
+     * @param y        y coordinate
+     * @param distance how many tiles around the position are checked
+     * @param value    value of the tile in the collision map
+     * @return true if such tile is close, false otherwise
+     */
+    public boolean isTileNear(double x, double y, int distance, int value) {
+        int tileX = TileGrid.toTile(x);
+        int tileY = TileGrid.toTile(y);
+        int firstY = Math.max(0, tileY - distance);
+        int lastY = Math.min(collisionMap.getRows() - 1, tileY + distance);
+        int firstX = Math.max(0, tileX - distance);
+        int lastX = Math.min(collisionMap.getColumns() - 1, tileX + distance);
+
+        for (int j = firstY; j <= lastY; j++) {
+            for (int i = firstX; i <= lastX; i++) {
+                if (collisionMap.get(i, j) == value) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
-    public void setCollisionMap(ArrayList<ArrayList<Integer>> collisionMap) {
+    public void setCollisionMap(TileGrid collisionMap) {
         this.collisionMap = collisionMap;
     }
 
+    public TileGrid getCollisionMap() {
+        return collisionMap;
+    }
+
     public int getWidth() {
-        return collisionMap.get(0).size() * TILE_SIZE;
+        return collisionMap.getColumns() * TILE_SIZE;
     }
 
     public int getHeight() {
-        return collisionMap.size() * TILE_SIZE;
+        return collisionMap.getRows() * TILE_SIZE;
     }
 
 }
@@ -15,6 +15,17 @@ public class Constants {
         public static final int NECROMANCER = 3;
 
         public static final String SKELETON_SPRITE = "skeleton.png";
+        public static final String SKELETON_SHEET = "entity/skeleton.png";
+        public static final int SKELETON_PIX_SIZE = 132;
+        public static final String ZOMBIE_SHEET = "entity/zombie.png";
+        public static final int ZOMBIE_PIX_SIZE = 64;
+        public static final String EYEBALL_SHEET = "entity/Eyeball.png";
+        public static final int EYEBALL_PIX_SIZE = 32;
+        public static final int OFFSCREEN_ANIMATION_INTERVAL = 8; // in ticks, for enemies off the screen
+        // enemies are updated in parallel from this count, ForkJoin splits them into chunks of this size
+        public static final int ENEMY_PARALLEL_THRESHOLD = 64;
+        // enemies this far from the player are tested for hits, covers the biggest weapon hitboxes
+        public static final int HIT_QUERY_RADIUS = 6 * GameConstants.TILE_SIZE;
 
         public static final int ENEMY_WIDTH = 88;
         public static final int ENEMY_HEIGHT = 88;
@@ -37,60 +48,6 @@ public class Constants {
         public static final int NECROMANCER_SPELL = 4;
         public static final int NECRO_SPELL_APPEAR = 0;
         public static final int NECRO_SPELL_DISAPPEAR = 1;
-
-        /**
-         * Get the amount of animations for the enemy.
-         * 
-         * @param enemy_action action of the enemy
-         * @param enemy_type   type of the enemy
-         * @return
-         */
-        public static int GetAniAmount(int enemy_action, int enemy_type) {
-            switch (enemy_type) {
-                case SKELETON:
-                    if (enemy_action == SKEL_RUNNING) {
-                        return 12;
-                    } else if (enemy_action == SKEL_ATTACK) {
-                        return 13;
-                    } else if (enemy_action == SKEL_HIT) {
-                        return 3;
-                    }
-
-                case ZOMBIE:
-                    if (enemy_action == ZOM_RUNNING) {
-                        return 8;
-                    } else if (enemy_action == ZOM_ATTACK) {
-                        return 7;
-                    } else if (enemy_action == ZOM_HIT) {
-                        return 3;
-                    }
-
-                case EYEBALL:
-                    if (enemy_action == EYE_RUNNING) {
-                        return 4;
-                    } else if (enemy_action == EYE_ATTACK) {
-                        return 4;
-                    } else if (enemy_action == EYE_HIT) {
-                        return 4;
-                    }
-                case NECROMANCER:
-                    if (enemy_action == NECROMANCER_RUNNING) {
-                        return 5;
-                    } else if (enemy_action == NECROMANCER_ATTACK) {
-                        return 5;
-                    } else if (enemy_action == NECROMANCER_HIT) {
-                        return 4;
-                    } else if (enemy_action == NECROMANCER_SPELL) {
-                        return 8;
-                    } else if (enemy_action == NECRO_SPELL_APPEAR) {
-                        return 5;
-                    } else if (enemy_action == NECRO_SPELL_DISAPPEAR) {
-                        return 3;
-                    }
-                default:
-                    return 1;
-            }
-        }
     }
 
     public static class ItemConstants {
@@ -103,6 +60,7 @@ public class Constants {
         public static final int ITEM_PIX_SIZE = 32;
         public static final int SWORD_PIX_SIZE = 64;
         public static final int MAX_STACK = 5;
+        public static final int PICK_UP_CANDIDATES = 4; // nearest items tested when picking up
 
         public static final String BALL_IMG = "items/ball.png";
         public static final String BLUESWORD_IMG = "items/bluesword.png";
@@ -151,7 +109,16 @@ public class Constants {
 
     public static class GameConstants {
 
-        public static final int FPS_SET = 80;
+        public static final int UPS_SET = 60; // simulation ticks per second
+        public static final int MAX_UPDATES_PER_FRAME = 5; // catch-up limit before ticks are dropped
+        // opt-in, run with -Dunknownland.threadedSimulation=true
+        public static final boolean THREADED_SIMULATION = Boolean.getBoolean("unknownland.threadedSimulation");
+        // opt-in, run with -Dunknownland.pixelBufferMap=true, not used with THREADED_SIMULATION
+        public static final boolean PIXEL_BUFFER_MAP = Boolean.getBoolean("unknownland.pixelBufferMap");
+        public static final int DRAW_LIST_CAPACITY = 1024; // draw commands per recorded frame, grows if needed
+        public static final int TICKS_PER_GAME_MINUTE = UPS_SET / 5; // one game minute every 200 ms
+        // game minutes per TICKS_PER_GAME_MINUTE ticks, 0 stops the time, run with -Dunknownland.timeScale=1000 to fast-forward
+        public static final int TIME_SCALE = Integer.getInteger("unknownland.timeScale", 1);
         public static final float ENTITY_SCALE = 1.5f;
         public static final int MAP_SCALE = 1;
         public static final int TILE_SIZE = 48;
@@ -159,6 +126,8 @@ public class Constants {
         public static final int TILES_IN_HEIGHT = 50;
         public static final int WINDOW_WIDTH = 800;
         public static final int WINDOW_HEIGHT = 600;
+        // the ground layer is bigger by this on every side, it's drawn again only after scrolling this far
+        public static final int GROUND_MARGIN = 128;
         public static final int PLANET1_WIDTH = 35 * TILE_SIZE;
         public static final int PLANET1_HEIGHT = 40 * TILE_SIZE;
         public static final int PLANET2_WIDTH = 50 * TILE_SIZE;
@@ -171,6 +140,7 @@ public class Constants {
         public static final int WORLD_HEIGHT = TILE_SIZE * TILES_IN_HEIGHT;
         public static final int PLAYER_START_X = 14 * MAP_SCALE * TILE_SIZE;
         public static final int PLAYER_START_Y = 29 * MAP_SCALE * TILE_SIZE;
+        public static final int MAX_INTERPOLATION_DISTANCE = TILE_SIZE; // bigger jumps are teleports
     }
 
     public static class HitboxConstants {
@@ -180,6 +150,48 @@ public class Constants {
         public static final int PLAYER_HITBOX_OFFSET_Y = 48;
     }
 
+    public static class LightConstants {
+        public static final int LIGHT_MAP_SCALE = 8; // one cell of the light map is 8x8 pixels
+        public static final int PLAYER_LIGHT_RADIUS = 160;
+        public static final int FLASHLIGHT_LIGHT_RADIUS = 220;
+        public static final int FLASHLIGHT_REACH = 150; // how far in front of the player the flashlight shines
+        public static final int SPELL_LIGHT_RADIUS = 180;
+        public static final double DUNGEON_DARKNESS = 0.90;
+        public static final double LAVA_PLANET_DARKNESS = 0.35;
+    }
+
+    public static class RenderConstants {
+        public static final int RENDER_QUEUE_CAPACITY = 256;
+        public static final int LAYER_GROUND = 0; // items lying on the ground
+        public static final int LAYER_ENTITIES = 1; // player, enemies, merchant, spaceship - sorted by y
+        public static final int LAYER_EFFECTS = 2; // spells
+        // sprites stick out of the position they are culled by, at most the necromancer (NECRO_PIX_SIZE)
+        public static final int CULL_MARGIN = 200;
+        public static final int CULL_CELL_SIZE = 4 * GameConstants.TILE_SIZE; // cells of the culling grids
+        public static final int CULL_STATS_INTERVAL = 600; // frames between two logs of the culling stats
+        public static final long FRAME_BUDGET = 1_000_000_000L / 60; // nanoseconds per frame
+        public static final long RENDER_BUDGET = FRAME_BUDGET / 2; // drawing one frame, the rest is the simulation
+        public static final double LOWER_RESOLUTION_AT = 1.0; // average render time / budget
+        public static final double RAISE_RESOLUTION_AT = 0.8; // expected render time at the higher resolution / budget
+        public static final int RESOLUTION_COOLDOWN = 90; // frames between two resolution changes
+        public static final int MAX_DOWNSCALE = 3; // lowest internal resolution is a third of the window
+        public static final int MAX_FRAME_SAMPLE = 4; // longer renders (stalls) count as this many budgets
+    }
+
+    public static class ParticleConstants {
+        public static final int MAX_PARTICLES = 4096; // size of the particle pool
+        public static final int AMBIENT_INTERVAL = 4; // ticks between two ambient particles
+
+        // colors of the particle palette
+        public static final int PARTICLE_BLOOD = 0;
+        public static final int PARTICLE_BONE = 1;
+        public static final int PARTICLE_SPELL = 2;
+        public static final int PARTICLE_SPELL_LIGHT = 3;
+        public static final int PARTICLE_DUST = 4;
+        public static final int PARTICLE_EMBER = 5;
+        public static final int PARTICLE_EMBER_LIGHT = 6;
+    }
+
     public static class MapConstants {
         public static final String LVL1_MAP = "map/level1.png";
         public static final String LVL1_COLLISION = "map/level1collision.txt";
@@ -187,6 +199,20 @@ public class Constants {
         public static final String LVL1_DUNGEON_COLLISION = "map/dungeon1collision.txt";
         public static final String LVL2_MAP = "map/level2.png";
         public static final String LVL2_COLLISION = "map/level2collision.txt";
+        public static final int CHUNK_TILES = 8; // chunk of the map is 8x8 tiles
+        public static final long LEVEL_CACHE_BUDGET = 48L * 1024 * 1024; // about 2 maps in memory
+        public static final int PREFETCH_DISTANCE = 4; // in tiles from the dungeon door
+
+        // values of the tiles in the collision maps
+        public static final int TILE_FREE = 0;
+        public static final int TILE_SOLID = 1;
+        public static final int TILE_DUNGEON_ENTRANCE = 2;
+        public static final int TILE_DUNGEON_EXIT = 3;
+        public static final int TILE_SPAWNABLE = 8;
+
+        // gap left between a box stopped by a wall and the wall, the tile of the
+        // far edge of the box is floor(edge / TILE_SIZE)
+        public static final double SWEEP_EPSILON = 0.01;
     }
 
     public static class PlayerConstants {
@@ -224,59 +250,6 @@ public class Constants {
         public static final int ATTACK_LEFT = 0;
         public static final int ATTACK_RIGHT = 2;
 
-        /**
-         * Get the amount of running or idle animations for the player.
-         * 
-         * @param player_action
-         * @return
-         */
-        public static int GetAniAmount(int player_action) {
-            switch (player_action) {
-                case RUNNINGU:
-                    return 2;
-                case RUNNINGD:
-                    return 3;
-                case RUNNINGL:
-                    return 6;
-                case RUNNINGR:
-                    return 6;
-                case IDLEU:
-                    return 1;
-                case IDLED:
-                    return 1;
-                case IDLEL:
-                    return 1;
-                case IDLER:
-                    return 1;
-                case ATTACKD:
-                    return 10;
-                default:
-                    return 1;
-
-            }
-        }
-
-        /**
-         * Get the amount of attack animations for the player.
-         * 
-         * @param player_action
-         * @return
-         */
-        public static int GetAttackAmount(int player_action) {
-            switch (player_action) {
-                case 0:
-                    return 5;
-                case 1:
-                    return 4;
-                case 2:
-                    return 5;
-                case 3:
-                    return 7;
-                default:
-                    return 0;
-            }
-        }
-
     }
 
 }
@@ -0,0 +1,58 @@
+package cz.cvut.fel.pjv.utils;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+
+/**
+ * Class for the InputEvent.
+ * One keyboard or mouse event, taken from the JavaFX thread
+ * and handed over to the simulation.
+ * It is immutable, so it can be passed between threads safely.
+ *
+ * @author Son Ngoc Tran
+ */
+public final class InputEvent {
+
+    /**
+     * Kind of the input event.
+     */
+    public enum Type {
+        KEY_PRESSED,
+        KEY_RELEASED,
+        MOUSE_CLICKED
+    }
+
+    private final Type type;
+    private final KeyCode key;
+    private final MouseButton button;
+
+    private InputEvent(Type type, KeyCode key, MouseButton button) {
+        this.type = type;
+        this.key = key;
+        this.button = button;
+    }
+
+    public static InputEvent keyPressed(KeyCode key) {
+        return new InputEvent(Type.KEY_PRESSED, key, null);
+    }
+
+    public static InputEvent keyReleased(KeyCode key) {
+        return new InputEvent(Type.KEY_RELEASED, key, null);
+    }
+
+    public static InputEvent mouseClicked(MouseButton button) {
+        return new InputEvent(Type.MOUSE_CLICKED, null, button);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public KeyCode getKey() {
+        return key;
+    }
+
+    public MouseButton getButton() {
+        return button;
+    }
+}
@@ -1,6 +1,6 @@
 package cz.cvut.fel.pjv.utils;
 
-import javafx.scene.canvas.GraphicsContext;
+import cz.cvut.fel.pjv.view.Painter;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
@@ -21,7 +21,7 @@ public abstract class InteractText {
      * @param y   y coordinate
      * @param gc
      */
-    public static void drawClueText(String key, float x, float y, GraphicsContext gc) {
+    public static void drawClueText(String key, float x, float y, Painter gc) {
         String text = "Press '" + key + "' to interact";
         gc.setStroke(Color.BLACK);
         gc.setLineWidth(3);
@@ -70,21 +70,16 @@ public class LoadFiles {
 
     /**
      * Load txt file.
-     * Save it as 2D array of integers.
+     * Save it as a TileGrid, one digit is one tile.
      * It's used for collision detection.
+     * Rows shorter than the first one are filled with free tiles.
      * 
      * @param sheet path to the txt file
-     * @return ArrayList<ArrayList<Integer>>
+     * @return TileGrid
      */
-    public static ArrayList<ArrayList<Integer>> LoadTxt(String sheet) {
+    public static TileGrid LoadTxt(String sheet) {
         String line;
-        char c;
-        ArrayList<ArrayList<Integer>> collisionMap;
-        ArrayList<Integer> row;
-
-        // using arraylist inside of arraylist to store 2D array
-        // we don't know the size of it
-        collisionMap = new ArrayList<ArrayList<Integer>>();
+        ArrayList<String> lines = new ArrayList<>();
 
         URL url = LoadFiles.class.getResource(sheet);
 
@@ -94,16 +89,10 @@ public class LoadFiles {
             BufferedReader reader = new BufferedReader(isr);
 
             while ((line = reader.readLine()) != null) {
-                row = new ArrayList<Integer>();
                 line = line.replaceAll("\\s", ""); // remove all whitespaces
-
-                // adding each number from the line to the ArrayList row that is inside of the
-                // ArrayList collisionMap
-                for (int i = 0; i < line.length(); i++) {
-                    c = line.charAt(i); // get character at index of String line
-                    row.add(Character.getNumericValue(c)); // change ASCII value of number to normal integer
+                if (!line.isEmpty()) {
+                    lines.add(line);
                 }
-                collisionMap.add(row);
             }
 
             reader.close();
@@ -111,7 +100,18 @@ public class LoadFiles {
             log.warning("Error loading txt file: " + e.getMessage());
         }
 
-        return collisionMap;
+        // we don't know the size until the whole file is read
+        int rows = lines.size();
+        int columns = rows == 0 ? 0 : lines.get(0).length();
+        byte[] tiles = new byte[columns * rows];
+        for (int j = 0; j < rows; j++) {
+            line = lines.get(j);
+            for (int i = 0; i < Math.min(columns, line.length()); i++) {
+                // change ASCII value of number to normal integer
+                tiles[j * columns + i] = (byte) Character.getNumericValue(line.charAt(i));
+            }
+        }
+        return new TileGrid(columns, rows, tiles);
     }
 
     /**
@@ -2,12 +2,13 @@ package cz.cvut.fel.pjv.utils;
 
 import javafx.scene.image.Image;
 
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadSubImages;
+import static cz.cvut.fel.pjv.utils.AssetCache.acquireSprites;
 import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.*;
 
 /**
  * Class for the LoadedFiles.
  * It is used to store the loaded images.
+ * Player sheets are held in the AssetCache for the whole game.
  * @see LoadFiles
  * 
  * @author Son Ngoc Tran
@@ -17,11 +18,11 @@ public class LoadedFiles {
     private Image[][] normalPlayer, greenPlayer, bluePlayer, redPlayer, hitPlayer;
 
     public LoadedFiles() {
-        normalPlayer = LoadSubImages(NORMAL_PLAYER, 64);
-        greenPlayer = LoadSubImages(GREEN_SWORD_PLAYER, 64);
-        bluePlayer = LoadSubImages(BLUE_SWORD_PLAYER, 64);
-        redPlayer = LoadSubImages(RED_SWORD_PLAYER, 64);
-        hitPlayer = LoadSubImages(HIT_PLAYER, 64);
+        normalPlayer = acquireSprites(NORMAL_PLAYER, 64);
+        greenPlayer = acquireSprites(GREEN_SWORD_PLAYER, 64);
+        bluePlayer = acquireSprites(BLUE_SWORD_PLAYER, 64);
+        redPlayer = acquireSprites(RED_SWORD_PLAYER, 64);
+        hitPlayer = acquireSprites(HIT_PLAYER, 64);
     }
 
     /**
@@ -0,0 +1,234 @@
+package cz.cvut.fel.pjv.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Class for the SpatialGrid.
+ * Uniform grid over the map, every element is put into the cell of its
+ * position. Asking for the elements in a rectangle visits only the cells
+ * the rectangle touches, so it costs as much as the elements around it and
+ * not as much as all of them.
+ * Elements bigger than one point (sprites) have to be asked for with a
+ * rectangle grown by their size.
+ * Besides rectangles, the grid can be asked for the elements in a radius and
+ * for the k nearest elements, both measured to the positions of the elements.
+ * Positions outside of the grid are put into the nearest edge cell.
+ *
+ * @param <T> type of the elements
+ *
+ * @author Son Ngoc Tran
+ */
+public class SpatialGrid<T> {
+
+    private int cellSize, columns, rows;
+    private ArrayList<ArrayList<T>> cells;
+    private IdentityHashMap<T, Slot> slots; // where every element is
+    private ArrayList<T> candidates; // used by nearest()
+
+    /**
+     * Position of one element and the cell it's in.
+     */
+    private static class Slot {
+        private int cell;
+        private double x, y;
+    }
+
+    /**
+     * Constructor for the SpatialGrid.
+     *
+     * @param width    width of the covered area
+     * @param height   height of the covered area
+     * @param cellSize size of one cell
+     */
+    public SpatialGrid(int width, int height, int cellSize) {
+        this.cellSize = cellSize;
+        columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+        slots = new IdentityHashMap<>();
+        candidates = new ArrayList<>();
+    }
+
+    /**
+     * Put the element to its position.
+     * If it's already in the grid and stays in the same cell, only its
+     * position is changed.
+     *
+     * @param element element to put
+     * @param x       x coordinate of the element
+     * @param y       y coordinate of the element
+     */
+    public void move(T element, double x, double y) {
+        int cell = cellIndex(column(x), row(y));
+        Slot slot = slots.get(element);
+        if (slot == null) {
+            slot = new Slot();
+            slots.put(element, slot);
+            cells.get(cell).add(element);
+        } else if (slot.cell != cell) {
+            cells.get(slot.cell).remove(element);
+            cells.get(cell).add(element);
+        }
+        slot.cell = cell;
+        slot.x = x;
+        slot.y = y;
+    }
+
+    /**
+     * Take the element out of the grid.
+     *
+     * @param element element to remove
+     */
+    public void remove(T element) {
+        Slot slot = slots.remove(element);
+        if (slot != null) {
+            cells.get(slot.cell).remove(element);
+        }
+    }
+
+    /**
+     * Take all elements out of the grid.
+     */
+    public void clear() {
+        for (ArrayList<T> cell : cells) {
+            cell.clear();
+        }
+        slots.clear();
+    }
+
+    /**
+     * Add the elements of all cells the rectangle touches to the result.
+     * Elements near the rectangle can be added too, they still have to be
+     * tested by the caller.
+     *
+     * @param x      x coordinate of the rectangle
+     * @param y      y coordinate of the rectangle
+     * @param width  width of the rectangle
+     * @param height height of the rectangle
+     * @param result list the elements are added to
+     */
+    public void query(double x, double y, double width, double height, List<T> result) {
+        int lastColumn = column(x + width);
+        int lastRow = row(y + height);
+        for (int row = row(y); row <= lastRow; row++) {
+            for (int column = column(x); column <= lastColumn; column++) {
+                result.addAll(cells.get(cellIndex(column, row)));
+            }
+        }
+    }
+
+    /**
+     * Add the elements with the position at most the radius away from the
+     * point to the result.
+     * 
+     * @param x      x coordinate of the point
+     * @param y      y coordinate of the point
+     * @param radius largest distance
+     * @param result list the elements are added to
+     */
+    public void queryRadius(double x, double y, double radius, List<T> result) {
+        double radiusSq = radius * radius;
+        int lastColumn = column(x + radius);
+        int lastRow = row(y + radius);
+        for (int row = row(y - radius); row <= lastRow; row++) {
+            for (int column = column(x - radius); column <= lastColumn; column++) {
+                for (T element : cells.get(cellIndex(column, row))) {
+                    if (distanceSq(element, x, y) <= radiusSq) {
+                        result.add(element);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add at most k elements nearest to the point to the result,
+     * the nearest one first.
+     * Cells are visited in rings around the cell of the point, the search
+     * stops when no element in the next ring can be nearer than the k-th one
+     * found, or when the ring gets farther than the radius.
+     * 
+     * @param x         x coordinate of the point
+     * @param y         y coordinate of the point
+     * @param k         how many elements
+     * @param maxRadius largest distance of an element
+     * @param result    list the elements are added to
+     */
+    public void nearest(double x, double y, int k, double maxRadius, List<T> result) {
+        candidates.clear();
+        if (k <= 0) {
+            return;
+        }
+        int centerColumn = column(x);
+        int centerRow = row(y);
+        int maxRing = Math.max(columns, rows);
+        double maxRadiusSq = maxRadius * maxRadius;
+        Comparator<T> byDistance = Comparator.comparingDouble(element -> distanceSq(element, x, y));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (row < 0 || row >= rows) {
+                    continue;
+                }
+                // whole row on the top and bottom of the ring, only the ends in between
+                int step = row == centerRow - ring || row == centerRow + ring ? 1 : Math.max(1, 2 * ring);
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += step) {
+                    if (column < 0 || column >= columns) {
+                        continue;
+                    }
+                    for (T element : cells.get(cellIndex(column, row))) {
+                        if (distanceSq(element, x, y) <= maxRadiusSq) {
+                            candidates.add(element);
+                        }
+                    }
+                }
+            }
+            // elements in the next rings are at least this far from the point
+            double reached = (double) ring * cellSize;
+            if (reached >= maxRadius) {
+                break;
+            }
+            if (candidates.size() >= k) {
+                candidates.sort(byDistance);
+                if (distanceSq(candidates.get(k - 1), x, y) <= reached * reached) {
+                    break;
+                }
+            }
+        }
+        candidates.sort(byDistance);
+        for (int i = 0; i < k && i < candidates.size(); i++) {
+            result.add(candidates.get(i));
+        }
+        candidates.clear();
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private double distanceSq(T element, double x, double y) {
+        Slot slot = slots.get(element);
+        double dx = slot.x - x;
+        double dy = slot.y - y;
+        return dx * dx + dy * dy;
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    private int cellIndex(int column, int row) {
+        return row * columns + column;
+    }
+
+}
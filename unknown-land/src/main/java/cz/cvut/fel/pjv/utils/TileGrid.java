@@ -0,0 +1,99 @@
+package cz.cvut.fel.pjv.utils;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_SOLID;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_SPAWNABLE;
+
+/**
+ * Class for the TileGrid.
+ * Collision map of one map - the value of every tile (MapConstants TILE_*)
+ * in one flat byte array, row after row. Reading a tile is one array load,
+ * a 50x50 map takes 2.5 KB.
+ * Tiles outside of the map are solid, so nothing walks off the map and the
+ * accessors never throw.
+ * The grid doesn't change after it's loaded, it can be read from any thread.
+ *
+ * @author Son Ngoc Tran
+ */
+public final class TileGrid {
+
+    private final byte[] tiles;
+    private final int columns, rows;
+
+    /**
+     * Constructor for the TileGrid.
+     *
+     * @param columns number of tiles in a row
+     * @param rows    number of rows
+     * @param tiles   values of the tiles, row after row
+     */
+    public TileGrid(int columns, int rows, byte[] tiles) {
+        if (tiles.length != columns * rows) {
+            throw new IllegalArgumentException("Expected " + columns * rows + " tiles, got " + tiles.length);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.tiles = tiles;
+    }
+
+    /**
+     * Value of the tile.
+     *
+     * @param column column of the tile
+     * @param row    row of the tile
+     * @return value of the tile, TILE_SOLID outside of the map
+     */
+    public int get(int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return TILE_SOLID;
+        }
+        return tiles[row * columns + column];
+    }
+
+    /**
+     * Value of the tile at the position in the world.
+     *
+     * @param x x coordinate in the world
+     * @param y y coordinate in the world
+     * @return value of the tile, TILE_SOLID outside of the map
+     */
+    public int getAt(double x, double y) {
+        return get(toTile(x), toTile(y));
+    }
+
+    public boolean isSolid(int column, int row) {
+        return get(column, row) == TILE_SOLID;
+    }
+
+    public boolean isSpawnable(int column, int row) {
+        return get(column, row) == TILE_SPAWNABLE;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Memory taken by the tiles.
+     *
+     * @return size in bytes
+     */
+    public int getBytes() {
+        return tiles.length;
+    }
+
+    /**
+     * Tile the coordinate is in.
+     *
+     * @param coordinate x or y coordinate in the world
+     * @return column or row of the tile
+     */
+    public static int toTile(double coordinate) {
+        return (int) Math.floor(coordinate / TILE_SIZE);
+    }
+
+}
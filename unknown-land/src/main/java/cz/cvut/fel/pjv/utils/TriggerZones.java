@@ -0,0 +1,147 @@
+package cz.cvut.fel.pjv.utils;
+
+import java.util.ArrayList;
+
+import cz.cvut.fel.pjv.gamestates.PlayingStates;
+import javafx.scene.shape.Rectangle;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+
+/**
+ * Class for the TriggerZones.
+ * Places that do something when the player walks in or out of them - tiles
+ * of the collision map with some value (dungeon doors) and areas around
+ * things the player can use (merchant, spaceship).
+ * Triggers are checked only when the player gets to another tile, the player
+ * is inside of a zone if his tile is in it. The triggers of the current map
+ * are picked once when the map changes.
+ * Collision queries don't have to care about the doors, they stay pure.
+ *
+ * @author Son Ngoc Tran
+ */
+public class TriggerZones {
+
+    private ArrayList<Trigger> triggers, active; // all of them, the ones of the current map
+    private TileGrid tiles; // map the active triggers were picked for
+    private int tileX, tileY; // tile of the player
+
+    /**
+     * One trigger, either a tile value or an area.
+     */
+    private static class Trigger {
+        private int tileValue;
+        private Rectangle area;
+        private PlayingStates state; // map of the area
+        private Runnable onEnter, onExit;
+        private boolean inside;
+
+        private boolean contains(TileGrid tiles, int tileX, int tileY) {
+            if (area == null) {
+                return tiles.get(tileX, tileY) == tileValue;
+            }
+            // tile of the player touches the area
+            return area.getX() < (tileX + 1) * TILE_SIZE && area.getX() + area.getWidth() > tileX * TILE_SIZE
+                    && area.getY() < (tileY + 1) * TILE_SIZE && area.getY() + area.getHeight() > tileY * TILE_SIZE;
+        }
+    }
+
+    /**
+     * Constructor for the TriggerZones.
+     */
+    public TriggerZones() {
+        triggers = new ArrayList<>();
+        active = new ArrayList<>();
+    }
+
+    /**
+     * Add a trigger for tiles with the value, in every map that has them.
+     * It doesn't fire when the player gets to a map right on such tile,
+     * so a door doesn't send him back.
+     *
+     * @param tileValue value of the tiles in the collision map
+     * @param onEnter   what happens when the player steps on the tiles
+     */
+    public void addTileTrigger(int tileValue, Runnable onEnter) {
+        Trigger trigger = new Trigger();
+        trigger.tileValue = tileValue;
+        trigger.onEnter = onEnter;
+        triggers.add(trigger);
+        tiles = null; // pick the active triggers again
+    }
+
+    /**
+     * Add a trigger for an area in one map.
+     * The area is read every time the player changes tile, it can move.
+     *
+     * @param state   map the area is in
+     * @param area    the area
+     * @param onEnter what happens when the player gets into the area
+     * @param onExit  what happens when the player leaves the area (or the map)
+     */
+    public void addAreaTrigger(PlayingStates state, Rectangle area, Runnable onEnter, Runnable onExit) {
+        Trigger trigger = new Trigger();
+        trigger.area = area;
+        trigger.state = state;
+        trigger.onEnter = onEnter;
+        trigger.onExit = onExit;
+        triggers.add(trigger);
+        tiles = null;
+    }
+
+    /**
+     * Check the triggers if the player got to another tile or another map.
+     * If a trigger changes the map, the rest is checked in the next update.
+     *
+     * @param tiles collision map of the current map
+     * @param x     x coordinate of the player
+     * @param y     y coordinate of the player
+     */
+    public void update(TileGrid tiles, double x, double y) {
+        int newTileX = TileGrid.toTile(x);
+        int newTileY = TileGrid.toTile(y);
+        boolean arrived = tiles != this.tiles;
+        if (!arrived && newTileX == tileX && newTileY == tileY) {
+            return;
+        }
+        tileX = newTileX;
+        tileY = newTileY;
+        if (arrived) {
+            pickActive(tiles);
+        }
+
+        PlayingStates state = PlayingStates.currentState;
+        for (Trigger trigger : active) {
+            boolean inside = trigger.contains(tiles, tileX, tileY);
+            if (inside == trigger.inside) {
+                continue;
+            }
+            trigger.inside = inside;
+            if (inside && (trigger.area != null || !arrived)) {
+                trigger.onEnter.run();
+            } else if (!inside && trigger.onExit != null) {
+                trigger.onExit.run();
+            }
+            if (PlayingStates.currentState != state) {
+                this.tiles = null; // the trigger moved the player to another map
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pick the triggers of the map, the player left the others.
+     */
+    private void pickActive(TileGrid tiles) {
+        this.tiles = tiles;
+        active.clear();
+        for (Trigger trigger : triggers) {
+            if (trigger.area == null || trigger.state == PlayingStates.currentState) {
+                active.add(trigger);
+            } else if (trigger.inside) {
+                trigger.inside = false;
+                trigger.onExit.run();
+            }
+        }
+    }
+
+}
@@ -1,7 +1,6 @@
 package cz.cvut.fel.pjv.view;
 
 import cz.cvut.fel.pjv.entities.Player;
-import javafx.scene.canvas.GraphicsContext;
 
 import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.PLAYER_WIDTH;
 import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.PLAYER_HEIGHT;
@@ -9,6 +8,7 @@ import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.PLANET1_HEIGHT;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.PLANET1_WIDTH;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.MAX_INTERPOLATION_DISTANCE;
 
 /**
  * Class for the Camera.
@@ -22,6 +22,8 @@ public class Camera {
 
     private Player player;
     private double cameraX, cameraY;
+    private double prevCameraX, prevCameraY;
+    private double renderX, renderY;
     private int mapWidth, mapHeight;
 
     /**
@@ -52,17 +54,32 @@ public class Camera {
      * -cameraY)
      * (canvas is shifted in the opposite direction),
      * so the player stays always in the middle of the screen.
+     * The camera is drawn between its last two tick positions, so it glides
+     * along with the interpolated player. Jumps bigger than
+     * MAX_INTERPOLATION_DISTANCE (teleports) are not interpolated.
      * 
      * @param gc
+     * @param alpha how far we are between the last tick and the next one
      */
-    public void render(GraphicsContext gc) {
-        gc.translate(-cameraX, -cameraY);
+    public void render(Painter gc, double alpha) {
+        renderX = interpolate(prevCameraX, cameraX, alpha);
+        renderY = interpolate(prevCameraY, cameraY, alpha);
+        gc.translate(-renderX, -renderY);
     }
 
     public void update() {
+        prevCameraX = cameraX;
+        prevCameraY = cameraY;
         moveCameraCoord();
     }
 
+    private double interpolate(double prev, double current, double alpha) {
+        if (Math.abs(current - prev) > MAX_INTERPOLATION_DISTANCE) {
+            return current;
+        }
+        return prev + (current - prev) * alpha;
+    }
+
     /**
      * Check if the camera is out of bounds.
      * If it is, set it to the edge of the map, don't move it out of the map.
@@ -84,11 +101,22 @@ public class Camera {
         mapHeight = height;
     }
 
+    /**
+     * X coordinate the camera was drawn at in the current frame.
+     * Everything fixed to the screen has to be placed relative to this one.
+     * 
+     * @return x coordinate of the top left corner of the screen
+     */
     public double getX() {
-        return cameraX;
+        return renderX;
     }
 
+    /**
+     * Y coordinate the camera was drawn at in the current frame.
+     * 
+     * @return y coordinate of the top left corner of the screen
+     */
     public double getY() {
-        return cameraY;
+        return renderY;
     }
 }
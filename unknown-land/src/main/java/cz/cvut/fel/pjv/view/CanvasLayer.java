@@ -0,0 +1,125 @@
+package cz.cvut.fel.pjv.view;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * Class for the CanvasLayer.
+ * One of the canvases stacked in the GameView (ground, world, HUD).
+ * Every layer remembers if what it shows is still valid, so a layer that
+ * didn't change keeps its pixels and is not drawn again in the next frame.
+ * The layer is drawn in game coordinates, the canvas itself can be bigger or
+ * smaller (render scale), everything drawn is scaled by it.
+ * At a lower internal resolution the canvas is copied to an image, which is
+ * drawn up to the window without smoothing.
+ * @see GameView
+ *
+ * @author Son Ngoc Tran
+ */
+public class CanvasLayer {
+
+    private Canvas canvas;
+    private CanvasPainter painter;
+    private double width, height; // in game coordinates
+    private double scale;
+    private boolean valid;
+    private long redraws;
+    private WritableImage image; // copy of the canvas, reused while the size stays
+    private long imageRedraws; // redraws the image was copied at
+    private SnapshotParameters snapshotParameters;
+
+    /**
+     * Constructor for the CanvasLayer.
+     *
+     * @param width  width of the layer in game coordinates
+     * @param height height of the layer in game coordinates
+     */
+    public CanvasLayer(double width, double height) {
+        this.width = width;
+        this.height = height;
+        scale = 1;
+        canvas = new Canvas(width, height);
+        painter = new CanvasPainter(canvas.getGraphicsContext2D());
+        valid = false;
+        snapshotParameters = new SnapshotParameters();
+        snapshotParameters.setFill(Color.TRANSPARENT);
+    }
+
+    /**
+     * Clear the layer to draw it again.
+     * The layer is valid after this, until it's invalidated.
+     *
+     * @return painter that draws on the layer
+     */
+    public Painter redraw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.setTransform(scale, 0, 0, scale, 0, 0);
+        valid = true;
+        redraws++;
+        return painter;
+    }
+
+    /**
+     * Change the internal resolution of the layer, it has to be drawn again.
+     *
+     * @param scale canvas pixels per game pixel
+     */
+    public void setScale(double scale) {
+        this.scale = scale;
+        canvas.setWidth(Math.ceil(width * scale));
+        canvas.setHeight(Math.ceil(height * scale));
+        valid = false;
+    }
+
+    /**
+     * Draw the layer again next frame.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * How many times the layer was drawn, for comparing the layers.
+     *
+     * @return number of redraws
+     */
+    public long getRedraws() {
+        return redraws;
+    }
+
+    /**
+     * Copy of what the layer shows, copied again only if the layer was drawn
+     * since the last copy. The image is made again only when the size changes.
+     * The canvas must not be moved (translate), the move is drawn with the image.
+     *
+     * @return image of the canvas at the internal resolution
+     */
+    public Image getImage() {
+        int imageWidth = (int) canvas.getWidth();
+        int imageHeight = (int) canvas.getHeight();
+        if (image == null || image.getWidth() != imageWidth || image.getHeight() != imageHeight) {
+            image = new WritableImage(imageWidth, imageHeight);
+            imageRedraws = -1;
+        }
+        if (imageRedraws != redraws) {
+            canvas.snapshot(snapshotParameters, image);
+            imageRedraws = redraws;
+        }
+        return image;
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+}
@@ -0,0 +1,99 @@
+package cz.cvut.fel.pjv.view;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+
+/**
+ * Class for the CanvasPainter.
+ * Draws straight onto the canvas, every call is passed to the GraphicsContext.
+ * Used when the game runs on the JavaFX thread and for replaying a DrawList.
+ *
+ * @see DrawList
+ *
+ * @author Son Ngoc Tran
+ */
+public class CanvasPainter implements Painter {
+
+    private final GraphicsContext gc;
+
+    /**
+     * Constructor for the CanvasPainter.
+     *
+     * @param gc graphics context of the canvas we draw on
+     */
+    public CanvasPainter(GraphicsContext gc) {
+        this.gc = gc;
+    }
+
+    @Override
+    public void drawImage(Image image, double x, double y) {
+        gc.drawImage(image, x, y);
+    }
+
+    @Override
+    public void drawImage(Image image, double x, double y, double width, double height) {
+        gc.drawImage(image, x, y, width, height);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        gc.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        gc.strokeRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double width, double height) {
+        gc.fillOval(x, y, width, height);
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        gc.fillText(text, x, y);
+    }
+
+    @Override
+    public void strokeText(String text, double x, double y) {
+        gc.strokeText(text, x, y);
+    }
+
+    @Override
+    public void setFill(Paint paint) {
+        gc.setFill(paint);
+    }
+
+    @Override
+    public void setStroke(Paint paint) {
+        gc.setStroke(paint);
+    }
+
+    @Override
+    public void setFont(Font font) {
+        gc.setFont(font);
+    }
+
+    @Override
+    public void setLineWidth(double lineWidth) {
+        gc.setLineWidth(lineWidth);
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        gc.translate(x, y);
+    }
+
+    @Override
+    public void save() {
+        gc.save();
+    }
+
+    @Override
+    public void restore() {
+        gc.restore();
+    }
+}
@@ -0,0 +1,254 @@
+package cz.cvut.fel.pjv.view;
+
+import java.util.Arrays;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+
+/**
+ * Class for the DrawList.
+ * It is a recorded frame - the Painter calls are not drawn, they are stored
+ * and drawn later by replaying them into another Painter.
+ * The simulation thread records a frame into a DrawList and hands it over to the
+ * JavaFX thread, which only replays it. Everything stored is immutable
+ * (numbers, strings, images, paints, fonts), so once the list is handed over
+ * it is a snapshot of the frame and nothing the simulation does later can change it.
+ * Commands are kept in flat arrays which are reused frame after frame, they only
+ * grow when a frame has more commands than any frame before it.
+ *
+ * @see TripleBuffer
+ *
+ * @author Son Ngoc Tran
+ */
+public class DrawList implements Painter {
+
+    private static final int DRAW_IMAGE = 0;
+    private static final int DRAW_IMAGE_SIZED = 1;
+    private static final int FILL_RECT = 2;
+    private static final int STROKE_RECT = 3;
+    private static final int FILL_OVAL = 4;
+    private static final int FILL_TEXT = 5;
+    private static final int STROKE_TEXT = 6;
+    private static final int SET_FILL = 7;
+    private static final int SET_STROKE = 8;
+    private static final int SET_FONT = 9;
+    private static final int SET_LINE_WIDTH = 10;
+    private static final int TRANSLATE = 11;
+    private static final int SAVE = 12;
+    private static final int RESTORE = 13;
+
+    private int[] ops;
+    private double[] numbers;
+    private Object[] objects;
+    private int opCount, numberCount, objectCount;
+
+    /**
+     * Constructor for the DrawList.
+     *
+     * @param capacity how many commands fit in before the arrays have to grow
+     */
+    public DrawList(int capacity) {
+        ops = new int[capacity];
+        numbers = new double[capacity * 4];
+        objects = new Object[capacity];
+    }
+
+    /**
+     * Forget the recorded frame, so the list can be recorded again.
+     * Objects are released, so the old frame doesn't keep them alive.
+     */
+    public void clear() {
+        Arrays.fill(objects, 0, objectCount, null);
+        opCount = 0;
+        numberCount = 0;
+        objectCount = 0;
+    }
+
+    /**
+     * Draw the recorded frame.
+     *
+     * @param painter where the frame is drawn, usually the canvas
+     */
+    public void replay(Painter painter) {
+        int n = 0;
+        int o = 0;
+        for (int i = 0; i < opCount; i++) {
+            switch (ops[i]) {
+                case DRAW_IMAGE:
+                    painter.drawImage((Image) objects[o++], numbers[n++], numbers[n++]);
+                    break;
+                case DRAW_IMAGE_SIZED:
+                    painter.drawImage((Image) objects[o++], numbers[n++], numbers[n++], numbers[n++], numbers[n++]);
+                    break;
+                case FILL_RECT:
+                    painter.fillRect(numbers[n++], numbers[n++], numbers[n++], numbers[n++]);
+                    break;
+                case STROKE_RECT:
+                    painter.strokeRect(numbers[n++], numbers[n++], numbers[n++], numbers[n++]);
+                    break;
+                case FILL_OVAL:
+                    painter.fillOval(numbers[n++], numbers[n++], numbers[n++], numbers[n++]);
+                    break;
+                case FILL_TEXT:
+                    painter.fillText((String) objects[o++], numbers[n++], numbers[n++]);
+                    break;
+                case STROKE_TEXT:
+                    painter.strokeText((String) objects[o++], numbers[n++], numbers[n++]);
+                    break;
+                case SET_FILL:
+                    painter.setFill((Paint) objects[o++]);
+                    break;
+                case SET_STROKE:
+                    painter.setStroke((Paint) objects[o++]);
+                    break;
+                case SET_FONT:
+                    painter.setFont((Font) objects[o++]);
+                    break;
+                case SET_LINE_WIDTH:
+                    painter.setLineWidth(numbers[n++]);
+                    break;
+                case TRANSLATE:
+                    painter.translate(numbers[n++], numbers[n++]);
+                    break;
+                case SAVE:
+                    painter.save();
+                    break;
+                case RESTORE:
+                    painter.restore();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    public int size() {
+        return opCount;
+    }
+
+    @Override
+    public void drawImage(Image image, double x, double y) {
+        addOp(DRAW_IMAGE);
+        addObject(image);
+        addNumbers(x, y);
+    }
+
+    @Override
+    public void drawImage(Image image, double x, double y, double width, double height) {
+        addOp(DRAW_IMAGE_SIZED);
+        addObject(image);
+        addNumbers(x, y, width, height);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        addOp(FILL_RECT);
+        addNumbers(x, y, width, height);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        addOp(STROKE_RECT);
+        addNumbers(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double width, double height) {
+        addOp(FILL_OVAL);
+        addNumbers(x, y, width, height);
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        addOp(FILL_TEXT);
+        addObject(text);
+        addNumbers(x, y);
+    }
+
+    @Override
+    public void strokeText(String text, double x, double y) {
+        addOp(STROKE_TEXT);
+        addObject(text);
+        addNumbers(x, y);
+    }
+
+    @Override
+    public void setFill(Paint paint) {
+        addOp(SET_FILL);
+        addObject(paint);
+    }
+
+    @Override
+    public void setStroke(Paint paint) {
+        addOp(SET_STROKE);
+        addObject(paint);
+    }
+
+    @Override
+    public void setFont(Font font) {
+        addOp(SET_FONT);
+        addObject(font);
+    }
+
+    @Override
+    public void setLineWidth(double lineWidth) {
+        addOp(SET_LINE_WIDTH);
+        addNumber(lineWidth);
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        addOp(TRANSLATE);
+        addNumbers(x, y);
+    }
+
+    @Override
+    public void save() {
+        addOp(SAVE);
+    }
+
+    @Override
+    public void restore() {
+        addOp(RESTORE);
+    }
+
+    private void addOp(int op) {
+        if (opCount == ops.length) {
+            ops = Arrays.copyOf(ops, ops.length * 2);
+        }
+        ops[opCount++] = op;
+    }
+
+    private void addObject(Object object) {
+        if (objectCount == objects.length) {
+            objects = Arrays.copyOf(objects, objects.length * 2);
+        }
+        objects[objectCount++] = object;
+    }
+
+    private void addNumber(double value) {
+        ensureNumbers(1);
+        numbers[numberCount++] = value;
+    }
+
+    private void addNumbers(double a, double b) {
+        ensureNumbers(2);
+        numbers[numberCount++] = a;
+        numbers[numberCount++] = b;
+    }
+
+    private void addNumbers(double a, double b, double c, double d) {
+        ensureNumbers(4);
+        numbers[numberCount++] = a;
+        numbers[numberCount++] = b;
+        numbers[numberCount++] = c;
+        numbers[numberCount++] = d;
+    }
+
+    private void ensureNumbers(int amount) {
+        if (numberCount + amount > numbers.length) {
+            numbers = Arrays.copyOf(numbers, numbers.length * 2 + amount);
+        }
+    }
+}
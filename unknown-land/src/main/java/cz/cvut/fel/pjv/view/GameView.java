@@ -1,9 +1,15 @@
 package cz.cvut.fel.pjv.view;
 
+import javafx.scene.Group;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
 import cz.cvut.fel.pjv.gamesave.GameSave;
 import cz.cvut.fel.pjv.gamestates.DeathState;
@@ -14,11 +20,13 @@ import cz.cvut.fel.pjv.gamestates.SettingsState;
 import cz.cvut.fel.pjv.gamestates.States;
 import cz.cvut.fel.pjv.gamestates.WinState;
 import cz.cvut.fel.pjv.levels.LevelManager;
+import cz.cvut.fel.pjv.map.LoadMaps;
+import cz.cvut.fel.pjv.map.Map;
 
 import static cz.cvut.fel.pjv.Main.stopGameLoop;
 import static cz.cvut.fel.pjv.utils.Constants.GameConstants.*;
 import static cz.cvut.fel.pjv.utils.Constants.MenuConstants.ICON;
-import static cz.cvut.fel.pjv.utils.LoadFiles.LoadImage;
+import static cz.cvut.fel.pjv.utils.AssetCache.getImage;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -29,6 +37,18 @@ import java.util.logging.Logger;
  * It is used to switch between the game states.
  * It is used to render the game.
  * It is used to close the game.
+ * The game is drawn on three canvases stacked on each other:
+ * the ground (map) is bigger than the window by GROUND_MARGIN on every side
+ * and only moved as a node while the camera stays inside the margin,
+ * the world (items, entities, darkness, windows) is drawn every frame
+ * and the HUD only when something on it changes.
+ * The window can be resized or switched to fullscreen (F11). The layers are
+ * drawn at an internal resolution chosen by the ResolutionController. At the
+ * full resolution they are shown as they are, at a lower one they are copied
+ * up to the window by a whole number with nearest neighbour (no smoothing)
+ * on one output canvas. The game itself still works with a
+ * WINDOW_WIDTH x WINDOW_HEIGHT view.
+ * @see ResolutionController
  * 
  * @see MenuState
  * @see PlayState
@@ -44,7 +64,14 @@ public class GameView {
 
     private Pane pane;
     private Scene scene;
-    private Canvas canvas;
+    private CanvasLayer ground, world, hud;
+    private Group layers;
+    private Canvas output; // layers copied up to the window at a lower internal resolution
+    private double groundOffsetX, groundOffsetY; // where the ground layer is shown, internal pixels
+    private ResolutionController resolution;
+    private Map groundMap; // map and its version the ground layer was drawn with
+    private int groundVersion;
+    private double groundX, groundY; // top left corner of the ground layer in the world
     private Stage stage;
     private PlayState playState;
     private PauseState pauseState;
@@ -54,6 +81,7 @@ public class GameView {
     private WinState winState;
     private SettingsState settingsState;
     private GameSave gameSave;
+    private TripleBuffer<DrawList> frames;
     private Logger log;
 
     /**
@@ -62,16 +90,25 @@ public class GameView {
      * Initialize all the game states.
      * 
      * @param stage
+     * @param loadMaps maps, the starting one is already loaded by the AssetLoader
      */
-    public GameView(Stage stage) {
+    public GameView(Stage stage, LoadMaps loadMaps) {
         this.stage = stage;
         levelManager = new LevelManager();
-        canvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
-        pane = new Pane(canvas);
-        scene = new Scene(pane);
+        ground = new CanvasLayer(WINDOW_WIDTH + 2 * GROUND_MARGIN, WINDOW_HEIGHT + 2 * GROUND_MARGIN);
+        world = new CanvasLayer(WINDOW_WIDTH, WINDOW_HEIGHT);
+        hud = new CanvasLayer(WINDOW_WIDTH, WINDOW_HEIGHT);
+        layers = new Group(ground.getCanvas(), world.getCanvas(), hud.getCanvas());
+        output = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
+        pane = new Pane(layers);
+        pane.setStyle("-fx-background-color: black;");
+        scene = new Scene(pane, WINDOW_WIDTH, WINDOW_HEIGHT);
+        resolution = new ResolutionController();
+        initResizing();
+        frames = new TripleBuffer<>(() -> new DrawList(DRAW_LIST_CAPACITY));
 
         menuState = new MenuState(this);
-        playState = new PlayState(this);
+        playState = new PlayState(this, loadMaps);
         pauseState = new PauseState(this);
         deathState = new DeathState(this, "YOU DIED!");
         winState = new WinState(this, "YOU WON!!!");
@@ -91,32 +128,198 @@ public class GameView {
         stage.setScene(menuState.getScene()); // switch to the game scene
         stage.centerOnScreen();
         stage.setTitle("Unknown Land");
-        stage.setResizable(false);
-        stage.getIcons().add(LoadImage(ICON));
+        stage.setResizable(true);
+        stage.getIcons().add(getImage(ICON));
 
         stage.show();
 
         log.info("Game window is set up and displayed.");
     }
 
+    /**
+     * Follow the size of the window and switch fullscreen with F11.
+     */
+    private void initResizing() {
+        scene.widthProperty().addListener((observable, oldWidth, newWidth) -> resize());
+        scene.heightProperty().addListener((observable, oldHeight, newHeight) -> resize());
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getCode() == KeyCode.F11) {
+                stage.setFullScreen(!stage.isFullScreen());
+            }
+        });
+    }
+
+    private void resize() {
+        resolution.setWindowSize(scene.getWidth(), scene.getHeight());
+        applyResolution();
+    }
+
+    /**
+     * Set the internal resolution of the layers, the view is centered with
+     * black bars around it.
+     * At the full resolution the layers are in the scene, otherwise the output
+     * canvas they are copied up to.
+     */
+    private void applyResolution() {
+        double renderScale = resolution.getRenderScale();
+        ground.setScale(renderScale);
+        world.setScale(renderScale);
+        hud.setScale(renderScale);
+        layers.setClip(new Rectangle(WINDOW_WIDTH * renderScale, WINDOW_HEIGHT * renderScale));
+        output.setWidth(Math.ceil(WINDOW_WIDTH * resolution.getOutputScale()));
+        output.setHeight(Math.ceil(WINDOW_HEIGHT * resolution.getOutputScale()));
+
+        Node shown = isUpscaled() ? output : layers;
+        shown.setLayoutX(Math.floor((scene.getWidth() - WINDOW_WIDTH * resolution.getOutputScale()) / 2));
+        shown.setLayoutY(Math.floor((scene.getHeight() - WINDOW_HEIGHT * resolution.getOutputScale()) / 2));
+        if (pane.getChildren().get(0) != shown) {
+            pane.getChildren().setAll(shown);
+        }
+    }
+
+    private boolean isUpscaled() {
+        return resolution.getUpscale() > 1;
+    }
+
+    /**
+     * Copy the layers up to the output canvas, every internal pixel becomes
+     * a square of window pixels. The ground is moved by whole internal pixels.
+     */
+    private void upscale() {
+        if (!isUpscaled()) {
+            return;
+        }
+        int upscale = resolution.getUpscale();
+        GraphicsContext gc = output.getGraphicsContext2D();
+        gc.setImageSmoothing(false);
+        gc.clearRect(0, 0, output.getWidth(), output.getHeight());
+        drawUpscaled(gc, ground, Math.round(groundOffsetX) * upscale, Math.round(groundOffsetY) * upscale, upscale);
+        drawUpscaled(gc, world, 0, 0, upscale);
+        drawUpscaled(gc, hud, 0, 0, upscale);
+    }
+
+    private void drawUpscaled(GraphicsContext gc, CanvasLayer layer, double x, double y, int upscale) {
+        Image image = layer.getImage();
+        gc.drawImage(image, x, y, image.getWidth() * upscale, image.getHeight() * upscale);
+    }
+
+    /**
+     * Advance the game by one simulation tick.
+     * Only the Play state is simulated, every other state is just a scene.
+     */
+    public void update() {
+        if (States.currentState == States.PLAY) {
+            playState.update();
+        }
+    }
+
     /**
      * Render the game.
      * Switch between the game states.
-     * Update the game states.
      * If the scene is not switched to the current state, switch it.
      * Game loop starts when Play state is active.
+     * Only the world layer is drawn every frame, the ground and the HUD
+     * only when they changed.
+     * 
+     * @param alpha how far we are between the last tick and the next one <0,1)
      */
-    public void render() {
-        GraphicsContext gc = canvas.getGraphicsContext2D();
+    public void render(double alpha) {
+        if (switchScene()) {
+            long start = System.nanoTime();
+            playState.renderWorld(world.redraw(), alpha);
+            renderGround();
+            if (!hud.isValid() || playState.isHudChanged()) {
+                playState.renderHud(hud.redraw());
+            }
+            upscale();
+            if (resolution.frame(System.nanoTime() - start)) {
+                applyResolution();
+            }
+        }
+    }
+
+    /**
+     * Draw the ground layer again if the camera got out of its margin or the map
+     * changed, otherwise just move the canvas under the camera.
+     * Called after the world layer, so the camera is already at this frame's position.
+     */
+    private void renderGround() {
+        Map map = playState.getMap();
+        double cameraX = playState.getCamera().getX();
+        double cameraY = playState.getCamera().getY();
+        if (map != groundMap || map.getVersion() != groundVersion || cameraX < groundX || cameraY < groundY
+                || cameraX > groundX + 2 * GROUND_MARGIN || cameraY > groundY + 2 * GROUND_MARGIN) {
+            ground.invalidate();
+        }
+        if (!ground.isValid()) {
+            groundMap = map;
+            groundVersion = map.getVersion();
+            groundX = Math.floor(cameraX) - GROUND_MARGIN;
+            groundY = Math.floor(cameraY) - GROUND_MARGIN;
+            Painter gc = ground.redraw();
+            gc.save();
+            gc.translate(-groundX, -groundY);
+            playState.renderGround(gc, groundX, groundY, WINDOW_WIDTH + 2 * GROUND_MARGIN,
+                    WINDOW_HEIGHT + 2 * GROUND_MARGIN);
+            gc.restore();
+        }
+        groundOffsetX = (groundX - cameraX) * resolution.getRenderScale();
+        groundOffsetY = (groundY - cameraY) * resolution.getRenderScale();
+        // copied with the offset when upscaled, the snapshot would be moved too
+        ground.getCanvas().setTranslateX(isUpscaled() ? 0 : groundOffsetX);
+        ground.getCanvas().setTranslateY(isUpscaled() ? 0 : groundOffsetY);
+    }
+
+    /**
+     * Record the current frame and hand it over to the JavaFX thread.
+     * Used when the game is simulated on its own thread, it's called on that
+     * thread right after the tick. The frame is recorded at the tick position,
+     * there is nothing to interpolate with yet.
+     * 
+     * @see #present()
+     */
+    public void record() {
+        if (States.currentState == States.PLAY) {
+            DrawList frame = frames.getWriteBuffer();
+            frame.clear();
+            playState.render(frame, 1.0);
+            frames.publish();
+        }
+    }
 
+    /**
+     * Draw the latest recorded frame.
+     * Used when the game is simulated on its own thread, the JavaFX thread
+     * only switches scenes and replays what the simulation recorded.
+     * The recorded frame has everything in it, so it's all drawn on the world layer.
+     * 
+     * @see #record()
+     */
+    public void present() {
+        if (switchScene()) {
+            long start = System.nanoTime();
+            frames.getReadBuffer().replay(world.redraw());
+            upscale();
+            if (resolution.frame(System.nanoTime() - start)) {
+                applyResolution();
+            }
+        }
+    }
+
+    /**
+     * Switch between the game states.
+     * If the scene is not switched to the current state, switch it.
+     * Game loop is stopped when we die or win.
+     * 
+     * @return true if the play state is active and should be drawn
+     */
+    private boolean switchScene() {
         switch (States.currentState) {
             case PLAY:
                 if (stage.getScene() != scene) { // if for some reason scene is not switched to play
                     stage.setScene(scene);
                 }
-                playState.render(gc);
-                playState.update();
-                break;
+                return true;
             case MENU: // if for some reason scene is not switched to menu
                 if (stage.getScene() != getMenuState().getScene()) {
                     stage.setScene(getMenuState().getScene());
@@ -148,7 +351,9 @@ public class GameView {
                 log.warning("Unknown state");
                 break;
         }
+        return false;
     }
+
     public void close() {
         stage.close();
     }
@@ -0,0 +1,67 @@
+package cz.cvut.fel.pjv.view;
+
+import java.util.function.Consumer;
+
+/**
+ * Class for the HudWidget.
+ * One part of the HUD (clock, coins, health...) that is drawn in screen
+ * coordinates. What it draws is recorded into a DrawList once and only replayed
+ * every frame, it's recorded again only when the value it shows changes.
+ * So the text, fonts and colors are made only a few times per second at most
+ * and not every frame.
+ * @see DrawList
+ *
+ * @author Son Ngoc Tran
+ */
+public class HudWidget {
+
+    private static final int WIDGET_CAPACITY = 32;
+
+    private DrawList cache;
+    private long value;
+    private boolean valid;
+
+    /**
+     * Constructor for the HudWidget.
+     */
+    public HudWidget() {
+        cache = new DrawList(WIDGET_CAPACITY);
+        valid = false;
+    }
+
+    /**
+     * Draw the widget.
+     * If the value is different than the last time, the widget is recorded again.
+     *
+     * @param gc    where the widget is drawn, in screen coordinates
+     * @param value value the widget shows (or anything that changes with it)
+     * @param draw  draws the widget
+     */
+    public void render(Painter gc, long value, Consumer<Painter> draw) {
+        if (!valid || value != this.value) {
+            cache.clear();
+            draw.accept(cache);
+            this.value = value;
+            valid = true;
+        }
+        cache.replay(gc);
+    }
+
+    /**
+     * Check if the widget already shows the value.
+     *
+     * @param value value the widget would show now
+     * @return true if drawing it would not change anything
+     */
+    public boolean isCurrent(long value) {
+        return valid && value == this.value;
+    }
+
+    /**
+     * Record the widget again next time it's drawn.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+}
@@ -0,0 +1,205 @@
+package cz.cvut.fel.pjv.view;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
+import static cz.cvut.fel.pjv.utils.Constants.LightConstants.LIGHT_MAP_SCALE;
+
+/**
+ * Class for the LightMap.
+ * Darkness of the screen in low resolution, one cell is LIGHT_MAP_SCALE x LIGHT_MAP_SCALE pixels.
+ * Every frame the map is filled with the ambient darkness and every light source
+ * adds its light as a round stamp with a soft edge. Stamps are computed once for
+ * every radius and reused.
+ * A light can be limited by its visibility polygon from the ShadowCaster,
+ * then only the cells inside the polygon get the light.
+ * At the end the map is turned into an image of black pixels with the darkness as
+ * their alpha and drawn stretched over the whole screen - the same as multiplying
+ * the scene by the light, with one draw call and only the small image to fill.
+ * Every painter gets its own image - with the threaded simulation a frame is
+ * recorded into one DrawList while the JavaFX thread may still draw the last
+ * one, so the image is reused only by the frame buffer it belongs to.
+ *
+ * @author Son Ngoc Tran
+ */
+public class LightMap {
+
+    private static final int WIDTH = WINDOW_WIDTH / LIGHT_MAP_SCALE + 1;
+    private static final int HEIGHT = WINDOW_HEIGHT / LIGHT_MAP_SCALE + 1;
+
+    private float[] light; // how much light every cell got <0,1>
+    private double[] crossings; // where the polygon edges cross one row of cells
+    private int[] pixels;
+    private HashMap<Integer, float[]> stamps;
+    private IdentityHashMap<Painter, WritableImage> images; // one per frame buffer
+    private double originX, originY;
+    private double ambient, floor;
+
+    /**
+     * Constructor for the LightMap.
+     */
+    public LightMap() {
+        light = new float[WIDTH * HEIGHT];
+        pixels = new int[WIDTH * HEIGHT];
+        crossings = new double[64];
+        stamps = new HashMap<>();
+        images = new IdentityHashMap<>();
+    }
+
+    /**
+     * Start a new frame.
+     *
+     * @param x       left edge of the screen in the world
+     * @param y       top edge of the screen in the world
+     * @param ambient darkness where there is no light <0,1>
+     * @param floor   darkness where there is full light <0,1>
+     */
+    public void begin(double x, double y, double ambient, double floor) {
+        originX = x;
+        originY = y;
+        this.ambient = ambient;
+        this.floor = floor;
+        Arrays.fill(light, 0f);
+    }
+
+    /**
+     * Add a light source to the frame.
+     * Light of more sources is added together.
+     *
+     * @param x      x coordinate of the center in the world
+     * @param y      y coordinate of the center in the world
+     * @param radius how far the light reaches in pixels
+     */
+    public void addLight(double x, double y, int radius) {
+        int r = Math.max(1, radius / LIGHT_MAP_SCALE);
+        float[] stamp = stamps.computeIfAbsent(r, LightMap::createStamp);
+        int size = 2 * r + 1;
+        int centerX = (int) Math.floor((x - originX) / LIGHT_MAP_SCALE);
+        int centerY = (int) Math.floor((y - originY) / LIGHT_MAP_SCALE);
+
+        int firstX = Math.max(0, centerX - r);
+        int firstY = Math.max(0, centerY - r);
+        int lastX = Math.min(WIDTH - 1, centerX + r);
+        int lastY = Math.min(HEIGHT - 1, centerY + r);
+        for (int j = firstY; j <= lastY; j++) {
+            int stampRow = (j - centerY + r) * size;
+            int row = j * WIDTH;
+            for (int i = firstX; i <= lastX; i++) {
+                light[row + i] += stamp[stampRow + i - centerX + r];
+            }
+        }
+    }
+
+    /**
+     * Add a light source with its visibility polygon, if it's on.
+     *
+     * @param source light to add
+     * @see LightSource
+     */
+    public void addLight(LightSource source) {
+        if (source.isOn()) {
+            addLight(source.getX(), source.getY(), source.getRadius(), source.getPolygon());
+        }
+    }
+
+    /**
+     * Add a light source that is stopped by walls.
+     * The polygon is filled row by row - for every row of cells we find where the
+     * edges of the polygon cross it and light the cells between pairs of crossings.
+     *
+     * @param x       x coordinate of the center in the world
+     * @param y       y coordinate of the center in the world
+     * @param radius  how far the light reaches in pixels
+     * @param polygon part of the map the light can see (ShadowCaster), null if nothing stops the light
+     * @see ShadowCaster
+     */
+    public void addLight(double x, double y, int radius, double[] polygon) {
+        if (polygon == null) {
+            addLight(x, y, radius);
+            return;
+        }
+        int r = Math.max(1, radius / LIGHT_MAP_SCALE);
+        float[] stamp = stamps.computeIfAbsent(r, LightMap::createStamp);
+        int size = 2 * r + 1;
+        int centerX = (int) Math.floor((x - originX) / LIGHT_MAP_SCALE);
+        int centerY = (int) Math.floor((y - originY) / LIGHT_MAP_SCALE);
+
+        int firstX = Math.max(0, centerX - r);
+        int firstY = Math.max(0, centerY - r);
+        int lastX = Math.min(WIDTH - 1, centerX + r);
+        int lastY = Math.min(HEIGHT - 1, centerY + r);
+        int points = polygon.length / 2;
+        if (crossings.length < points) {
+            crossings = new double[points];
+        }
+        for (int j = firstY; j <= lastY; j++) {
+            double rowY = originY + (j + 0.5) * LIGHT_MAP_SCALE; // middle of the row
+            int count = 0;
+            for (int p = 0, q = points - 1; p < points; q = p++) {
+                double y1 = polygon[p * 2 + 1];
+                double y2 = polygon[q * 2 + 1];
+                if ((y1 <= rowY) != (y2 <= rowY)) {
+                    double x1 = polygon[p * 2];
+                    double x2 = polygon[q * 2];
+                    crossings[count++] = x1 + (rowY - y1) / (y2 - y1) * (x2 - x1);
+                }
+            }
+            Arrays.sort(crossings, 0, count);
+
+            int stampRow = (j - centerY + r) * size;
+            int row = j * WIDTH;
+            for (int c = 0; c + 1 < count; c += 2) {
+                int from = Math.max(firstX, (int) Math.ceil((crossings[c] - originX) / LIGHT_MAP_SCALE - 0.5));
+                int to = Math.min(lastX, (int) Math.floor((crossings[c + 1] - originX) / LIGHT_MAP_SCALE - 0.5));
+                for (int i = from; i <= to; i++) {
+                    light[row + i] += stamp[stampRow + i - centerX + r];
+                }
+            }
+        }
+    }
+
+    /**
+     * Turn the light into darkness and draw it over the screen.
+     * If it's not dark at all, nothing is drawn.
+     *
+     * @param gc
+     */
+    public void render(Painter gc) {
+        if (ambient <= 0) {
+            return;
+        }
+        for (int i = 0; i < light.length; i++) {
+            double darkness = ambient - (ambient - floor) * Math.min(1f, light[i]);
+            pixels[i] = (int) (darkness * 255) << 24; // black with the darkness as alpha
+        }
+        WritableImage image = images.computeIfAbsent(gc, painter -> new WritableImage(WIDTH, HEIGHT));
+        image.getPixelWriter().setPixels(0, 0, WIDTH, HEIGHT, PixelFormat.getIntArgbInstance(), pixels, 0, WIDTH);
+        gc.drawImage(image, originX, originY, WIDTH * LIGHT_MAP_SCALE, HEIGHT * LIGHT_MAP_SCALE);
+    }
+
+    /**
+     * Compute the light of one source, full in the middle and fading out to the edge.
+     *
+     * @param r radius in cells
+     * @return light of every cell of the square around the source
+     */
+    private static float[] createStamp(int r) {
+        int size = 2 * r + 1;
+        float[] stamp = new float[size * size];
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i < size; i++) {
+                double distance = Math.hypot(i - r, j - r) / r;
+                double value = Math.max(0, 1 - distance);
+                stamp[j * size + i] = (float) Math.min(1, value * value * 2); // flat core, soft edge
+            }
+        }
+        return stamp;
+    }
+
+}
@@ -0,0 +1,95 @@
+package cz.cvut.fel.pjv.view;
+
+/**
+ * Class for the LightSource.
+ * One light added to the LightMap - the player, the flashlight, the spell...
+ * Every light keeps its own visibility polygon, cast from the same point the
+ * light is drawn at, so it's computed again only when this light moves,
+ * not when any of the lights moves.
+ * @see LightMap
+ * @see ShadowCaster
+ *
+ * @author Son Ngoc Tran
+ */
+public class LightSource {
+
+    private double x, y;
+    private int radius;
+    private boolean on;
+    private double[] polygon; // null if nothing stops the light
+    private double polygonX, polygonY; // where the polygon was cast from
+    private int polygonRadius;
+
+    /**
+     * Constructor for the LightSource, the light is off until it's placed.
+     */
+    public LightSource() {
+        on = false;
+        polygon = null;
+    }
+
+    /**
+     * Place the light and turn it on.
+     *
+     * @param x      x coordinate of the center in the world
+     * @param y      y coordinate of the center in the world
+     * @param radius how far the light reaches in pixels
+     */
+    public void place(double x, double y, int radius) {
+        this.x = x;
+        this.y = y;
+        this.radius = radius;
+        on = true;
+    }
+
+    /**
+     * Turn the light off, its polygon is computed again when it's placed again.
+     */
+    public void turnOff() {
+        on = false;
+        polygon = null;
+    }
+
+    /**
+     * Update the part of the map the light can see.
+     * The polygon is cast from the center of the light, so the shadows match
+     * the light even between ticks. It's computed again only when the light
+     * moves, its radius changes or the walls change.
+     *
+     * @param shadowCaster with the walls of the current map, null if nothing stops the light
+     * @param wallsChanged true if the walls changed since the last update
+     */
+    public void updatePolygon(ShadowCaster shadowCaster, boolean wallsChanged) {
+        if (shadowCaster == null) {
+            polygon = null;
+            return;
+        }
+        if (wallsChanged || polygon == null || x != polygonX || y != polygonY || radius != polygonRadius) {
+            polygonX = x;
+            polygonY = y;
+            polygonRadius = radius;
+            polygon = shadowCaster.computePolygon(x, y, radius);
+        }
+    }
+
+    public boolean isOn() {
+        return on;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public double[] getPolygon() {
+        return polygon;
+    }
+
+}
@@ -0,0 +1,64 @@
+package cz.cvut.fel.pjv.view;
+
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
+
+/**
+ * Class for the LoadingScreen.
+ * Shown while the AssetLoader loads the game, it has a progress bar.
+ * It doesn't use any loaded files, so it can be shown right away.
+ * @see cz.cvut.fel.pjv.utils.AssetLoader
+ *
+ * @author Son Ngoc Tran
+ */
+public class LoadingScreen {
+
+    private static final int BAR_WIDTH = 600;
+    private static final int BAR_HEIGHT = 30;
+
+    private Scene scene;
+    private GraphicsContext gc;
+
+    /**
+     * Constructor for the LoadingScreen.
+     */
+    public LoadingScreen() {
+        Canvas canvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
+        scene = new Scene(new Pane(canvas));
+        gc = canvas.getGraphicsContext2D();
+        setProgress(0);
+    }
+
+    /**
+     * Draw the progress bar.
+     *
+     * @param progress how much is loaded <0,1>
+     */
+    public void setProgress(double progress) {
+        double x = (WINDOW_WIDTH - BAR_WIDTH) / 2.0;
+        double y = (WINDOW_HEIGHT - BAR_HEIGHT) / 2.0;
+
+        gc.setFill(Color.BLACK);
+        gc.fillRect(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
+        gc.setFill(Color.WHITE);
+        gc.setFont(Font.font("Arial", FontWeight.BOLD, 40));
+        gc.fillText("LOADING " + (int) (progress * 100) + "%", x, y - 30);
+        gc.setStroke(Color.WHITE);
+        gc.setLineWidth(3);
+        gc.strokeRect(x, y, BAR_WIDTH, BAR_HEIGHT);
+        gc.fillRect(x, y, BAR_WIDTH * progress, BAR_HEIGHT);
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+}
@@ -0,0 +1,48 @@
+package cz.cvut.fel.pjv.view;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+
+/**
+ * Interface for everything the game draws with.
+ * It is the part of the GraphicsContext the game actually uses.
+ * Render methods draw into a Painter, so the same code can draw straight
+ * onto the canvas (CanvasPainter) or be recorded on the simulation thread
+ * and replayed on the JavaFX thread later (DrawList).
+ *
+ * @see CanvasPainter
+ * @see DrawList
+ *
+ * @author Son Ngoc Tran
+ */
+public interface Painter {
+
+    void drawImage(Image image, double x, double y);
+
+    void drawImage(Image image, double x, double y, double width, double height);
+
+    void fillRect(double x, double y, double width, double height);
+
+    void strokeRect(double x, double y, double width, double height);
+
+    void fillOval(double x, double y, double width, double height);
+
+    void fillText(String text, double x, double y);
+
+    void strokeText(String text, double x, double y);
+
+    void setFill(Paint paint);
+
+    void setStroke(Paint paint);
+
+    void setFont(Font font);
+
+    void setLineWidth(double lineWidth);
+
+    void translate(double x, double y);
+
+    void save();
+
+    void restore();
+}
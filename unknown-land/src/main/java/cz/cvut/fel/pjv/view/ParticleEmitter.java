@@ -0,0 +1,68 @@
+package cz.cvut.fel.pjv.view;
+
+import static cz.cvut.fel.pjv.utils.Constants.ParticleConstants.*;
+
+/**
+ * Class for the ParticleEmitter.
+ * Describes one kind of particle burst - how many particles, how fast, how
+ * long they live, their size, gravity and colors. Emitters don't change,
+ * they are attached to whatever makes the effect (enemy hits, the
+ * necromancer's spell, the ground of a map) and shared.
+ * @see ParticleSystem
+ *
+ * @author Son Ngoc Tran
+ */
+public class ParticleEmitter {
+
+    /** Enemy hit by the player. */
+    public static final ParticleEmitter BLOOD = new ParticleEmitter(14, 2.5f, 30, 5, 0.15f, PARTICLE_BLOOD, 1);
+    /** Skeleton hit by the player, bones instead of blood. */
+    public static final ParticleEmitter BONES = new ParticleEmitter(12, 2.5f, 30, 5, 0.15f, PARTICLE_BONE, 1);
+    /** Player hit by an enemy. */
+    public static final ParticleEmitter PLAYER_BLOOD = new ParticleEmitter(10, 2f, 25, 4, 0.15f, PARTICLE_BLOOD, 1);
+    /** Necromancer starts casting the spell. */
+    public static final ParticleEmitter SPELL_CAST = new ParticleEmitter(40, 1.5f, 50, 6, -0.03f, PARTICLE_SPELL, 2);
+    /** Spell appears over the player. */
+    public static final ParticleEmitter SPELL = new ParticleEmitter(80, 3.5f, 45, 6, 0, PARTICLE_SPELL, 2);
+    /** Dust in the dungeon. */
+    public static final ParticleEmitter DUST = new ParticleEmitter(1, 0.3f, 180, 3, 0, PARTICLE_DUST, 1);
+    /** Embers rising from the lava planet. */
+    public static final ParticleEmitter EMBERS = new ParticleEmitter(1, 0.5f, 120, 4, -0.02f, PARTICLE_EMBER, 2);
+
+    private final int amount, lifeTicks, colorFrom, colorCount;
+    private final float speed, size, gravity;
+
+    /**
+     * Constructor for the ParticleEmitter.
+     *
+     * @param amount     particles in one burst
+     * @param speed      highest speed in pixels per tick
+     * @param lifeTicks  highest life in ticks
+     * @param size       starting size in pixels
+     * @param gravity    added to the y speed every tick, negative flies up
+     * @param colorFrom  first color of the palette (ParticleConstants)
+     * @param colorCount how many colors from colorFrom are used
+     */
+    public ParticleEmitter(int amount, float speed, int lifeTicks, float size, float gravity, int colorFrom,
+            int colorCount) {
+        this.amount = amount;
+        this.speed = speed;
+        this.lifeTicks = lifeTicks;
+        this.size = size;
+        this.gravity = gravity;
+        this.colorFrom = colorFrom;
+        this.colorCount = colorCount;
+    }
+
+    /**
+     * Emit one burst at the point.
+     *
+     * @param particles where the particles are emitted
+     * @param x         x coordinate in the world
+     * @param y         y coordinate in the world
+     */
+    public void emit(ParticleSystem particles, double x, double y) {
+        particles.emit((float) x, (float) y, amount, speed, lifeTicks, size, gravity, colorFrom, colorCount);
+    }
+
+}
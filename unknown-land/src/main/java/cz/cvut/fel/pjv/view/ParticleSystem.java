@@ -0,0 +1,184 @@
+package cz.cvut.fel.pjv.view;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Class for the ParticleSystem.
+ * Small squares flying out of hits, spells and the ground (dust, embers).
+ * All particles are kept in a pool of primitive arrays made once, one array
+ * for every property (position, velocity, life, color). Emitting takes the
+ * next free slot and a dead particle is replaced by the last live one, so
+ * there is no object made or thrown away while particles live and die.
+ * Particles are drawn in one pass, grouped by color, so the fill changes only
+ * once for every color in the palette.
+ * @see ParticleEmitter
+ *
+ * @author Son Ngoc Tran
+ */
+public class ParticleSystem {
+
+    // palette, indexes are the color constants in ParticleConstants
+    private static final Color[] COLORS = {
+            Color.rgb(170, 20, 20), // PARTICLE_BLOOD
+            Color.rgb(235, 230, 210), // PARTICLE_BONE
+            Color.rgb(150, 60, 200), // PARTICLE_SPELL
+            Color.rgb(210, 150, 255), // PARTICLE_SPELL_LIGHT
+            Color.rgb(140, 130, 120), // PARTICLE_DUST
+            Color.rgb(255, 120, 20), // PARTICLE_EMBER
+            Color.rgb(255, 210, 60), // PARTICLE_EMBER_LIGHT
+    };
+
+    private float[] x, y, vx, vy, gravity, size;
+    private int[] life, maxLife;
+    private byte[] color;
+    private int[] order, colorStart; // particles sorted by color for drawing
+    private int count;
+    private Random random;
+
+    /**
+     * Constructor for the ParticleSystem.
+     *
+     * @param capacity most particles alive at once, new ones are dropped when
+     *                 the pool is full
+     */
+    public ParticleSystem(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        gravity = new float[capacity];
+        size = new float[capacity];
+        life = new int[capacity];
+        maxLife = new int[capacity];
+        color = new byte[capacity];
+        order = new int[capacity];
+        colorStart = new int[COLORS.length + 1];
+        random = new Random();
+    }
+
+    /**
+     * Emit particles flying out of a point in random directions.
+     *
+     * @param x          x coordinate in the world
+     * @param y          y coordinate in the world
+     * @param amount     how many particles
+     * @param speed      highest speed in pixels per tick
+     * @param lifeTicks  highest life in ticks, every particle lives at least half of it
+     * @param size       starting size in pixels, particles shrink as they die
+     * @param gravity    added to the y speed every tick, negative flies up
+     * @param colorFrom  first color of the palette
+     * @param colorCount how many colors from colorFrom are picked from
+     */
+    public void emit(float x, float y, int amount, float speed, int lifeTicks, float size, float gravity,
+            int colorFrom, int colorCount) {
+        for (int n = 0; n < amount && count < this.x.length; n++) {
+            int i = count++;
+            double angle = random.nextDouble() * Math.PI * 2;
+            float particleSpeed = speed * random.nextFloat();
+            this.x[i] = x;
+            this.y[i] = y;
+            vx[i] = (float) Math.cos(angle) * particleSpeed;
+            vy[i] = (float) Math.sin(angle) * particleSpeed;
+            this.gravity[i] = gravity;
+            this.size[i] = size;
+            maxLife[i] = lifeTicks / 2 + random.nextInt(lifeTicks / 2 + 1);
+            life[i] = maxLife[i];
+            color[i] = (byte) (colorFrom + random.nextInt(colorCount));
+        }
+    }
+
+    /**
+     * Move the particles by one tick, dead ones are replaced by the last one.
+     */
+    public void update() {
+        int i = 0;
+        while (i < count) {
+            if (--life[i] <= 0) {
+                moveParticle(--count, i);
+                continue;
+            }
+            vy[i] += gravity[i];
+            x[i] += vx[i];
+            y[i] += vy[i];
+            i++;
+        }
+    }
+
+    /**
+     * Draw the particles in the view, between the last tick and the next one.
+     *
+     * @param gc     used to draw on the canvas, already moved by the camera
+     * @param alpha  how far we are between the last tick and the next one
+     * @param viewX  x coordinate of the view in the world
+     * @param viewY  y coordinate of the view in the world
+     * @param width  width of the view
+     * @param height height of the view
+     */
+    public void render(Painter gc, double alpha, double viewX, double viewY, double width, double height) {
+        sortByColor();
+        for (int c = 0; c < COLORS.length; c++) {
+            if (colorStart[c] == colorStart[c + 1]) {
+                continue;
+            }
+            gc.setFill(COLORS[c]);
+            for (int k = colorStart[c]; k < colorStart[c + 1]; k++) {
+                int i = order[k];
+                double particleSize = size[i] * life[i] / maxLife[i];
+                double particleX = x[i] + vx[i] * alpha - particleSize / 2;
+                double particleY = y[i] + vy[i] * alpha - particleSize / 2;
+                if (particleX < viewX + width && particleX + particleSize > viewX
+                        && particleY < viewY + height && particleY + particleSize > viewY) {
+                    gc.fillRect(particleX, particleY, particleSize, particleSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all particles, used when the map changes.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Counting sort of the live particles by their color into the order.
+     */
+    private void sortByColor() {
+        Arrays.fill(colorStart, 0);
+        for (int i = 0; i < count; i++) {
+            colorStart[color[i] + 1]++;
+        }
+        for (int c = 0; c < COLORS.length; c++) {
+            colorStart[c + 1] += colorStart[c];
+        }
+        for (int i = 0; i < count; i++) {
+            order[colorStart[color[i]]++] = i;
+        }
+        // the starts were moved to the ends while filling, move them back
+        for (int c = COLORS.length; c > 0; c--) {
+            colorStart[c] = colorStart[c - 1];
+        }
+        colorStart[0] = 0;
+    }
+
+    private void moveParticle(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        gravity[to] = gravity[from];
+        size[to] = size[from];
+        life[to] = life[from];
+        maxLife[to] = maxLife[from];
+        color[to] = color[from];
+    }
+
+}
@@ -0,0 +1,279 @@
+package cz.cvut.fel.pjv.view;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javafx.scene.image.Image;
+
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.CULL_STATS_INTERVAL;
+
+/**
+ * Class for the RenderQueue.
+ * Sprites of the world (items, player, enemies...) are not drawn right away,
+ * they are submitted here during the frame and drawn all at once by flush().
+ * Before drawing they are sorted by layer and then by their sort key (usually
+ * the y of their feet), so whoever stands lower on the screen is drawn over the
+ * others. Sprites with the same layer and key are drawn next to each other
+ * if they use the same image, so the image doesn't switch back and forth.
+ * Sprites are submitted in almost the same order every frame, so the order of
+ * the last frame is sorted again with an insertion sort, which is almost free
+ * when only a few sprites moved past each other.
+ * Sprites that are not in the view of the camera are culled - thrown away
+ * when they are submitted. Managers with many sprites ask their SpatialGrid
+ * only for the ones around the view and tell the queue how many they skipped,
+ * so the stats count them as culled too.
+ *
+ * @author Son Ngoc Tran
+ */
+public class RenderQueue {
+
+    private Image[] images;
+    private int[] textures; // identity of the image, used to keep the same images together
+    private double[] x, y, width, height;
+    private int[] layers;
+    private double[] sortKeys;
+    private int[] order, lastOrder; // indexes of the submitted sprites in drawing order
+    private int count, lastCount;
+    private int textureSwitches;
+    private double viewLeft, viewTop, viewRight, viewBottom;
+    private int culled, lastCulled;
+    private long drawnTotal, culledTotal;
+    private int frames;
+    private Logger log;
+
+    /**
+     * Constructor for the RenderQueue.
+     *
+     * @param capacity how many sprites fit before the arrays have to grow
+     */
+    public RenderQueue(int capacity) {
+        images = new Image[capacity];
+        textures = new int[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        width = new double[capacity];
+        height = new double[capacity];
+        layers = new int[capacity];
+        sortKeys = new double[capacity];
+        order = new int[capacity];
+        lastOrder = new int[capacity];
+        // nothing is culled until the view is set
+        viewLeft = Double.NEGATIVE_INFINITY;
+        viewTop = Double.NEGATIVE_INFINITY;
+        viewRight = Double.POSITIVE_INFINITY;
+        viewBottom = Double.POSITIVE_INFINITY;
+        log = Logger.getLogger(RenderQueue.class.getName());
+        log.setLevel(Level.INFO);
+    }
+
+    /**
+     * Set the view of the camera for this frame, sprites outside are culled.
+     *
+     * @param x      x coordinate of the view in the world
+     * @param y      y coordinate of the view in the world
+     * @param width  width of the view
+     * @param height height of the view
+     */
+    public void setView(double x, double y, double width, double height) {
+        viewLeft = x;
+        viewTop = y;
+        viewRight = x + width;
+        viewBottom = y + height;
+    }
+
+    /**
+     * Check if a rectangle is at least partly in the view.
+     *
+     * @param x      x coordinate in the world
+     * @param y      y coordinate in the world
+     * @param width  width of the rectangle
+     * @param height height of the rectangle
+     * @return true if it can be seen
+     */
+    public boolean isVisible(double x, double y, double width, double height) {
+        return x < viewRight && x + width > viewLeft && y < viewBottom && y + height > viewTop;
+    }
+
+    /**
+     * Count sprites that were not even submitted, because they are far
+     * from the view (SpatialGrid didn't return them).
+     *
+     * @param amount number of skipped sprites
+     */
+    public void addCulled(int amount) {
+        culled += amount;
+    }
+
+    /**
+     * Submit a sprite that is sorted by the bottom of its image.
+     *
+     * @see #submit(Image, double, double, double, double, int, double)
+     */
+    public void submit(Image image, double x, double y, double width, double height, int layer) {
+        submit(image, x, y, width, height, layer, y + height);
+    }
+
+    /**
+     * Submit a sprite to be drawn in this frame.
+     *
+     * @param image   image of the sprite
+     * @param x       x coordinate in the world
+     * @param y       y coordinate in the world
+     * @param width   drawn width
+     * @param height  drawn height
+     * @param layer   lower layers are drawn first (RenderConstants)
+     * @param sortKey inside one layer, lower keys are drawn first
+     */
+    public void submit(Image image, double x, double y, double width, double height, int layer, double sortKey) {
+        if (!isVisible(x, y, width, height)) {
+            culled++;
+            return;
+        }
+        if (count == images.length) {
+            grow();
+        }
+        images[count] = image;
+        textures[count] = System.identityHashCode(image);
+        this.x[count] = x;
+        this.y[count] = y;
+        this.width[count] = width;
+        this.height[count] = height;
+        layers[count] = layer;
+        sortKeys[count] = sortKey;
+        count++;
+    }
+
+    /**
+     * Sort and draw everything submitted in this frame, then empty the queue.
+     *
+     * @param gc where the sprites are drawn
+     */
+    public void flush(Painter gc) {
+        if (count == lastCount) {
+            System.arraycopy(lastOrder, 0, order, 0, count); // last frame's order is almost right
+        } else {
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+        }
+        sort();
+
+        textureSwitches = 0;
+        Image current = null;
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            if (images[i] != current) {
+                current = images[i];
+                textureSwitches++;
+            }
+            gc.drawImage(images[i], x[i], y[i], width[i], height[i]);
+        }
+
+        int[] swap = lastOrder;
+        lastOrder = order;
+        order = swap;
+        lastCount = count;
+        Arrays.fill(images, 0, count, null);
+        count = 0;
+        countCulled();
+    }
+
+    /**
+     * Keep the culling stats of the frame and log their average once in a while.
+     */
+    private void countCulled() {
+        lastCulled = culled;
+        culled = 0;
+        drawnTotal += lastCount;
+        culledTotal += lastCulled;
+        if (++frames >= CULL_STATS_INTERVAL) {
+            log.info("Sprites per frame - drawn: " + (double) drawnTotal / frames
+                    + ", culled: " + (double) culledTotal / frames);
+            drawnTotal = 0;
+            culledTotal = 0;
+            frames = 0;
+        }
+    }
+
+    /**
+     * How many times the image changed while drawing the last frame.
+     *
+     * @return number of image switches
+     */
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+
+    public int getLastCount() {
+        return lastCount;
+    }
+
+    /**
+     * How many sprites were culled in the last frame.
+     *
+     * @return number of culled sprites
+     */
+    public int getLastCulled() {
+        return lastCulled;
+    }
+
+    public double getViewX() {
+        return viewLeft;
+    }
+
+    public double getViewY() {
+        return viewTop;
+    }
+
+    public double getViewWidth() {
+        return viewRight - viewLeft;
+    }
+
+    public double getViewHeight() {
+        return viewBottom - viewTop;
+    }
+
+    /**
+     * Insertion sort of the order, fast when the order is almost sorted already.
+     */
+    private void sort() {
+        for (int k = 1; k < count; k++) {
+            int index = order[k];
+            int j = k - 1;
+            while (j >= 0 && compare(order[j], index) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+    }
+
+    private int compare(int a, int b) {
+        if (layers[a] != layers[b]) {
+            return Integer.compare(layers[a], layers[b]);
+        }
+        if (sortKeys[a] != sortKeys[b]) {
+            return Double.compare(sortKeys[a], sortKeys[b]);
+        }
+        if (textures[a] != textures[b]) {
+            return Integer.compare(textures[a], textures[b]);
+        }
+        return Integer.compare(a, b); // same image, keep the order they were submitted in
+    }
+
+    private void grow() {
+        int capacity = images.length * 2;
+        images = Arrays.copyOf(images, capacity);
+        textures = Arrays.copyOf(textures, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        layers = Arrays.copyOf(layers, capacity);
+        sortKeys = Arrays.copyOf(sortKeys, capacity);
+        order = Arrays.copyOf(order, capacity);
+        lastOrder = Arrays.copyOf(lastOrder, capacity);
+    }
+
+}
@@ -0,0 +1,112 @@
+package cz.cvut.fel.pjv.view;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_HEIGHT;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.WINDOW_WIDTH;
+import static cz.cvut.fel.pjv.utils.Constants.RenderConstants.*;
+
+/**
+ * Class for the ResolutionController.
+ * The game always works with a WINDOW_WIDTH x WINDOW_HEIGHT view, the window
+ * can be bigger (resized, fullscreen). The view is drawn at an internal
+ * resolution (render scale) and copied up to the window by a whole number
+ * (downscale) without smoothing, so one internal pixel is always a sharp square
+ * of window pixels.
+ * The controller is given how long drawing every frame took (not the time
+ * between frames, that is tied to the vsync and has the simulation in it).
+ * When the average is over RENDER_BUDGET the internal resolution is lowered,
+ * when drawing at the higher resolution would fit the budget again it's raised.
+ * After every change it waits a while, so it doesn't jump back and forth.
+ * One long render (window resize) counts only as MAX_FRAME_SAMPLE budgets.
+ *
+ * @author Son Ngoc Tran
+ */
+public class ResolutionController {
+
+    private double outputScale; // window pixels per game pixel
+    private int downscale; // how many window pixels one internal pixel takes, 1 is full resolution
+    private double averageRender; // nanoseconds, moving average
+    private int framesSinceChange;
+    private Logger log;
+
+    /**
+     * Constructor for the ResolutionController.
+     */
+    public ResolutionController() {
+        outputScale = 1;
+        downscale = 1;
+        averageRender = RENDER_BUDGET;
+        log = Logger.getLogger(ResolutionController.class.getName());
+        log.setLevel(Level.INFO);
+    }
+
+    /**
+     * Set the size of the window, the view is made as big as it fits.
+     *
+     * @param width  width of the window
+     * @param height height of the window
+     */
+    public void setWindowSize(double width, double height) {
+        outputScale = Math.max(0.1, Math.min(width / WINDOW_WIDTH, height / WINDOW_HEIGHT));
+    }
+
+    /**
+     * Add the render time of one frame and change the resolution if needed.
+     *
+     * @param renderTime how long drawing the frame took in nanoseconds
+     * @return true if the render scale changed
+     */
+    public boolean frame(long renderTime) {
+        long sample = Math.min(renderTime, RENDER_BUDGET * MAX_FRAME_SAMPLE);
+        averageRender += (sample - averageRender) * 0.05;
+        if (++framesSinceChange < RESOLUTION_COOLDOWN) {
+            return false;
+        }
+        if (averageRender > RENDER_BUDGET * LOWER_RESOLUTION_AT && downscale < MAX_DOWNSCALE) {
+            downscale++;
+        } else if (downscale > 1 && averageRender * raisedCost() < RENDER_BUDGET * RAISE_RESOLUTION_AT) {
+            downscale--;
+        } else {
+            return false;
+        }
+        framesSinceChange = 0;
+        log.info("Render time " + (long) averageRender / 1000 + " us, render scale " + getRenderScale());
+        return true;
+    }
+
+    // how many times more pixels are drawn one step up, the pixels grow with the square of the scale
+    private double raisedCost() {
+        double ratio = (double) downscale / (downscale - 1);
+        return ratio * ratio;
+    }
+
+    /**
+     * Internal pixels per game pixel.
+     *
+     * @return scale the layers are drawn with
+     */
+    public double getRenderScale() {
+        return outputScale / downscale;
+    }
+
+    /**
+     * Window pixels per internal pixel, always a whole number.
+     *
+     * @return scale of the canvases in the window
+     */
+    public int getUpscale() {
+        return downscale;
+    }
+
+    /**
+     * Window pixels per game pixel.
+     *
+     * @return scale of the whole view
+     */
+    public double getOutputScale() {
+        return outputScale;
+    }
+
+}
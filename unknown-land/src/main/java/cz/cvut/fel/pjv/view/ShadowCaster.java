@@ -0,0 +1,200 @@
+package cz.cvut.fel.pjv.view;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+import cz.cvut.fel.pjv.utils.TileGrid;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+
+/**
+ * Class for the ShadowCaster.
+ * Computes which part of the map a light can see, walls (tiles with value 1
+ * in the collision map) stop the light.
+ * Edges between walls and free tiles are merged into long segments once when the
+ * collision map changes, so a straight wall is one segment and not one per tile.
+ * The visible part is a polygon - rays are sent from the light to the ends of
+ * the segments around it (and a bit to the sides, to get past the corners)
+ * and the closest hit of every ray is one point of the polygon.
+ * Polygons are cast every frame a light moves, so the arrays for the walls in
+ * reach and the ray angles are kept between the calls.
+ * @see LightMap
+ *
+ * @author Son Ngoc Tran
+ */
+public class ShadowCaster {
+
+    private static final double EPSILON = 0.0001; // angle offset for rays that go past a corner
+
+    private TileGrid collisionMap;
+    private double[] segments; // x1, y1, x2, y2 of every wall edge
+    private int segmentCount;
+    private double[] nearby; // walls in reach of the current light
+    private double[] angles;
+
+    /**
+     * Constructor for the ShadowCaster.
+     */
+    public ShadowCaster() {
+        segments = new double[64];
+        segmentCount = 0;
+        nearby = new double[64];
+        angles = new double[64];
+    }
+
+    /**
+     * Set the walls, segments are made only if the collision map changed.
+     *
+     * @param collisionMap collision map of the current map
+     * @return true if the walls changed and computed polygons are not valid anymore
+     */
+    public boolean setWalls(TileGrid collisionMap) {
+        if (this.collisionMap == collisionMap) {
+            return false;
+        }
+        this.collisionMap = collisionMap;
+        segmentCount = 0;
+        int rows = collisionMap.getRows();
+        int cols = collisionMap.getColumns();
+        for (int j = 0; j < rows; j++) {
+            int row = j;
+            mergeEdges(cols, i -> isWall(i, row) && !isWall(i, row - 1), row, true); // top edges
+            mergeEdges(cols, i -> isWall(i, row) && !isWall(i, row + 1), row + 1, true); // bottom edges
+        }
+        for (int i = 0; i < cols; i++) {
+            int col = i;
+            mergeEdges(rows, j -> isWall(col, j) && !isWall(col - 1, j), col, false); // left edges
+            mergeEdges(rows, j -> isWall(col, j) && !isWall(col + 1, j), col + 1, false); // right edges
+        }
+        return true;
+    }
+
+    /**
+     * Compute the part of the map the light can see.
+     * Only walls closer than the radius are checked.
+     *
+     * @param x      x coordinate of the light
+     * @param y      y coordinate of the light
+     * @param radius how far the light reaches
+     * @return points of the polygon as x1, y1, x2, y2... ordered by angle
+     */
+    public double[] computePolygon(double x, double y, int radius) {
+        double left = x - radius, right = x + radius, top = y - radius, bottom = y + radius;
+
+        // walls in reach and the square around the light, so every ray hits something
+        if (nearby.length < (segmentCount + 4) * 4) {
+            nearby = new double[(segmentCount + 4) * 4];
+        }
+        int count = 0;
+        for (int s = 0; s < segmentCount * 4; s += 4) {
+            if (Math.max(segments[s], segments[s + 2]) >= left && Math.min(segments[s], segments[s + 2]) <= right
+                    && Math.max(segments[s + 1], segments[s + 3]) >= top
+                    && Math.min(segments[s + 1], segments[s + 3]) <= bottom) {
+                System.arraycopy(segments, s, nearby, count * 4, 4);
+                count++;
+            }
+        }
+        double[] square = { left, top, right, top, right, top, right, bottom, right, bottom, left, bottom,
+                left, bottom, left, top };
+        System.arraycopy(square, 0, nearby, count * 4, square.length);
+        count += 4;
+
+        if (angles.length < count * 2 * 3) {
+            angles = new double[count * 2 * 3];
+        }
+        int angleCount = 0;
+        for (int s = 0; s < count * 4; s += 2) {
+            double angle = Math.atan2(nearby[s + 1] - y, nearby[s] - x);
+            angles[angleCount++] = angle - EPSILON;
+            angles[angleCount++] = angle;
+            angles[angleCount++] = angle + EPSILON;
+        }
+        Arrays.sort(angles, 0, angleCount);
+
+        double[] polygon = new double[angleCount * 2];
+        for (int a = 0; a < angleCount; a++) {
+            double dirX = Math.cos(angles[a]);
+            double dirY = Math.sin(angles[a]);
+            double closest = castRay(x, y, dirX, dirY, count);
+            polygon[a * 2] = x + dirX * closest;
+            polygon[a * 2 + 1] = y + dirY * closest;
+        }
+        return polygon;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Find the closest segment the ray hits.
+     *
+     * @return distance to the closest hit
+     */
+    private double castRay(double x, double y, double dirX, double dirY, int count) {
+        double closest = Double.MAX_VALUE;
+        for (int s = 0; s < count * 4; s += 4) {
+            double segX = nearby[s + 2] - nearby[s];
+            double segY = nearby[s + 3] - nearby[s + 1];
+            double cross = dirX * segY - dirY * segX;
+            if (Math.abs(cross) < 1e-12) {
+                continue; // parallel
+            }
+            double toStartX = nearby[s] - x;
+            double toStartY = nearby[s + 1] - y;
+            double t = (toStartX * segY - toStartY * segX) / cross; // along the ray
+            double u = (toStartX * dirY - toStartY * dirX) / cross; // along the segment
+            if (t >= 0 && u >= 0 && u <= 1 && t < closest) {
+                closest = t;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Merge neighbouring edges on one line into segments.
+     *
+     * @param length     how many tiles are on the line
+     * @param hasEdge    if the tile at the index has the edge
+     * @param line       tile coordinate of the line
+     * @param horizontal true if the line is horizontal
+     */
+    private void mergeEdges(int length, IntPredicate hasEdge, int line, boolean horizontal) {
+        int start = -1;
+        for (int k = 0; k <= length; k++) {
+            boolean edge = k < length && hasEdge.test(k);
+            if (edge && start == -1) {
+                start = k;
+            } else if (!edge && start != -1) {
+                double from = start * TILE_SIZE;
+                double to = k * TILE_SIZE;
+                if (horizontal) {
+                    addSegment(from, line * TILE_SIZE, to, line * TILE_SIZE);
+                } else {
+                    addSegment(line * TILE_SIZE, from, line * TILE_SIZE, to);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    private void addSegment(double x1, double y1, double x2, double y2) {
+        if ((segmentCount + 1) * 4 > segments.length) {
+            segments = Arrays.copyOf(segments, segments.length * 2);
+        }
+        int s = segmentCount * 4;
+        segments[s] = x1;
+        segments[s + 1] = y1;
+        segments[s + 2] = x2;
+        segments[s + 3] = y2;
+        segmentCount++;
+    }
+
+    /**
+     * Tiles outside of the map are walls, so there are no edges on the border.
+     */
+    private boolean isWall(int tileX, int tileY) {
+        return collisionMap.isSolid(tileX, tileY);
+    }
+
+}
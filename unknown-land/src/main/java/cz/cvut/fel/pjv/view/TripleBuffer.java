@@ -0,0 +1,73 @@
+package cz.cvut.fel.pjv.view;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Class for the TripleBuffer.
+ * Hands objects from one writer thread to one reader thread without locks.
+ * There are three buffers - the writer owns the back one, the reader owns the
+ * front one and the middle one is the latest finished buffer waiting to be read.
+ * Publishing swaps back and middle, reading swaps middle and front, both with a
+ * single atomic operation, so neither thread ever waits for the other.
+ * If the writer is faster, the reader just gets the newest buffer, if the reader
+ * is faster, it keeps the one it already has.
+ *
+ * @param <T> type of the buffers
+ *
+ * @author Son Ngoc Tran
+ */
+public class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100; // middle buffer was published and not read yet
+
+    private final T[] buffers;
+    private final AtomicInteger middle;
+    private int back; // only touched by the writer
+    private int front; // only touched by the reader
+
+    /**
+     * Constructor for the TripleBuffer.
+     *
+     * @param factory creates the three buffers
+     */
+    @SuppressWarnings("unchecked")
+    public TripleBuffer(Supplier<T> factory) {
+        buffers = (T[]) new Object[] { factory.get(), factory.get(), factory.get() };
+        front = 0;
+        middle = new AtomicInteger(1);
+        back = 2;
+    }
+
+    /**
+     * Buffer the writer can fill, nobody else touches it until it's published.
+     *
+     * @return back buffer
+     */
+    public T getWriteBuffer() {
+        return buffers[back];
+    }
+
+    /**
+     * Hand the back buffer over to the reader.
+     * The writer gets the old middle buffer as its new back buffer.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Latest published buffer.
+     * If nothing new was published since the last call, we get the same buffer
+     * again.
+     *
+     * @return front buffer
+     */
+    public T getReadBuffer() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+}
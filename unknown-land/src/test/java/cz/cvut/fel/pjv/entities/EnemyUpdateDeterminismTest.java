@@ -0,0 +1,174 @@
+package cz.cvut.fel.pjv.entities;
+
+import static cz.cvut.fel.pjv.utils.Constants.Enemy.ENEMY_PARALLEL_THRESHOLD;
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_FREE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_SOLID;
+import static cz.cvut.fel.pjv.utils.Constants.ParticleConstants.MAX_PARTICLES;
+import static cz.cvut.fel.pjv.utils.Constants.PlayerConstants.PLAYER_MAX_HEALTH;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import cz.cvut.fel.pjv.gamestates.PlayState;
+import cz.cvut.fel.pjv.time.TimerWheel;
+import cz.cvut.fel.pjv.utils.AttributesCreator;
+import cz.cvut.fel.pjv.utils.Collision;
+import cz.cvut.fel.pjv.utils.PlayerDirection;
+import cz.cvut.fel.pjv.utils.TileGrid;
+import cz.cvut.fel.pjv.view.ParticleSystem;
+
+/**
+ * Test for the enemy update of the EnemyManager.
+ * The same seeded enemies are updated for many ticks once one by one and once
+ * on the ForkJoin pool, both runs have to end with the same enemies and the
+ * same player.
+ *
+ * @author Son Ngoc Tran
+ */
+class EnemyUpdateDeterminismTest {
+
+    private static final long SEED = 42;
+    private static final int ENEMIES = 3 * ENEMY_PARALLEL_THRESHOLD; // the pool splits them into several tasks
+    private static final int TICKS = 600;
+    private static final int ARENA_TILES = 40;
+    private static final PlayerDirection[] PLAYER_PATH = {
+            PlayerDirection.RIGHT, PlayerDirection.DOWN, PlayerDirection.LEFT, PlayerDirection.UP };
+
+    @Test
+    void serialAndParallelThinkGiveTheSameResult() {
+        World serial = new World();
+        World parallel = new World();
+        for (int tick = 0; tick < TICKS; tick++) {
+            serial.tick(tick, Integer.MAX_VALUE);
+            parallel.tick(tick, ENEMY_PARALLEL_THRESHOLD);
+        }
+
+        assertArrayEquals(serial.state(), parallel.state());
+        // the enemies really fought the player, the test doesn't compare idle worlds
+        assertTrue(serial.player.getHealth() < PLAYER_MAX_HEALTH);
+        assertTrue(serial.enemiesHit() > 0);
+    }
+
+    /**
+     * Player and the enemies around the player in a walled arena, without the rest of the game.
+     */
+    private static class World {
+        private final TimerWheel timerWheel;
+        private final Player player;
+        private final ArrayList<Enemy> enemies;
+        private final int[] startHealth;
+
+        World() {
+            timerWheel = new TimerWheel();
+            Collision collision = new Collision();
+            collision.setCollisionMap(createArena());
+
+            PlayState playState = mock(PlayState.class, RETURNS_DEEP_STUBS);
+            when(playState.getTimerWheel()).thenReturn(timerWheel);
+            when(playState.getCollision()).thenReturn(collision);
+            when(playState.getParticles()).thenReturn(new ParticleSystem(MAX_PARTICLES));
+            player = new Player(ARENA_TILES * TILE_SIZE / 2, ARENA_TILES * TILE_SIZE / 2, playState);
+            player.setSwordColor(1);
+            when(playState.getPlayer()).thenReturn(player);
+
+            AttributesCreator attributesCreator = new AttributesCreator();
+            Random random = new Random(SEED);
+            enemies = new ArrayList<>();
+            startHealth = new int[ENEMIES];
+            for (int i = 0; i < ENEMIES; i++) {
+                float x = player.getX() + random.nextInt(600) - 300;
+                float y = player.getY() + random.nextInt(600) - 300;
+                Enemy enemy = new HeadlessEnemy(playState, x, y, attributesCreator.getAttributes(i % 3));
+                enemy.setRandom(new Random(random.nextLong()));
+                enemy.nearPlayer = true;
+                enemies.add(enemy);
+                startHealth[i] = enemy.getHealth();
+            }
+        }
+
+        /**
+         * One tick of the game - the player walks in a square and swings the sword,
+         * the enemies think and are resolved as in EnemyManager.update().
+         */
+        void tick(int tick, int parallelThreshold) {
+            timerWheel.update();
+            if (tick % 40 == 0) {
+                player.setDirection(PLAYER_PATH[tick / 40 % PLAYER_PATH.length]);
+            }
+            if (tick % 25 == 0) {
+                player.setAttack(true);
+            }
+            player.update();
+
+            PlayerSnapshot snapshot = new PlayerSnapshot(player);
+            EnemyManager.think(enemies, snapshot, parallelThreshold);
+            for (Enemy enemy : enemies) {
+                enemy.resolve(player, snapshot);
+            }
+        }
+
+        /**
+         * Everything the runs are compared by.
+         */
+        double[] state() {
+            double[] state = new double[3 + 3 * enemies.size()];
+            state[0] = player.getHitbox().getX();
+            state[1] = player.getHitbox().getY();
+            state[2] = player.getHealth();
+            for (int i = 0; i < enemies.size(); i++) {
+                Enemy enemy = enemies.get(i);
+                state[3 + 3 * i] = enemy.hitbox.getX();
+                state[4 + 3 * i] = enemy.hitbox.getY();
+                state[5 + 3 * i] = enemy.getHealth();
+            }
+            return state;
+        }
+
+        int enemiesHit() {
+            int hit = 0;
+            for (int i = 0; i < enemies.size(); i++) {
+                if (enemies.get(i).getHealth() < startHealth[i]) {
+                    hit++;
+                }
+            }
+            return hit;
+        }
+    }
+
+    /**
+     * Solid border with a pillar every 8 tiles, so the enemies slide along walls.
+     */
+    private static TileGrid createArena() {
+        byte[] tiles = new byte[ARENA_TILES * ARENA_TILES];
+        for (int row = 0; row < ARENA_TILES; row++) {
+            for (int column = 0; column < ARENA_TILES; column++) {
+                boolean border = row == 0 || column == 0 || row == ARENA_TILES - 1 || column == ARENA_TILES - 1;
+                boolean pillar = row % 8 == 2 && column % 8 == 2;
+                tiles[row * ARENA_TILES + column] = (byte) (border || pillar ? TILE_SOLID : TILE_FREE);
+            }
+        }
+        return new TileGrid(ARENA_TILES, ARENA_TILES, tiles);
+    }
+
+    /**
+     * Enemy without sprites, the update doesn't need them and loading them
+     * needs the JavaFX toolkit. Hitboxes are the zombie's.
+     */
+    private static class HeadlessEnemy extends Enemy {
+        HeadlessEnemy(PlayState playState, float x, float y, EnemyAttributes attributes) {
+            super(playState, x, y, attributes);
+            initHitbox(x, y, 40, 40);
+            initDmgHitbox(x, y, 35, 70);
+            initWeaponHitbox(x, y, 70, 65);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package cz.cvut.fel.pjv.time;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the TimerWheel and its cooldowns.
+ *
+ * @author Son Ngoc Tran
+ */
+class TimerWheelTest {
+
+    @Test
+    void cooldownIsReadyAfterItsTicks() {
+        TimerWheel wheel = new TimerWheel();
+        Cooldown cooldown = wheel.createCooldown();
+        assertTrue(cooldown.isReady()); // ready until it's started
+
+        cooldown.start(3);
+        assertFalse(cooldown.isReady());
+        assertEquals(1, wheel.getRunning());
+        tick(wheel, 2);
+        assertFalse(cooldown.isReady());
+        tick(wheel, 1);
+        assertTrue(cooldown.isReady());
+        assertEquals(0, wheel.getRunning());
+    }
+
+    @Test
+    void cooldownLongerThanOneRoundOfTheWheel() {
+        TimerWheel wheel = new TimerWheel();
+        Cooldown cooldown = wheel.createCooldown();
+
+        cooldown.start(600); // more than twice around the wheel
+        tick(wheel, 599);
+        assertFalse(cooldown.isReady());
+        tick(wheel, 1);
+        assertTrue(cooldown.isReady());
+    }
+
+    @Test
+    void restartingStartsOver() {
+        TimerWheel wheel = new TimerWheel();
+        Cooldown cooldown = wheel.createCooldown();
+
+        cooldown.start(5);
+        tick(wheel, 4);
+        cooldown.start(5);
+        assertEquals(1, wheel.getRunning());
+        tick(wheel, 4);
+        assertFalse(cooldown.isReady());
+        tick(wheel, 1);
+        assertTrue(cooldown.isReady());
+    }
+
+    @Test
+    void finishedCooldownIsReadyAndLeavesTheWheel() {
+        TimerWheel wheel = new TimerWheel();
+        Cooldown first = wheel.createCooldown();
+        Cooldown second = wheel.createCooldown();
+
+        first.start(10);
+        second.start(10); // same slot as the first one
+        first.finish();
+        assertTrue(first.isReady());
+        assertEquals(1, wheel.getRunning());
+        tick(wheel, 10);
+        assertTrue(second.isReady());
+        assertEquals(0, wheel.getRunning());
+    }
+
+    @Test
+    void startingWithNoTicksIsReadyRightAway() {
+        TimerWheel wheel = new TimerWheel();
+        Cooldown cooldown = wheel.createCooldown();
+
+        cooldown.start(0);
+        assertTrue(cooldown.isReady());
+        assertEquals(0, wheel.getRunning());
+    }
+
+    private static void tick(TimerWheel wheel, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            wheel.update();
+        }
+    }
+
+}
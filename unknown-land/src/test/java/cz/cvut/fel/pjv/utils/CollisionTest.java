@@ -0,0 +1,194 @@
+package cz.cvut.fel.pjv.utils;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.SWEEP_EPSILON;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_FREE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_SOLID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the swept movement of the Collision.
+ * Maps are written as rows of text, '#' is a wall and '.' is a free tile.
+ *
+ * @author Son Ngoc Tran
+ */
+class CollisionTest {
+
+    private static final double BOX = 20; // size of the moved box
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void fastBoxStopsAtOneTileWall() {
+        Collision collision = create(
+                "..........",
+                "..........",
+                ".....#....",
+                "..........");
+        Vector2D position = new Vector2D(TILE_SIZE, 2 * TILE_SIZE + 10);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, 8 * TILE_SIZE, 0, normal); // 8 tiles in one step
+
+        assertEquals(5 * TILE_SIZE - BOX - SWEEP_EPSILON, position.getX(), DELTA);
+        assertEquals(2 * TILE_SIZE + 10, position.getY(), DELTA);
+        assertNormal(-1, 0, normal);
+    }
+
+    @Test
+    void fastBoxStopsAtOneTileWallFromTheOtherSide() {
+        Collision collision = create(
+                "..........",
+                "..........",
+                ".....#....",
+                "..........");
+        Vector2D position = new Vector2D(8 * TILE_SIZE, 2 * TILE_SIZE + 10);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, -8 * TILE_SIZE, 0, normal);
+
+        assertEquals(6 * TILE_SIZE, position.getX(), DELTA);
+        assertNormal(1, 0, normal);
+    }
+
+    @Test
+    void fastBoxStopsAtOneTileFloor() {
+        Collision collision = create(
+                "....",
+                "....",
+                "....",
+                "....",
+                "####",
+                "....",
+                "....");
+        Vector2D position = new Vector2D(TILE_SIZE + 10, 10);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, 0, 6 * TILE_SIZE, normal);
+
+        assertEquals(4 * TILE_SIZE - BOX - SWEEP_EPSILON, position.getY(), DELTA);
+        assertNormal(0, -1, normal);
+    }
+
+    @Test
+    void boxSlidesAlongWall() {
+        Collision collision = create(
+                "....#.",
+                "....#.",
+                "....#.",
+                "....#.",
+                "....#.");
+        double wallX = 4 * TILE_SIZE - BOX - SWEEP_EPSILON; // touching the wall
+        Vector2D position = new Vector2D(wallX, TILE_SIZE);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, 10, 30, normal); // pushing into the wall and going down
+
+        assertEquals(wallX, position.getX(), DELTA);
+        assertEquals(TILE_SIZE + 30, position.getY(), DELTA);
+        assertNormal(-1, 0, normal);
+    }
+
+    @Test
+    void boxSlidesAlongFloor() {
+        Collision collision = create(
+                "......",
+                "......",
+                "######");
+        double floorY = 2 * TILE_SIZE - BOX - SWEEP_EPSILON;
+        Vector2D position = new Vector2D(TILE_SIZE, floorY);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, 30, 10, normal);
+
+        assertEquals(TILE_SIZE + 30, position.getX(), DELTA);
+        assertEquals(floorY, position.getY(), DELTA);
+        assertNormal(0, -1, normal);
+    }
+
+    @Test
+    void boxStopsInCornerOnBothAxes() {
+        Collision collision = create(
+                "...#",
+                "...#",
+                "####");
+        Vector2D position = new Vector2D(TILE_SIZE, 10);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, 2 * TILE_SIZE, 2 * TILE_SIZE, normal);
+
+        assertEquals(3 * TILE_SIZE - BOX - SWEEP_EPSILON, position.getX(), DELTA);
+        assertEquals(2 * TILE_SIZE - BOX - SWEEP_EPSILON, position.getY(), DELTA);
+        assertNormal(-1, -1, normal);
+    }
+
+    @Test
+    void boxMovesFreelyWithoutWalls() {
+        Collision collision = create(
+                "....",
+                "....",
+                "....");
+        Vector2D position = new Vector2D(TILE_SIZE, TILE_SIZE);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, 15, -12, normal);
+
+        assertEquals(TILE_SIZE + 15, position.getX(), DELTA);
+        assertEquals(TILE_SIZE - 12, position.getY(), DELTA);
+        assertNormal(0, 0, normal);
+    }
+
+    @Test
+    void boxInsideWallCanMoveOut() {
+        Collision collision = create(
+                "........",
+                "...#....",
+                "........");
+        // overlapping the wall tile in column 3 from the right
+        Vector2D position = new Vector2D(3 * TILE_SIZE + 10, TILE_SIZE + 10);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, TILE_SIZE, 0, normal);
+
+        assertEquals(4 * TILE_SIZE + 10, position.getX(), DELTA);
+        assertNormal(0, 0, normal);
+        assertFalse(collision.isSolid(position.getX(), position.getY()));
+    }
+
+    @Test
+    void boxInsideWallCanMoveOutVertically() {
+        Collision collision = create(
+                "....",
+                "....",
+                ".#..",
+                "....");
+        Vector2D position = new Vector2D(TILE_SIZE + 10, 2 * TILE_SIZE + 5);
+        Vector2D normal = new Vector2D(0, 0);
+
+        collision.move(position, BOX, BOX, 0, -TILE_SIZE, normal);
+
+        assertEquals(TILE_SIZE + 5, position.getY(), DELTA);
+        assertNormal(0, 0, normal);
+    }
+
+    private static void assertNormal(double x, double y, Vector2D normal) {
+        assertEquals(x, normal.getX(), DELTA, "normal x");
+        assertEquals(y, normal.getY(), DELTA, "normal y");
+    }
+
+    private static Collision create(String... rows) {
+        int columns = rows[0].length();
+        byte[] tiles = new byte[columns * rows.length];
+        for (int j = 0; j < rows.length; j++) {
+            for (int i = 0; i < columns; i++) {
+                tiles[j * columns + i] = (byte) (rows[j].charAt(i) == '#' ? TILE_SOLID : TILE_FREE);
+            }
+        }
+        Collision collision = new Collision();
+        collision.setCollisionMap(new TileGrid(columns, rows.length, tiles));
+        return collision;
+    }
+
+}
@@ -0,0 +1,113 @@
+package cz.cvut.fel.pjv.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the radius and nearest queries of the SpatialGrid.
+ * Results are compared with going through all elements one by one.
+ *
+ * @author Son Ngoc Tran
+ */
+class SpatialGridTest {
+
+    private static final int SIZE = 1000;
+    private static final int CELL_SIZE = 64;
+
+    @Test
+    void nearestGivesTheClosestElementsInOrder() {
+        SpatialGrid<String> grid = new SpatialGrid<>(SIZE, SIZE, CELL_SIZE);
+        grid.move("far", 500, 500);
+        grid.move("near", 110, 100);
+        grid.move("middle", 100, 160);
+        grid.move("nearest", 101, 101);
+
+        List<String> result = new ArrayList<>();
+        grid.nearest(100, 100, 3, SIZE, result);
+
+        assertEquals(List.of("nearest", "near", "middle"), result);
+    }
+
+    @Test
+    void nearestStopsAtTheRadius() {
+        SpatialGrid<String> grid = new SpatialGrid<>(SIZE, SIZE, CELL_SIZE);
+        grid.move("inside", 130, 100);
+        grid.move("outside", 200, 100);
+
+        List<String> result = new ArrayList<>();
+        grid.nearest(100, 100, 2, 50, result);
+
+        assertEquals(List.of("inside"), result);
+    }
+
+    @Test
+    void nearestFollowsMovedAndRemovedElements() {
+        SpatialGrid<String> grid = new SpatialGrid<>(SIZE, SIZE, CELL_SIZE);
+        grid.move("a", 100, 100);
+        grid.move("b", 900, 900);
+        grid.move("b", 105, 100); // into another cell
+        grid.remove("a");
+
+        List<String> result = new ArrayList<>();
+        grid.nearest(100, 100, 1, SIZE, result);
+
+        assertEquals(List.of("b"), result);
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(7);
+        SpatialGrid<double[]> grid = new SpatialGrid<>(SIZE, SIZE, CELL_SIZE);
+        List<double[]> all = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            double[] point = { random.nextDouble() * SIZE, random.nextDouble() * SIZE };
+            all.add(point);
+            grid.move(point, point[0], point[1]);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double x = random.nextDouble() * SIZE;
+            double y = random.nextDouble() * SIZE;
+            double radius = 50 + random.nextDouble() * 300;
+            int k = 1 + random.nextInt(10);
+
+            List<double[]> expected = new ArrayList<>();
+            for (double[] point : all) {
+                if (Math.hypot(point[0] - x, point[1] - y) <= radius) {
+                    expected.add(point);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(point -> Math.hypot(point[0] - x, point[1] - y)));
+            expected = expected.subList(0, Math.min(k, expected.size()));
+
+            List<double[]> result = new ArrayList<>();
+            grid.nearest(x, y, k, radius, result);
+            assertEquals(expected, result);
+        }
+    }
+
+    @Test
+    void queryRadiusGivesOnlyElementsInTheCircle() {
+        SpatialGrid<String> grid = new SpatialGrid<>(SIZE, SIZE, CELL_SIZE);
+        grid.move("center", 300, 300);
+        grid.move("edge", 340, 330); // exactly 50 away
+        grid.move("corner", 345, 345); // in the bounding square, not in the circle
+        grid.move("far", 600, 300);
+
+        List<String> result = new ArrayList<>();
+        grid.queryRadius(300, 300, 50, result);
+
+        assertEquals(2, result.size());
+        assertTrue(result.contains("center"));
+        assertTrue(result.contains("edge"));
+    }
+
+}
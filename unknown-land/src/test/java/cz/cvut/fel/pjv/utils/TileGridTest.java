@@ -0,0 +1,64 @@
+package cz.cvut.fel.pjv.utils;
+
+import static cz.cvut.fel.pjv.utils.Constants.GameConstants.TILE_SIZE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_FREE;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_SOLID;
+import static cz.cvut.fel.pjv.utils.Constants.MapConstants.TILE_SPAWNABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the TileGrid - reading the tiles row after row and the border of the map.
+ *
+ * @author Son Ngoc Tran
+ */
+class TileGridTest {
+
+    private static final byte[] TILES = {
+            TILE_FREE, TILE_SOLID, TILE_FREE,
+            TILE_SPAWNABLE, TILE_FREE, TILE_SOLID };
+
+    @Test
+    void tilesAreReadRowAfterRow() {
+        TileGrid grid = new TileGrid(3, 2, TILES);
+
+        assertEquals(3, grid.getColumns());
+        assertEquals(2, grid.getRows());
+        assertEquals(TILE_SOLID, grid.get(1, 0));
+        assertEquals(TILE_SPAWNABLE, grid.get(0, 1));
+        assertTrue(grid.isSolid(2, 1));
+        assertTrue(grid.isSpawnable(0, 1));
+        assertFalse(grid.isSolid(0, 0));
+        assertEquals(TILES.length, grid.getBytes());
+    }
+
+    @Test
+    void outsideOfTheMapIsSolid() {
+        TileGrid grid = new TileGrid(3, 2, TILES);
+
+        assertTrue(grid.isSolid(-1, 0));
+        assertTrue(grid.isSolid(0, -1));
+        assertTrue(grid.isSolid(3, 0));
+        assertTrue(grid.isSolid(0, 2));
+    }
+
+    @Test
+    void worldPositionIsTurnedIntoTile() {
+        TileGrid grid = new TileGrid(3, 2, TILES);
+
+        assertEquals(TILE_SOLID, grid.getAt(TILE_SIZE + 0.5, TILE_SIZE - 0.5));
+        assertEquals(TILE_SPAWNABLE, grid.getAt(0, TILE_SIZE));
+        assertEquals(-1, TileGrid.toTile(-0.5)); // rounded down, not towards zero
+        assertEquals(2, TileGrid.toTile(2 * TILE_SIZE));
+    }
+
+    @Test
+    void wrongAmountOfTilesIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TileGrid(4, 2, TILES));
+    }
+
+}
@@ -0,0 +1,84 @@
+package cz.cvut.fel.pjv.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the TripleBuffer - the reader gets the newest published buffer and
+ * never one the writer is filling.
+ *
+ * @author Son Ngoc Tran
+ */
+class TripleBufferTest {
+
+    private static final int FRAMES = 200_000;
+
+    @Test
+    void readerGetsTheLatestPublishedBuffer() {
+        TripleBuffer<int[]> buffers = new TripleBuffer<>(() -> new int[1]);
+
+        buffers.getWriteBuffer()[0] = 1;
+        buffers.publish();
+        buffers.getWriteBuffer()[0] = 2;
+        buffers.publish();
+
+        assertEquals(2, buffers.getReadBuffer()[0]); // the older frame is skipped
+    }
+
+    @Test
+    void readerKeepsItsBufferUntilSomethingNewIsPublished() {
+        TripleBuffer<int[]> buffers = new TripleBuffer<>(() -> new int[1]);
+
+        buffers.getWriteBuffer()[0] = 1;
+        buffers.publish();
+        int[] read = buffers.getReadBuffer();
+        assertSame(read, buffers.getReadBuffer());
+
+        buffers.getWriteBuffer()[0] = 2;
+        assertNotSame(read, buffers.getWriteBuffer());
+        buffers.publish();
+        assertEquals(2, buffers.getReadBuffer()[0]);
+    }
+
+    @Test
+    void readerNeverSeesHalfWrittenBuffer() throws InterruptedException {
+        // every buffer is a frame number written twice, the reader checks both are the same
+        TripleBuffer<long[]> buffers = new TripleBuffer<>(() -> new long[2]);
+        AtomicReference<String> error = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (long frame = 1; frame <= FRAMES; frame++) {
+                long[] buffer = buffers.getWriteBuffer();
+                buffer[0] = frame;
+                buffer[1] = frame;
+                buffers.publish();
+            }
+        });
+        writer.start();
+
+        long last = 0;
+        while (last < FRAMES && error.get() == null) {
+            long[] buffer = buffers.getReadBuffer();
+            long first = buffer[0];
+            long second = buffer[1];
+            if (first != second) {
+                error.set("torn frame " + first + "/" + second);
+            } else if (first < last) {
+                error.set("frame " + first + " after " + last);
+            } else {
+                last = first;
+            }
+        }
+        writer.join();
+
+        assertNull(error.get());
+        assertEquals(FRAMES, last); // the last frame always gets to the reader
+    }
+
+}